@@ -0,0 +1,38 @@
+package com.naturgy.gas.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Multi-node billing ({@code gas.billing.cluster.*}): several backend instances sharing one database
+ * bill the same job by leasing CUPS partitions.
+ *
+ * @param enabled       split full billing runs into partitions and join jobs started by other nodes
+ * @param nodeId        name of this node in lease rows; defaults to host name and process id
+ * @param partitionSize active CUPS per partition lease
+ * @param leaseDuration time a node keeps a partition without renewing it; an expired lease can be
+ *                      taken over by another node
+ * @param pollInterval  how often an idle node looks for claimable partitions
+ */
+@ConfigurationProperties(prefix = "gas.billing.cluster")
+public record BillingClusterProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("") String nodeId,
+        @DefaultValue("50000") int partitionSize,
+        @DefaultValue("60s") Duration leaseDuration,
+        @DefaultValue("5s") Duration pollInterval
+) {
+    public BillingClusterProperties {
+        if (partitionSize < 1) {
+            throw new IllegalArgumentException("gas.billing.cluster.partition-size must be >= 1, got: " + partitionSize);
+        }
+        if (leaseDuration.compareTo(Duration.ofSeconds(3)) < 0) {
+            throw new IllegalArgumentException("gas.billing.cluster.lease-duration must be >= 3s, got: " + leaseDuration);
+        }
+        if (pollInterval.isNegative() || pollInterval.isZero()) {
+            throw new IllegalArgumentException("gas.billing.cluster.poll-interval must be > 0, got: " + pollInterval);
+        }
+    }
+}
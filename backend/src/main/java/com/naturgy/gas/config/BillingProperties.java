@@ -0,0 +1,37 @@
+package com.naturgy.gas.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning knobs of the billing engine ({@code gas.billing.*}).
+ *
+ * @param workers   number of threads billing chunks in parallel; 1 bills on the calling thread
+ * @param chunkSize number of CUPS billed and committed together in one transaction
+ * @param resumeOnStartup resume jobs left RUNNING by a previous JVM from their last checkpoint
+ * @param invoiceNumberBlock invoice numbers each node reserves from the database at a time
+ * @param flushInterval CUPS billed between two flush/clear of the persistence context within a chunk
+ */
+@ConfigurationProperties(prefix = "gas.billing")
+public record BillingProperties(
+        @DefaultValue("1") int workers,
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("true") boolean resumeOnStartup,
+        @DefaultValue("100") int invoiceNumberBlock,
+        @DefaultValue("100") int flushInterval
+) {
+    public BillingProperties {
+        if (workers < 1) {
+            throw new IllegalArgumentException("gas.billing.workers must be >= 1, got: " + workers);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("gas.billing.chunk-size must be >= 1, got: " + chunkSize);
+        }
+        if (invoiceNumberBlock < 1) {
+            throw new IllegalArgumentException("gas.billing.invoice-number-block must be >= 1, got: " + invoiceNumberBlock);
+        }
+        if (flushInterval < 1) {
+            throw new IllegalArgumentException("gas.billing.flush-interval must be >= 1, got: " + flushInterval);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.naturgy.gas.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Latency histograms of the REST hot paths: invoice list / detail / PDF and the reading endpoints.
+ * <p>
+ * Every request is timed by Spring's {@code http.server.requests}; this filter adds histogram buckets
+ * (for {@code histogram_quantile} in Prometheus) and SLO boundaries to those URIs only, so the other
+ * endpoints keep a plain timer.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final String HTTP_SERVER_REQUESTS = "http.server.requests";
+    private static final List<String> HOT_PATHS = List.of("/api/gas/invoices", "/api/gas/readings");
+
+    @Bean
+    public MeterFilter hotPathLatencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!HTTP_SERVER_REQUESTS.equals(id.getName())) {
+                    return config;
+                }
+                String uri = id.getTag("uri");
+                if (uri == null || HOT_PATHS.stream().noneMatch(uri::startsWith)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .serviceLevelObjectives(
+                                Duration.ofMillis(50).toNanos(),
+                                Duration.ofMillis(100).toNanos(),
+                                Duration.ofMillis(250).toNanos(),
+                                Duration.ofMillis(500).toNanos(),
+                                Duration.ofSeconds(1).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
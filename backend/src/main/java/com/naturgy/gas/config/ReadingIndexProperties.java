@@ -0,0 +1,16 @@
+package com.naturgy.gas.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * In-memory reading index ({@code gas.readings.index.*}).
+ *
+ * @param enabled load every reading into {@link com.naturgy.gas.service.ReadingIndex} once the application is
+ *                ready and answer boundary and history lookups from it; ignored in cluster mode, where other
+ *                nodes write readings this node would not see
+ */
+@ConfigurationProperties(prefix = "gas.readings.index")
+public record ReadingIndexProperties(
+        @DefaultValue("false") boolean enabled
+) {}
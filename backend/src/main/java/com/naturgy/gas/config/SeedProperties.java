@@ -0,0 +1,16 @@
+package com.naturgy.gas.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Startup CSV seed ({@code gas.seed.*}).
+ *
+ * @param samplesDir directory with the seed CSVs; empty to look for {@code _data/db/samples/} from the
+ *                   working directory upwards (e.g. set it to the output of
+ *                   {@link com.naturgy.gas.seed.DatasetGenerator})
+ */
+@ConfigurationProperties(prefix = "gas.seed")
+public record SeedProperties(
+        @DefaultValue("") String samplesDir
+) {}
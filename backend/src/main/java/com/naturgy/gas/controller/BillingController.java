@@ -1,22 +1,141 @@
 package com.naturgy.gas.controller;
 
-import com.naturgy.gas.dto.BillingResultDto;
+import com.naturgy.gas.dto.BillingErrorDto;
+import com.naturgy.gas.dto.BillingErrorPageDto;
+import com.naturgy.gas.dto.BillingJobDto;
+import com.naturgy.gas.dto.BillingSimulationRequestDto;
+import com.naturgy.gas.dto.BillingSimulationResultDto;
+import com.naturgy.gas.dto.BillingSummaryDto;
+import com.naturgy.gas.entity.BillingError;
+import com.naturgy.gas.exception.NotFoundException;
+import com.naturgy.gas.repository.BillingErrorRepository;
+import com.naturgy.gas.repository.BillingJobRepository;
+import com.naturgy.gas.service.BillingJobEventStreamer;
+import com.naturgy.gas.service.BillingProgressRegistry;
+import com.naturgy.gas.service.BillingScope;
 import com.naturgy.gas.service.BillingService;
+import com.naturgy.gas.service.BillingSimulationService;
+import com.naturgy.gas.service.BillingSummaryService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.time.YearMonth;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/gas/billing")
 @RequiredArgsConstructor
 public class BillingController {
 
+    private static final int MAX_ERROR_PAGE = 1000;
+
     private final BillingService billingService;
+    private final BillingJobRepository jobRepository;
+    private final BillingErrorRepository billingErrorRepository;
+    private final BillingProgressRegistry progressRegistry;
+    private final BillingJobEventStreamer eventStreamer;
+    private final BillingSimulationService simulationService;
+    private final BillingSummaryService summaryService;
 
+    /**
+     * Starts a billing job and returns it immediately (202 Accepted).
+     * The job bills either one {@code period} or every month from {@code from} to {@code to}, for all
+     * active CUPS or, with {@code cups}, for a single supply point (e.g. to rebuild its history).
+     * With {@code delta=true} only CUPS whose invoice inputs changed, or that failed last time, are re-billed.
+     * Follow it with {@code GET /jobs/{id}} or the {@code GET /jobs/{id}/events} stream.
+     */
     @PostMapping("/run")
-    public BillingResultDto run(@RequestParam String period) {
-        return billingService.runBilling(period);
+    public ResponseEntity<BillingJobDto> run(@RequestParam(required = false) String period,
+                                             @RequestParam(required = false) String from,
+                                             @RequestParam(required = false) String to,
+                                             @RequestParam(required = false) String cups,
+                                             @RequestParam(defaultValue = "false") boolean delta) {
+        Long jobId = billingService.submitBilling(BillingScope.of(period, from, to, cups, delta));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/gas/billing/jobs/" + jobId))
+                .body(job(jobId));
+    }
+
+    /**
+     * Simulates the period with hypothetical tariffs / IVA / conversion factors and returns the revenue
+     * impact per tarifa and zona. Writes nothing.
+     */
+    @PostMapping("/simulations")
+    public BillingSimulationResultDto simulate(@RequestBody BillingSimulationRequestDto request) {
+        return simulationService.simulate(request);
+    }
+
+    /**
+     * Billing errors of a period, optionally of one {@code code}, in keyset pages ordered by id.
+     * Start without {@code afterId} and pass the returned {@code nextAfterId} to read the next page.
+     */
+    @GetMapping("/errors")
+    public BillingErrorPageDto errors(@RequestParam String period,
+                                      @RequestParam(required = false) BillingError.Code code,
+                                      @RequestParam(defaultValue = "0") long afterId,
+                                      @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_ERROR_PAGE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_ERROR_PAGE);
+        }
+        String label = BillingScope.ofPeriod(period).label();
+        List<BillingError> page = code == null
+                ? billingErrorRepository.findByPeriodAndIdGreaterThanOrderById(label, afterId, Limit.of(limit))
+                : billingErrorRepository.findByPeriodAndCodeAndIdGreaterThanOrderById(label, code, afterId,
+                        Limit.of(limit));
+        List<BillingErrorDto> items = page.stream()
+                .map(BillingErrorDto::from)
+                .toList();
+        Long nextAfterId = items.size() < limit ? null : items.get(items.size() - 1).id();
+        return new BillingErrorPageDto(items, nextAfterId);
+    }
+
+    /**
+     * Invoice totals of a period per zona and tarifa, maintained by billing as it writes invoices.
+     */
+    @GetMapping("/summary")
+    public List<BillingSummaryDto> summary(@RequestParam String period) {
+        return summaryService.summary(BillingScope.ofPeriod(period).label()).stream()
+                .map(BillingSummaryDto::from)
+                .toList();
+    }
+
+    /**
+     * Recomputes the summary of a period from its invoices. Run it while the period is not being billed.
+     */
+    @PostMapping("/summary/rebuild")
+    public List<BillingSummaryDto> rebuildSummary(@RequestParam String period) {
+        YearMonth month = BillingScope.ofPeriod(period).from();
+        summaryService.rebuild(month);
+        return summary(month.toString());
+    }
+
+    @GetMapping("/jobs/{id}")
+    public BillingJobDto job(@PathVariable Long id) {
+        return jobRepository.findById(id)
+                .map(j -> BillingJobDto.from(j, progressRegistry.find(id).orElse(null)))
+                .orElseThrow(() -> new NotFoundException("Billing job not found: " + id));
+    }
+
+    /**
+     * Resumes a job that did not complete from its last checkpoint (202 Accepted); 409 if it completed.
+     * The CUPS of its committed chunks are not billed again: after fixing readings or tariffs, start a
+     * new run with {@code POST /run} instead.
+     */
+    @PostMapping("/jobs/{id}/resume")
+    public ResponseEntity<BillingJobDto> resume(@PathVariable Long id) {
+        Long jobId = billingService.resumeBilling(id);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/gas/billing/jobs/" + jobId))
+                .body(job(jobId));
+    }
+
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable Long id) {
+        return eventStreamer.stream(id);
     }
 }
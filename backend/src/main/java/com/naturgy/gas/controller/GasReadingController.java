@@ -1,13 +1,24 @@
 package com.naturgy.gas.controller;
 
+import com.naturgy.gas.dto.CursorPageDto;
 import com.naturgy.gas.dto.GasReadingDto;
+import com.naturgy.gas.dto.ReadingImportResultDto;
 import com.naturgy.gas.entity.GasReading;
 import com.naturgy.gas.exception.NotFoundException;
 import com.naturgy.gas.repository.GasReadingRepository;
+import com.naturgy.gas.service.Keyset;
+import com.naturgy.gas.service.ListingService;
+import com.naturgy.gas.service.ReadingImportService;
+import com.naturgy.gas.service.ReadingIndex;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,16 +26,50 @@ import java.util.List;
 @RequiredArgsConstructor
 public class GasReadingController {
 
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
     private final GasReadingRepository repo;
+    private final ReadingImportService readingImportService;
+    private final ReadingIndex readingIndex;
+    private final ListingService listingService;
 
     @GetMapping
     public List<GasReadingDto> list(@RequestParam(required = false) String cups) {
+        if (cups != null && readingIndex.isReady()) {
+            return readingIndex.history(cups);
+        }
         List<GasReading> readings = cups != null
                 ? repo.findByCupsOrderByFechaDesc(cups)
                 : repo.findAll();
         return readings.stream().map(GasReadingDto::from).toList();
     }
 
+    /**
+     * All readings in keyset pages: start without {@code cursor} and pass the returned {@code nextCursor}
+     * (with the same sort and order) to read the next page.
+     *
+     * @param sort {@code id}, {@code cups} (then fecha) or {@code fecha} (then id)
+     */
+    @GetMapping("/page")
+    public CursorPageDto<GasReadingDto> page(@RequestParam(defaultValue = "id") String sort,
+                                             @RequestParam(defaultValue = "asc") String order,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "100") int limit) {
+        return listingService.readings(ListingService.readingSort(sort, order), cursor, limit);
+    }
+
+    /**
+     * All readings as NDJSON, written while they are read from the database.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void stream(@RequestParam(defaultValue = "id") String sort,
+                       @RequestParam(defaultValue = "asc") String order,
+                       HttpServletResponse response) throws IOException {
+        Keyset<GasReadingDto> keyset = ListingService.readingSort(sort, order);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        listingService.streamReadings(keyset, response.getOutputStream());
+    }
+
     @GetMapping("/{id}")
     public GasReadingDto get(@PathVariable Long id) {
         return repo.findById(id)
@@ -38,7 +83,22 @@ public class GasReadingController {
         if (repo.existsByCupsAndFecha(dto.cups(), dto.fecha())) {
             throw new IllegalStateException("Reading already exists for cups=" + dto.cups() + " fecha=" + dto.fecha());
         }
-        return GasReadingDto.from(repo.save(dto.toEntity()));
+        GasReading saved = repo.save(dto.toEntity());
+        readingIndex.refreshAfterCommit(List.of(saved.getCups()));
+        return GasReadingDto.from(saved);
+    }
+
+    /**
+     * Bulk import of a CSV ({@code cups,fecha,lectura_m3,tipo}) or NDJSON body, streamed. Rows with an
+     * unknown CUPS, an existing (cups, fecha) or invalid values are rejected and listed in the result.
+     */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ReadingImportResultDto bulkImport(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                             InputStream body) {
+        ReadingImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? ReadingImportService.Format.CSV
+                : ReadingImportService.Format.NDJSON;
+        return readingImportService.importReadings(body, format);
     }
 
     @PutMapping("/{id}")
@@ -47,15 +107,17 @@ public class GasReadingController {
                 .orElseThrow(() -> new NotFoundException("GasReading not found: " + id));
         gr.setLecturaM3(dto.lecturaM3());
         gr.setTipo(GasReading.TipoLectura.valueOf(dto.tipo()));
-        return GasReadingDto.from(repo.save(gr));
+        GasReading saved = repo.save(gr);
+        readingIndex.refreshAfterCommit(List.of(saved.getCups()));
+        return GasReadingDto.from(saved);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@PathVariable Long id) {
-        if (!repo.existsById(id)) {
-            throw new NotFoundException("GasReading not found: " + id);
-        }
-        repo.deleteById(id);
+        GasReading gr = repo.findById(id)
+                .orElseThrow(() -> new NotFoundException("GasReading not found: " + id));
+        repo.delete(gr);
+        readingIndex.refreshAfterCommit(List.of(gr.getCups()));
     }
 }
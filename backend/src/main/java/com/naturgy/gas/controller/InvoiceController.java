@@ -1,22 +1,41 @@
 package com.naturgy.gas.controller;
 
+import com.naturgy.gas.dto.CursorPageDto;
 import com.naturgy.gas.dto.InvoiceDto;
 import com.naturgy.gas.entity.Invoice;
 import com.naturgy.gas.exception.NotFoundException;
 import com.naturgy.gas.repository.InvoiceRepository;
+import com.naturgy.gas.repository.InvoiceVersion;
+import com.naturgy.gas.service.InvoiceExportService;
+import com.naturgy.gas.service.ListingService;
 import com.naturgy.gas.service.PdfService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Invoice endpoints. The invoice, its PDF and the filtered list carry a strong ETag and Last-Modified
+ * derived from the invoice versions, which billing increments on each re-bill, and are sent with
+ * {@code Cache-Control: no-cache}: clients revalidate each time, and an unchanged resource is answered
+ * with 304 before its lines are loaded or its PDF rendered.
+ */
 @RestController
 @RequestMapping("/api/gas/invoices")
 @RequiredArgsConstructor
@@ -24,21 +43,47 @@ public class InvoiceController {
 
     private final InvoiceRepository repo;
     private final PdfService pdfService;
+    private final ListingService listingService;
+    private final InvoiceExportService invoiceExportService;
 
     @GetMapping
-    public List<InvoiceDto> list(
+    public ResponseEntity<List<InvoiceDto>> list(
             @RequestParam(required = false) String cups,
             @RequestParam(required = false) String period,
-            @RequestParam(required = false) String fechaEmision) {
-
-        LocalDate periodoInicio = null;
-        if (period != null && !period.isBlank()) {
-            try {
-                periodoInicio = YearMonth.parse(period).atDay(1);
-            } catch (Exception e) {
-                throw new IllegalArgumentException("Invalid period format. Expected YYYY-MM, got: " + period);
-            }
+            @RequestParam(required = false) String fechaEmision,
+            WebRequest request) {
+        ListingService.InvoiceFilter filter = filter(cups, period, fechaEmision);
+        ListingService.InvoicesVersion version = listingService.invoicesVersion(filter);
+        long lastModified = millis(version.lastModified());
+        String etag = version.count() + "-" + version.versions() + "-" + Math.max(lastModified, 0);
+        if (request.checkNotModified(etag, lastModified)) {
+            return null;
         }
+        return validated(etag, lastModified)
+                .body(listingService.invoices(filter, ListingService.invoiceSort("numero", "asc")));
+    }
+
+    /**
+     * Invoice headers matching the filters in keyset pages: start without {@code cursor} and pass the
+     * returned {@code nextCursor} (with the same filters, sort and order) to read the next page.
+     *
+     * @param sort {@code numero}, {@code periodo}, {@code emision} or {@code total}
+     */
+    @GetMapping("/page")
+    public CursorPageDto<InvoiceDto> page(
+            @RequestParam(required = false) String cups,
+            @RequestParam(required = false) String period,
+            @RequestParam(required = false) String fechaEmision,
+            @RequestParam(defaultValue = "periodo") String sort,
+            @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        return listingService.invoices(filter(cups, period, fechaEmision),
+                ListingService.invoiceSort(sort, order), cursor, limit);
+    }
+
+    private static ListingService.InvoiceFilter filter(String cups, String period, String fechaEmision) {
+        LocalDate periodoInicio = period != null && !period.isBlank() ? parsePeriod(period).atDay(1) : null;
 
         LocalDate fechaEmisionDate = null;
         if (fechaEmision != null && !fechaEmision.isBlank()) {
@@ -49,21 +94,71 @@ public class InvoiceController {
             }
         }
 
-        return repo.findWithFilters(cups, periodoInicio, fechaEmisionDate)
-                .stream()
-                .map(InvoiceDto::fromHeader)
-                .toList();
+        return new ListingService.InvoiceFilter(cups, periodoInicio, fechaEmisionDate);
+    }
+
+    private static YearMonth parsePeriod(String period) {
+        try {
+            return YearMonth.parse(period);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid period format. Expected YYYY-MM, got: " + period);
+        }
+    }
+
+    /**
+     * Invoices of a period with their lines, streamed: CSV (one row per line) or NDJSON (one invoice per
+     * line). Gzip-compressed when the client accepts it ({@code curl --compressed}).
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam String period,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        YearMonth month = parsePeriod(period);
+        InvoiceExportService.Format exportFormat = InvoiceExportService.Format.parse(format);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(exportFormat == InvoiceExportService.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON);
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("invoices-" + month + "." + format)
+                .build());
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 1 << 16);
+                invoiceExportService.export(month, exportFormat, compressed);
+                compressed.finish();
+            } else {
+                invoiceExportService.export(month, exportFormat, out);
+            }
+        };
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     @GetMapping("/{invoiceId}")
-    public InvoiceDto get(@PathVariable String invoiceId) {
+    public ResponseEntity<InvoiceDto> get(@PathVariable String invoiceId, WebRequest request) {
+        InvoiceVersion version = version(invoiceId);
+        if (request.checkNotModified(etag(version), millis(version.lastModified()))) {
+            return null;
+        }
         Invoice invoice = repo.findByIdWithLines(invoiceId)
                 .orElseThrow(() -> new NotFoundException("Invoice not found: " + invoiceId));
-        return InvoiceDto.from(invoice);
+        return validated(etag(version), millis(version.lastModified())).body(InvoiceDto.from(invoice));
     }
 
     @GetMapping(value = "/{invoiceId}/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
-    public ResponseEntity<byte[]> pdf(@PathVariable String invoiceId) throws IOException {
+    public ResponseEntity<byte[]> pdf(@PathVariable String invoiceId, WebRequest request) throws IOException {
+        InvoiceVersion version = version(invoiceId);
+        if (request.checkNotModified(etag(version), millis(version.lastModified()))) {
+            return null;
+        }
         Invoice invoice = repo.findByIdWithLines(invoiceId)
                 .orElseThrow(() -> new NotFoundException("Invoice not found: " + invoiceId));
 
@@ -74,8 +169,67 @@ public class InvoiceController {
         headers.setContentDispositionFormData("inline", invoiceId + ".pdf");
         headers.setContentLength(pdfBytes.length);
 
-        return ResponseEntity.ok()
+        return validated(etag(version), millis(version.lastModified()))
                 .headers(headers)
                 .body(pdfBytes);
     }
+
+    private InvoiceVersion version(String invoiceId) {
+        return repo.findVersion(invoiceId)
+                .orElseThrow(() -> new NotFoundException("Invoice not found: " + invoiceId));
+    }
+
+    /**
+     * @return whether {@code Accept-Encoding} allows gzip: listed, or covered by {@code *}, with a
+     *         non-zero q-value
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = q;
+            } else if (coding.equals("*")) {
+                any = q;
+            }
+        }
+        double q = gzip != null ? gzip : any != null ? any : 0;
+        return q > 0;
+    }
+
+    private static String etag(InvoiceVersion version) {
+        return "v" + (version.version() == null ? 0 : version.version());
+    }
+
+    /**
+     * @return epoch millis of {@code time}, or -1 (no Last-Modified) if null
+     */
+    private static long millis(LocalDateTime time) {
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 200 response carrying the validators of a resource; {@code checkNotModified} already answered a
+     * matching conditional request with 304.
+     */
+    private static ResponseEntity.BodyBuilder validated(String etag, long lastModified) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag);
+        return lastModified < 0 ? builder : builder.lastModified(lastModified);
+    }
 }
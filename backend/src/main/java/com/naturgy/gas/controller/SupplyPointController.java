@@ -1,13 +1,19 @@
 package com.naturgy.gas.controller;
 
+import com.naturgy.gas.dto.CursorPageDto;
 import com.naturgy.gas.dto.SupplyPointDto;
 import com.naturgy.gas.entity.SupplyPoint;
 import com.naturgy.gas.exception.NotFoundException;
 import com.naturgy.gas.repository.SupplyPointRepository;
+import com.naturgy.gas.service.Keyset;
+import com.naturgy.gas.service.ListingService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -16,12 +22,39 @@ import java.util.List;
 public class SupplyPointController {
 
     private final SupplyPointRepository repo;
+    private final ListingService listingService;
 
     @GetMapping
     public List<SupplyPointDto> list() {
         return repo.findAll().stream().map(SupplyPointDto::from).toList();
     }
 
+    /**
+     * All supply points in keyset pages: start without {@code cursor} and pass the returned
+     * {@code nextCursor} (with the same sort and order) to read the next page.
+     *
+     * @param sort {@code cups}, {@code zona} (then cups) or {@code tarifa} (then cups)
+     */
+    @GetMapping("/page")
+    public CursorPageDto<SupplyPointDto> page(@RequestParam(defaultValue = "cups") String sort,
+                                              @RequestParam(defaultValue = "asc") String order,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "100") int limit) {
+        return listingService.supplyPoints(ListingService.supplyPointSort(sort, order), cursor, limit);
+    }
+
+    /**
+     * All supply points as NDJSON, written while they are read from the database.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void stream(@RequestParam(defaultValue = "cups") String sort,
+                       @RequestParam(defaultValue = "asc") String order,
+                       HttpServletResponse response) throws IOException {
+        Keyset<SupplyPointDto> keyset = ListingService.supplyPointSort(sort, order);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        listingService.streamSupplyPoints(keyset, response.getOutputStream());
+    }
+
     @GetMapping("/{cups}")
     public SupplyPointDto get(@PathVariable String cups) {
         return repo.findById(cups)
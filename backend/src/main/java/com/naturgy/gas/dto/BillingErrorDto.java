@@ -0,0 +1,19 @@
+package com.naturgy.gas.dto;
+
+import com.naturgy.gas.entity.BillingError;
+
+import java.time.LocalDateTime;
+
+public record BillingErrorDto(
+        Long id,
+        String cups,
+        String period,
+        BillingError.Code code,
+        String error,
+        LocalDateTime createdAt
+) {
+    public static BillingErrorDto from(BillingError e) {
+        return new BillingErrorDto(e.getId(), e.getCups(), e.getPeriod(), e.getCode(), e.getErrorMessage(),
+                e.getCreatedAt());
+    }
+}
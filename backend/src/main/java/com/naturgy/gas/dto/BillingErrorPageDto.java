@@ -0,0 +1,12 @@
+package com.naturgy.gas.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of billing errors; pass {@code nextAfterId} as {@code afterId} to read the next one.
+ * {@code nextAfterId} is null on the last page.
+ */
+public record BillingErrorPageDto(
+        List<BillingErrorDto> items,
+        Long nextAfterId
+) {}
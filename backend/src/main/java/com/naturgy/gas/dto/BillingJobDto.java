@@ -0,0 +1,55 @@
+package com.naturgy.gas.dto;
+
+import com.naturgy.gas.entity.BillingJob;
+import com.naturgy.gas.service.BillingProgress;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status and counters of a billing job. Throughput, ETA and result are only known while the job
+ * runs (or has just finished) on the node serving the request.
+ */
+public record BillingJobDto(
+        Long id,
+        String period,
+        String periodTo,
+        String cups,
+        boolean delta,
+        String status,
+        long totalCups,
+        long processedCups,
+        long invoicesCreated,
+        long invoicesUpdated,
+        long invoicesSkipped,
+        long errorCount,
+        Double cupsPerSecond,
+        Long etaSeconds,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String failureMessage,
+        BillingResultDto result
+) {
+    public static BillingJobDto from(BillingJob e, BillingProgress progress) {
+        boolean running = e.getStatus() == BillingJob.Status.RUNNING;
+        return new BillingJobDto(
+                e.getId(),
+                e.getPeriod(),
+                e.getPeriodTo(),
+                e.getCups(),
+                e.isDelta(),
+                e.getStatus().name(),
+                e.getTotalCups(),
+                e.getProcessedCups(),
+                e.getInvoicesCreated(),
+                e.getInvoicesUpdated(),
+                e.getInvoicesSkipped(),
+                e.getErrorCount(),
+                progress == null ? null : progress.cupsPerSecond(),
+                progress == null || !running ? null : progress.etaSeconds(),
+                e.getStartedAt(),
+                e.getFinishedAt(),
+                e.getFailureMessage(),
+                progress == null ? null : progress.result()
+        );
+    }
+}
@@ -1,12 +1,18 @@
 package com.naturgy.gas.dto;
 
-import java.util.List;
+import com.naturgy.gas.entity.BillingError;
 
+import java.util.Map;
+
+/**
+ * Counters of a billing run. Failing CUPS are only counted here, per error code; the detail is paged
+ * through {@code GET /api/gas/billing/errors}.
+ */
 public record BillingResultDto(
         String period,
         int invoicesCreated,
         int invoicesUpdated,
-        List<BillingErrorDto> errors
-) {
-    public record BillingErrorDto(String cups, String error) {}
-}
+        int invoicesSkipped,
+        long errorCount,
+        Map<BillingError.Code, Long> errorsByCode
+) {}
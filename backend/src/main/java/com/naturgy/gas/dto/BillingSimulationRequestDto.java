@@ -0,0 +1,21 @@
+package com.naturgy.gas.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Hypothetical reference data to simulate a billing period with. Tariffs and factors replace the effective
+ * rows of the same tarifa / zona (their vigenciaDesde and mes are ignored); a null ivaRate keeps the
+ * effective IVA rate.
+ */
+public record BillingSimulationRequestDto(
+        String period,
+        List<GasTariffDto> tariffs,
+        List<GasConversionFactorDto> factors,
+        BigDecimal ivaRate
+) {
+    public BillingSimulationRequestDto {
+        tariffs = tariffs == null ? List.of() : tariffs;
+        factors = factors == null ? List.of() : factors;
+    }
+}
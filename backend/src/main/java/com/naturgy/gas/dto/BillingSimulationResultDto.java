@@ -0,0 +1,46 @@
+package com.naturgy.gas.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Portfolio impact of a billing simulation: amounts with the current reference data, with the overrides,
+ * and the difference, in total and per (tarifa, zona).
+ *
+ * @param unbillableCurrent   CUPS that current reference data cannot bill (missing readings, tariff...)
+ * @param unbillableSimulated CUPS that the simulated reference data cannot bill
+ */
+public record BillingSimulationResultDto(
+        String period,
+        int cupsSimulated,
+        int unbillableCurrent,
+        int unbillableSimulated,
+        Amounts current,
+        Amounts simulated,
+        Amounts delta,
+        List<GroupDto> groups,
+        long elapsedMs
+) {
+    public record Amounts(BigDecimal base, BigDecimal impuestos, BigDecimal total) {
+
+        public static final Amounts ZERO = new Amounts(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        public Amounts plus(Amounts other) {
+            return new Amounts(base.add(other.base), impuestos.add(other.impuestos), total.add(other.total));
+        }
+
+        public Amounts minus(Amounts other) {
+            return new Amounts(base.subtract(other.base), impuestos.subtract(other.impuestos),
+                    total.subtract(other.total));
+        }
+    }
+
+    public record GroupDto(
+            String tarifa,
+            String zona,
+            int cups,
+            Amounts current,
+            Amounts simulated,
+            Amounts delta
+    ) {}
+}
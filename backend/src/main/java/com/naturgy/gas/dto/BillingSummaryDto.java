@@ -0,0 +1,22 @@
+package com.naturgy.gas.dto;
+
+import com.naturgy.gas.entity.BillingSummary;
+
+import java.math.BigDecimal;
+
+public record BillingSummaryDto(
+        String period,
+        String zona,
+        String tarifa,
+        long invoices,
+        BigDecimal m3,
+        BigDecimal kwh,
+        BigDecimal base,
+        BigDecimal impuestos,
+        BigDecimal total
+) {
+    public static BillingSummaryDto from(BillingSummary s) {
+        return new BillingSummaryDto(s.getPeriod(), s.getZona(), s.getTarifa(), s.getInvoices(), s.getM3(),
+                s.getKwh(), s.getBase(), s.getImpuestos(), s.getTotal());
+    }
+}
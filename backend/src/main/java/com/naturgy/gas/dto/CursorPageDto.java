@@ -0,0 +1,12 @@
+package com.naturgy.gas.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of a listing; pass {@code nextCursor} as {@code cursor} (with the same sort) to read the
+ * next one. {@code nextCursor} is null on the last page.
+ */
+public record CursorPageDto<T>(
+        List<T> items,
+        String nextCursor
+) {}
@@ -0,0 +1,17 @@
+package com.naturgy.gas.dto;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk readings import. {@code rejects} lists at most the first
+ * {@link com.naturgy.gas.service.ReadingImportService#MAX_REJECTS} rejected rows; {@code rejected}
+ * counts them all.
+ */
+public record ReadingImportResultDto(
+        long received,
+        long inserted,
+        long rejected,
+        List<ReadingRejectDto> rejects,
+        boolean rejectsTruncated,
+        long elapsedMs
+) {}
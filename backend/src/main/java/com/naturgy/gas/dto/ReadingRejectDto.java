@@ -0,0 +1,25 @@
+package com.naturgy.gas.dto;
+
+/**
+ * A row of a bulk readings import that was not inserted.
+ *
+ * @param line   line of the row in the request body (1 = CSV header or first NDJSON line)
+ * @param cups   CUPS as sent, null if it could not be read
+ * @param fecha  date as sent, null if it could not be read
+ */
+public record ReadingRejectDto(
+        long line,
+        String cups,
+        String fecha,
+        Reason reason,
+        String message
+) {
+    public enum Reason {
+        /** Malformed row: missing column, bad date / decimal / tipo, negative reading */
+        INVALID,
+        /** CUPS not in supply points */
+        UNKNOWN_CUPS,
+        /** A reading for (cups, fecha) already exists, or appears earlier in the same request */
+        DUPLICATE
+    }
+}
@@ -0,0 +1,55 @@
+package com.naturgy.gas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A committed chunk of a {@link BillingJob}: every active CUPS in [firstCups, lastCups] has been billed
+ * (or has a billing error) in the same transaction that inserted this row.
+ */
+@Entity
+@Table(name = "billing_checkpoints",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"job_id", "first_cups"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class BillingCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(nullable = false, length = 7)
+    private String period;
+
+    @Column(name = "first_cups", nullable = false, length = 50)
+    private String firstCups;
+
+    @Column(name = "last_cups", nullable = false, length = 50)
+    private String lastCups;
+
+    @Column(name = "cups_count", nullable = false)
+    private int cupsCount;
+
+    @Column(name = "invoices_created", nullable = false)
+    private int invoicesCreated;
+
+    @Column(name = "invoices_updated", nullable = false)
+    private int invoicesUpdated;
+
+    @Column(name = "invoices_skipped", nullable = false)
+    private int invoicesSkipped;
+
+    @Column(name = "error_count", nullable = false)
+    private int errorCount;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+}
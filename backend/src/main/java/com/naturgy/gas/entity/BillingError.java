@@ -7,15 +7,24 @@ import lombok.Setter;
 
 import java.time.LocalDateTime;
 
+/**
+ * A CUPS that could not be billed for a period. Rows are replaced each time the CUPS is billed again;
+ * {@link #jobId} is the job whose committed chunk wrote the row.
+ */
 @Entity
-@Table(name = "billing_errors")
+@Table(name = "billing_errors",
+       indexes = {
+           @Index(name = "idx_billing_errors_period", columnList = "period, id"),
+           @Index(name = "idx_billing_errors_period_code", columnList = "period, code, id")
+       })
 @Getter
 @Setter
 @NoArgsConstructor
 public class BillingError {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "billing_errors_seq")
+    @SequenceGenerator(name = "billing_errors_seq", sequenceName = "billing_errors_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 50)
@@ -24,16 +33,29 @@ public class BillingError {
     @Column(nullable = false, length = 7)
     private String period;
 
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Code code;
+
     @Column(name = "error_message", nullable = false, length = 500)
     private String errorMessage;
 
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
-    public BillingError(String cups, String period, String errorMessage) {
+    public BillingError(Long jobId, String cups, String period, Code code, String errorMessage) {
+        this.jobId = jobId;
         this.cups = cups;
         this.period = period;
+        this.code = code;
         this.errorMessage = errorMessage;
         this.createdAt = LocalDateTime.now();
     }
+
+    public enum Code {
+        MISSING_INICIO, MISSING_FIN, NEGATIVE_CONSUMPTION, NO_TARIFF, NO_FACTOR, NO_IVA
+    }
 }
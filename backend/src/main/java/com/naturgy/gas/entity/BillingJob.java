@@ -0,0 +1,88 @@
+package com.naturgy.gas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "billing_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class BillingJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** First month billed by the job. */
+    @Column(nullable = false, length = 7)
+    private String period;
+
+    /** Last month billed by the job; equals {@link #period} for a single-month run. */
+    @Column(name = "period_to", nullable = false, length = 7)
+    private String periodTo;
+
+    /** CUPS whose history is rebuilt, or null when the job bills every active CUPS. */
+    @Column(length = 50)
+    private String cups;
+
+    /** Delta run: CUPS whose invoice inputs did not change are skipped. */
+    @Column(nullable = false)
+    private boolean delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status;
+
+    @Column(name = "chunk_size", nullable = false)
+    private int chunkSize;
+
+    @Column(name = "total_cups", nullable = false)
+    private long totalCups;
+
+    @Column(name = "processed_cups", nullable = false)
+    private long processedCups;
+
+    @Column(name = "invoices_created", nullable = false)
+    private long invoicesCreated;
+
+    @Column(name = "invoices_updated", nullable = false)
+    private long invoicesUpdated;
+
+    @Column(name = "invoices_skipped", nullable = false)
+    private long invoicesSkipped;
+
+    @Column(name = "error_count", nullable = false)
+    private long errorCount;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "failure_message", length = 500)
+    private String failureMessage;
+
+    public BillingJob(String period, int chunkSize) {
+        this(period, period, null, false, chunkSize);
+    }
+
+    public BillingJob(String period, String periodTo, String cups, boolean delta, int chunkSize) {
+        this.period = period;
+        this.periodTo = periodTo;
+        this.cups = cups;
+        this.delta = delta;
+        this.chunkSize = chunkSize;
+        this.status = Status.RUNNING;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+}
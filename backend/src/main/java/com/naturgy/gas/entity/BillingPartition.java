@@ -0,0 +1,83 @@
+package com.naturgy.gas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A CUPS range of a {@link BillingJob} billed by one node at a time under a lease.
+ * The range is {@code (afterCups, lastCups]}; a null {@code lastCups} leaves the last partition open.
+ * Counters are added in the transaction of each committed chunk, so they always match the chunk
+ * checkpoints, whichever node committed them.
+ */
+@Entity
+@Table(name = "billing_partitions",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"job_id", "partition_no"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class BillingPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "partition_no", nullable = false)
+    private int partitionNo;
+
+    @Column(name = "after_cups", nullable = false, length = 50)
+    private String afterCups;
+
+    @Column(name = "last_cups", length = 50)
+    private String lastCups;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status;
+
+    /** Node holding the lease, or that completed the partition. */
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "processed_cups", nullable = false)
+    private long processedCups;
+
+    @Column(name = "invoices_created", nullable = false)
+    private long invoicesCreated;
+
+    @Column(name = "invoices_updated", nullable = false)
+    private long invoicesUpdated;
+
+    @Column(name = "invoices_skipped", nullable = false)
+    private long invoicesSkipped;
+
+    @Column(name = "error_count", nullable = false)
+    private long errorCount;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public BillingPartition(Long jobId, int partitionNo, String afterCups, String lastCups) {
+        this.jobId = jobId;
+        this.partitionNo = partitionNo;
+        this.afterCups = afterCups;
+        this.lastCups = lastCups;
+        this.status = Status.PENDING;
+    }
+
+    public enum Status {
+        PENDING, LEASED, DONE
+    }
+}
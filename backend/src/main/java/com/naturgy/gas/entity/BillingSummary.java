@@ -0,0 +1,59 @@
+package com.naturgy.gas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Totals of the invoices of one (period, zona, tarifa), kept up to date by billing: each chunk adds its
+ * new invoices and subtracts the invoices it replaces, in the transaction that writes them.
+ */
+@Entity
+@Table(name = "billing_summary",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"period", "zona", "tarifa"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class BillingSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Billing month as YYYY-MM. */
+    @Column(nullable = false, length = 7)
+    private String period;
+
+    @Column(nullable = false, length = 50)
+    private String zona;
+
+    @Column(nullable = false, length = 20)
+    private String tarifa;
+
+    @Column(nullable = false)
+    private long invoices;
+
+    @Column(nullable = false, precision = 18, scale = 3)
+    private BigDecimal m3 = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 18, scale = 3)
+    private BigDecimal kwh = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal base = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal impuestos = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    public BillingSummary(String period, String zona, String tarifa) {
+        this.period = period;
+        this.zona = zona;
+        this.tarifa = tarifa;
+    }
+}
@@ -10,7 +10,8 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "gas_readings",
-       uniqueConstraints = @UniqueConstraint(columnNames = {"cups", "fecha"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"cups", "fecha"}),
+       indexes = @Index(name = "idx_gas_readings_fecha", columnList = "fecha, id"))
 @Getter
 @Setter
 @NoArgsConstructor
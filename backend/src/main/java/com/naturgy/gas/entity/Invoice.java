@@ -1,22 +1,29 @@
 package com.naturgy.gas.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "invoices",
-       uniqueConstraints = @UniqueConstraint(columnNames = {"cups", "periodo_inicio"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"cups", "periodo_inicio"}),
+       indexes = {
+           @Index(name = "idx_invoices_periodo_inicio", columnList = "periodo_inicio, numero_factura"),
+           @Index(name = "idx_invoices_fecha_emision", columnList = "fecha_emision, numero_factura")
+       })
 @Getter
 @Setter
 @NoArgsConstructor
-public class Invoice {
+public class Invoice implements Persistable<String> {
 
     @Id
     @Column(name = "numero_factura", nullable = false, length = 60)
@@ -31,6 +38,19 @@ public class Invoice {
     @Column(name = "periodo_fin", nullable = false)
     private LocalDate periodoFin;
 
+    /** Zona and tarifa of the supply point when billed; null on invoices issued before they were recorded. */
+    @Column(length = 50)
+    private String zona;
+
+    @Column(length = 20)
+    private String tarifa;
+
+    @Column(name = "consumo_m3", precision = 14, scale = 3)
+    private BigDecimal consumoM3;
+
+    @Column(precision = 14, scale = 3)
+    private BigDecimal kwh;
+
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal base;
 
@@ -43,6 +63,46 @@ public class Invoice {
     @Column(name = "fecha_emision", nullable = false)
     private LocalDate fechaEmision;
 
+    /** {@link com.naturgy.gas.service.InvoiceFingerprint} of the inputs the invoice was computed from. */
+    @Column(name = "input_fingerprint", length = 64)
+    private String inputFingerprint;
+
+    /**
+     * Incremented each time the (cups, periodo_inicio) is re-billed, starting at 1; with
+     * {@link #lastModified} it validates cached copies of the invoice and its PDF. Null on invoices issued
+     * before it was recorded.
+     */
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<InvoiceLine> lines = new ArrayList<>();
+
+    /**
+     * The id is assigned, so Spring Data cannot tell a new invoice from its id: without this flag
+     * {@code save} would merge (SELECT, then INSERT) instead of persisting a batchable INSERT.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public String getId() {
+        return numeroFactura;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
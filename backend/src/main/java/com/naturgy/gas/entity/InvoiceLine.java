@@ -8,14 +8,17 @@ import lombok.Setter;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "invoice_lines")
+@Table(name = "invoice_lines",
+       indexes = @Index(name = "idx_invoice_lines_numero_factura", columnList = "numero_factura, id"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class InvoiceLine {
 
+    // Sequence ids (fetched 50 at a time) let Hibernate batch line inserts; IDENTITY forces one INSERT per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_lines_seq")
+    @SequenceGenerator(name = "invoice_lines_seq", sequenceName = "invoice_lines_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
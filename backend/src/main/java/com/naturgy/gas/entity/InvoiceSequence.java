@@ -0,0 +1,38 @@
+package com.naturgy.gas.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Invoice number sequence of one billing month: {@code lastValue} is the last sequence number reserved
+ * by any node. Nodes reserve numbers in blocks and hand them out from memory.
+ */
+@Entity
+@Table(name = "invoice_sequences")
+@Getter
+@Setter
+@NoArgsConstructor
+public class InvoiceSequence {
+
+    /** Billing month as YYYYMM, as it appears in the invoice number. */
+    @Id
+    @Column(length = 6)
+    private String period;
+
+    @Column(name = "last_value", nullable = false)
+    private long lastValue;
+
+    /** Random value set when the row is created: a block reserved under another epoch is from a deleted row. */
+    @Column(nullable = false)
+    private long epoch;
+
+    public InvoiceSequence(String period, long lastValue) {
+        this.period = period;
+        this.lastValue = lastValue;
+        this.epoch = ThreadLocalRandom.current().nextLong();
+    }
+}
@@ -6,7 +6,11 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "supply_points")
+@Table(name = "supply_points",
+       indexes = {
+           @Index(name = "idx_supply_points_zona", columnList = "zona, cups"),
+           @Index(name = "idx_supply_points_tarifa", columnList = "tarifa, cups")
+       })
 @Getter
 @Setter
 @NoArgsConstructor
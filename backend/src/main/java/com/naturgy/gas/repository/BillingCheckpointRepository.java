@@ -0,0 +1,16 @@
+package com.naturgy.gas.repository;
+
+import com.naturgy.gas.entity.BillingCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface BillingCheckpointRepository extends JpaRepository<BillingCheckpoint, Long> {
+
+    List<BillingCheckpoint> findByJobIdOrderByFirstCups(Long jobId);
+
+    List<BillingCheckpoint> findByJobIdAndFirstCupsGreaterThanOrderByFirstCups(Long jobId, String afterCups);
+
+    List<BillingCheckpoint> findByJobIdAndFirstCupsGreaterThanAndFirstCupsLessThanEqualOrderByFirstCups(
+            Long jobId, String afterCups, String lastCups);
+}
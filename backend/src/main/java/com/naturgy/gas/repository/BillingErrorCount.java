@@ -0,0 +1,11 @@
+package com.naturgy.gas.repository;
+
+import com.naturgy.gas.entity.BillingError;
+
+/**
+ * Number of {@link BillingError}s with the same code.
+ */
+public record BillingErrorCount(
+        BillingError.Code code,
+        long count
+) {}
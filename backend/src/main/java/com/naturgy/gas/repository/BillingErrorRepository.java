@@ -1,8 +1,12 @@
 package com.naturgy.gas.repository;
 
 import com.naturgy.gas.entity.BillingError;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface BillingErrorRepository extends JpaRepository<BillingError, Long> {
@@ -10,4 +14,29 @@ public interface BillingErrorRepository extends JpaRepository<BillingError, Long
     List<BillingError> findByPeriod(String period);
 
     void deleteByPeriod(String period);
+
+    void deleteByCupsAndPeriod(String cups, String period);
+
+    List<BillingError> findByCupsInAndPeriodIn(Collection<String> cups, Collection<String> periods);
+
+    @Modifying
+    @Query("DELETE FROM BillingError e WHERE e.cups IN :cups AND e.period IN :periods")
+    int deleteByCupsInAndPeriodIn(Collection<String> cups, Collection<String> periods);
+
+    @Query("SELECT new com.naturgy.gas.repository.BillingErrorCount(e.code, COUNT(e)) " +
+           "FROM BillingError e WHERE e.jobId = :jobId GROUP BY e.code")
+    List<BillingErrorCount> countByCodeForJob(Long jobId);
+
+    /**
+     * Keyset page of the errors of a period with an id above {@code afterId}, read from
+     * {@code idx_billing_errors_period}.
+     */
+    List<BillingError> findByPeriodAndIdGreaterThanOrderById(String period, long afterId, Limit limit);
+
+    /**
+     * Keyset page of the errors of a period and code with an id above {@code afterId}, read from
+     * {@code idx_billing_errors_period_code}.
+     */
+    List<BillingError> findByPeriodAndCodeAndIdGreaterThanOrderById(String period, BillingError.Code code,
+                                                                     long afterId, Limit limit);
 }
@@ -0,0 +1,35 @@
+package com.naturgy.gas.repository;
+
+import com.naturgy.gas.entity.BillingJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface BillingJobRepository extends JpaRepository<BillingJob, Long> {
+
+    Optional<BillingJob> findTopByPeriodAndPeriodToAndCupsAndDeltaAndStatusOrderByIdDesc(
+            String period, String periodTo, String cups, boolean delta, BillingJob.Status status);
+
+    List<BillingJob> findByStatus(BillingJob.Status status);
+
+    @Modifying
+    @Query("UPDATE BillingJob j SET j.totalCups = :totalCups WHERE j.id = :id")
+    int setTotalCups(Long id, long totalCups);
+
+    @Modifying
+    @Query("UPDATE BillingJob j SET j.processedCups = j.processedCups + :cups, " +
+           "j.invoicesCreated = j.invoicesCreated + :created, " +
+           "j.invoicesUpdated = j.invoicesUpdated + :updated, " +
+           "j.invoicesSkipped = j.invoicesSkipped + :skipped, " +
+           "j.errorCount = j.errorCount + :errors WHERE j.id = :id")
+    int addProgress(Long id, long cups, long created, long updated, long skipped, long errors);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BillingJob j SET j.status = :status, j.finishedAt = :finishedAt, " +
+           "j.failureMessage = :failureMessage WHERE j.id = :id")
+    int finish(Long id, BillingJob.Status status, LocalDateTime finishedAt, String failureMessage);
+}
@@ -0,0 +1,68 @@
+package com.naturgy.gas.repository;
+
+import com.naturgy.gas.entity.BillingPartition;
+import com.naturgy.gas.entity.BillingPartition.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lease operations are conditional bulk UPDATEs: the returned row count tells whether this node won
+ * the claim or still owns the lease. A partition is claimable when it was never leased or its lease
+ * expired (the node died or stalled).
+ */
+public interface BillingPartitionRepository extends JpaRepository<BillingPartition, Long> {
+
+    List<BillingPartition> findByJobIdOrderByPartitionNo(Long jobId);
+
+    boolean existsByJobId(Long jobId);
+
+    long countByJobIdAndStatusNot(Long jobId, Status status);
+
+    @Query("SELECT p FROM BillingPartition p WHERE p.jobId = :jobId AND (p.status = :pending " +
+           "OR (p.status = :leased AND p.leaseUntil < :now)) ORDER BY p.partitionNo")
+    List<BillingPartition> findClaimable(Long jobId, LocalDateTime now, Status pending, Status leased);
+
+    @Query("SELECT DISTINCT p.jobId FROM BillingPartition p WHERE p.jobId IN :jobIds AND (p.status = :pending " +
+           "OR (p.status = :leased AND p.leaseUntil < :now))")
+    List<Long> findJobsWithClaimable(Collection<Long> jobIds, LocalDateTime now, Status pending, Status leased);
+
+    @Modifying
+    @Query("UPDATE BillingPartition p SET p.status = :leased, p.owner = :owner, p.leaseUntil = :until, " +
+           "p.attempts = p.attempts + 1 WHERE p.id = :id AND (p.status = :pending " +
+           "OR (p.status = :leased AND p.leaseUntil < :now))")
+    int claim(Long id, String owner, LocalDateTime now, LocalDateTime until, Status pending, Status leased);
+
+    @Modifying
+    @Query("UPDATE BillingPartition p SET p.leaseUntil = :until " +
+           "WHERE p.id IN :ids AND p.owner = :owner AND p.status = :leased")
+    int renew(Collection<Long> ids, String owner, LocalDateTime until, Status leased);
+
+    /**
+     * Adds a committed chunk to the partition and renews its lease; 0 when this node lost the lease.
+     */
+    @Modifying
+    @Query("UPDATE BillingPartition p SET p.leaseUntil = :until, " +
+           "p.processedCups = p.processedCups + :cups, " +
+           "p.invoicesCreated = p.invoicesCreated + :created, " +
+           "p.invoicesUpdated = p.invoicesUpdated + :updated, " +
+           "p.invoicesSkipped = p.invoicesSkipped + :skipped, " +
+           "p.errorCount = p.errorCount + :errors " +
+           "WHERE p.id = :id AND p.owner = :owner AND p.status = :leased")
+    int addProgress(Long id, String owner, LocalDateTime until, Status leased,
+                    long cups, long created, long updated, long skipped, long errors);
+
+    @Modifying
+    @Query("UPDATE BillingPartition p SET p.status = :done, p.leaseUntil = null, p.completedAt = :now " +
+           "WHERE p.id = :id AND p.owner = :owner AND p.status = :leased")
+    int complete(Long id, String owner, LocalDateTime now, Status leased, Status done);
+
+    @Modifying
+    @Query("UPDATE BillingPartition p SET p.status = :pending, p.owner = null, p.leaseUntil = null " +
+           "WHERE p.id = :id AND p.owner = :owner AND p.status = :leased")
+    int release(Long id, String owner, Status leased, Status pending);
+}
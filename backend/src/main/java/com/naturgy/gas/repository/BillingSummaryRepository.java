@@ -0,0 +1,38 @@
+package com.naturgy.gas.repository;
+
+import com.naturgy.gas.entity.BillingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface BillingSummaryRepository extends JpaRepository<BillingSummary, Long> {
+
+    @Query("SELECT s FROM BillingSummary s WHERE s.period = :period AND s.invoices > 0 ORDER BY s.zona, s.tarifa")
+    List<BillingSummary> findByPeriod(String period);
+
+    boolean existsByPeriodAndZonaAndTarifa(String period, String zona, String tarifa);
+
+    /** Every row of the given periods, including groups left without invoices. */
+    List<BillingSummary> findByPeriodIn(Collection<String> periods);
+
+    /**
+     * Adds the given amounts to the group's row in place, so concurrent chunks never overwrite each other.
+     *
+     * @return 0 if the group has no row
+     */
+    @Modifying
+    @Query("UPDATE BillingSummary s SET s.invoices = s.invoices + :invoices, s.m3 = s.m3 + :m3, " +
+           "s.kwh = s.kwh + :kwh, s.base = s.base + :base, s.impuestos = s.impuestos + :impuestos, " +
+           "s.total = s.total + :total " +
+           "WHERE s.period = :period AND s.zona = :zona AND s.tarifa = :tarifa")
+    int add(String period, String zona, String tarifa, long invoices, BigDecimal m3, BigDecimal kwh,
+            BigDecimal base, BigDecimal impuestos, BigDecimal total);
+
+    @Modifying
+    @Query("DELETE FROM BillingSummary s WHERE s.period = :period")
+    int deleteByPeriod(String period);
+}
@@ -3,6 +3,7 @@ package com.naturgy.gas.repository;
 import com.naturgy.gas.entity.GasConversionFactor;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface GasConversionFactorRepository extends JpaRepository<GasConversionFactor, Long> {
@@ -10,4 +11,6 @@ public interface GasConversionFactorRepository extends JpaRepository<GasConversi
     boolean existsByZonaAndMes(String zona, String mes);
 
     Optional<GasConversionFactor> findByZonaAndMes(String zona, String mes);
+
+    List<GasConversionFactor> findByMes(String mes);
 }
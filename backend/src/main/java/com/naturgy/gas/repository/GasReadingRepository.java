@@ -2,8 +2,10 @@ package com.naturgy.gas.repository;
 
 import com.naturgy.gas.entity.GasReading;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +18,32 @@ public interface GasReadingRepository extends JpaRepository<GasReading, Long> {
     Optional<GasReading> findTopByCupsAndFechaBeforeOrderByFechaDesc(String cups, LocalDate fecha);
 
     Optional<GasReading> findTopByCupsAndFechaLessThanEqualOrderByFechaDesc(String cups, LocalDate fecha);
+
+    /**
+     * Returns, for every given CUPS, the last reading strictly before {@code periodStart} and the last
+     * reading on or before {@code periodEnd} (at most two rows per CUPS, one when both coincide).
+     */
+    @Query("SELECT new com.naturgy.gas.repository.ReadingPoint(r.id, r.cups, r.fecha, r.lecturaM3) " +
+           "FROM GasReading r WHERE r.cups IN :cups AND (" +
+           "r.fecha = (SELECT MAX(b.fecha) FROM GasReading b WHERE b.cups = r.cups AND b.fecha < :periodStart) " +
+           "OR r.fecha = (SELECT MAX(e.fecha) FROM GasReading e WHERE e.cups = r.cups AND e.fecha <= :periodEnd))")
+    List<ReadingPoint> findBoundaryReadings(Collection<String> cups, LocalDate periodStart, LocalDate periodEnd);
+
+    /**
+     * Returns, ordered by CUPS and date, every reading of the given CUPS from the last reading strictly
+     * before {@code fromStart} up to {@code toEnd}: all a sliding pass needs to derive the boundary
+     * readings of each month in between.
+     */
+    @Query("SELECT new com.naturgy.gas.repository.ReadingPoint(r.id, r.cups, r.fecha, r.lecturaM3) " +
+           "FROM GasReading r WHERE r.cups IN :cups AND r.fecha <= :toEnd AND r.fecha >= COALESCE(" +
+           "(SELECT MAX(b.fecha) FROM GasReading b WHERE b.cups = r.cups AND b.fecha < :fromStart), :fromStart) " +
+           "ORDER BY r.cups, r.fecha, r.id")
+    List<ReadingPoint> findReadingWindow(Collection<String> cups, LocalDate fromStart, LocalDate toEnd);
+
+    /**
+     * Readings of the given CUPS dated between {@code from} and {@code to}, both included.
+     */
+    @Query("SELECT new com.naturgy.gas.repository.ReadingPoint(r.id, r.cups, r.fecha, r.lecturaM3) " +
+           "FROM GasReading r WHERE r.cups IN :cups AND r.fecha BETWEEN :from AND :to")
+    List<ReadingPoint> findReadingsBetween(Collection<String> cups, LocalDate from, LocalDate to);
 }
@@ -12,6 +12,9 @@ public interface GasTariffRepository extends JpaRepository<GasTariff, String> {
     @Query("SELECT t FROM GasTariff t WHERE t.tarifa = :tarifa AND t.vigenciaDesde <= :date ORDER BY t.vigenciaDesde DESC")
     java.util.List<GasTariff> findEffectiveByTarifaAndDate(String tarifa, LocalDate date);
 
+    @Query("SELECT t FROM GasTariff t WHERE t.vigenciaDesde <= :date")
+    java.util.List<GasTariff> findAllEffectiveOn(LocalDate date);
+
     default Optional<GasTariff> findEffective(String tarifa, LocalDate periodEnd) {
         return findEffectiveByTarifaAndDate(tarifa, periodEnd).stream().findFirst();
     }
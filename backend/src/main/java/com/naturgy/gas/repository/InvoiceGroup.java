@@ -0,0 +1,13 @@
+package com.naturgy.gas.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Billing summary group of an invoice. zona and tarifa are null for invoices issued before they were
+ * recorded on the invoice.
+ */
+public record InvoiceGroup(
+        LocalDate periodoInicio,
+        String zona,
+        String tarifa
+) {}
@@ -0,0 +1,15 @@
+package com.naturgy.gas.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Idempotency key of an {@link com.naturgy.gas.entity.Invoice} ({@code cups}, {@code periodoInicio})
+ * with the invoice number it was issued under, the fingerprint of its inputs and its version.
+ */
+public record InvoiceKey(
+        String cups,
+        LocalDate periodoInicio,
+        String numeroFactura,
+        String inputFingerprint,
+        Long version
+) {}
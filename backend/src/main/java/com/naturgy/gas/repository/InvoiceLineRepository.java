@@ -2,6 +2,14 @@ package com.naturgy.gas.repository;
 
 import com.naturgy.gas.entity.InvoiceLine;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
 
 public interface InvoiceLineRepository extends JpaRepository<InvoiceLine, Long> {
+
+    @Modifying
+    @Query("DELETE FROM InvoiceLine l WHERE l.invoice.numeroFactura IN :numeros")
+    int deleteByInvoiceNumbers(Collection<String> numeros);
 }
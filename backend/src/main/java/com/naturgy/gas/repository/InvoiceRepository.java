@@ -2,9 +2,11 @@ package com.naturgy.gas.repository;
 
 import com.naturgy.gas.entity.Invoice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,17 +16,51 @@ public interface InvoiceRepository extends JpaRepository<Invoice, String> {
 
     long countByNumeroFacturaStartingWith(String prefix);
 
+    /**
+     * Keys of the invoices already issued to the given CUPS for periods starting in [from, to].
+     */
+    @Query("SELECT new com.naturgy.gas.repository.InvoiceKey(" +
+           "i.cups, i.periodoInicio, i.numeroFactura, i.inputFingerprint, i.version) " +
+           "FROM Invoice i WHERE i.cups IN :cups AND i.periodoInicio BETWEEN :from AND :to")
+    List<InvoiceKey> findKeys(Collection<String> cups, LocalDate from, LocalDate to);
+
+    /**
+     * Summary groups of the invoices already issued to the given CUPS for periods starting in [from, to].
+     */
+    @Query("SELECT DISTINCT new com.naturgy.gas.repository.InvoiceGroup(i.periodoInicio, i.zona, i.tarifa) " +
+           "FROM Invoice i WHERE i.cups IN :cups AND i.periodoInicio BETWEEN :from AND :to")
+    List<InvoiceGroup> findGroups(Collection<String> cups, LocalDate from, LocalDate to);
+
+    /**
+     * Totals of the given invoices per (periodo_inicio, zona, tarifa).
+     */
+    @Query("SELECT new com.naturgy.gas.repository.InvoiceTotals(i.periodoInicio, i.zona, i.tarifa, COUNT(i), " +
+           "SUM(i.consumoM3), SUM(i.kwh), SUM(i.base), SUM(i.impuestos), SUM(i.total)) " +
+           "FROM Invoice i WHERE i.numeroFactura IN :numeros GROUP BY i.periodoInicio, i.zona, i.tarifa")
+    List<InvoiceTotals> totalsOf(Collection<String> numeros);
+
+    /**
+     * Totals of all the invoices of a period per (zona, tarifa).
+     */
+    @Query("SELECT new com.naturgy.gas.repository.InvoiceTotals(i.periodoInicio, i.zona, i.tarifa, COUNT(i), " +
+           "SUM(i.consumoM3), SUM(i.kwh), SUM(i.base), SUM(i.impuestos), SUM(i.total)) " +
+           "FROM Invoice i WHERE i.periodoInicio = :periodoInicio GROUP BY i.periodoInicio, i.zona, i.tarifa")
+    List<InvoiceTotals> totalsOfPeriod(LocalDate periodoInicio);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Invoice i WHERE i.numeroFactura IN :numeros")
+    int deleteByNumeros(Collection<String> numeros);
+
     List<Invoice> findByCups(String cups);
 
     List<Invoice> findByPeriodoInicio(LocalDate periodoInicio);
 
     List<Invoice> findByFechaEmision(LocalDate fechaEmision);
 
+    @Query("SELECT new com.naturgy.gas.repository.InvoiceVersion(i.numeroFactura, i.version, i.lastModified) " +
+           "FROM Invoice i WHERE i.numeroFactura = :id")
+    Optional<InvoiceVersion> findVersion(String id);
+
     @Query("SELECT i FROM Invoice i LEFT JOIN FETCH i.lines WHERE i.numeroFactura = :id")
     Optional<Invoice> findByIdWithLines(String id);
-
-    @Query("SELECT i FROM Invoice i WHERE (:cups IS NULL OR i.cups = :cups) " +
-           "AND (:periodoInicio IS NULL OR i.periodoInicio = :periodoInicio) " +
-           "AND (:fechaEmision IS NULL OR i.fechaEmision = :fechaEmision)")
-    List<Invoice> findWithFilters(String cups, LocalDate periodoInicio, LocalDate fechaEmision);
 }
@@ -0,0 +1,16 @@
+package com.naturgy.gas.repository;
+
+import com.naturgy.gas.entity.InvoiceSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface InvoiceSequenceRepository extends JpaRepository<InvoiceSequence, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InvoiceSequence s WHERE s.period = :period")
+    Optional<InvoiceSequence> findForUpdate(String period);
+}
@@ -0,0 +1,20 @@
+package com.naturgy.gas.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sums of the invoices of one (periodo_inicio, zona, tarifa). zona and tarifa are null for invoices
+ * issued before they were recorded on the invoice.
+ */
+public record InvoiceTotals(
+        LocalDate periodoInicio,
+        String zona,
+        String tarifa,
+        long invoices,
+        BigDecimal m3,
+        BigDecimal kwh,
+        BigDecimal base,
+        BigDecimal impuestos,
+        BigDecimal total
+) {}
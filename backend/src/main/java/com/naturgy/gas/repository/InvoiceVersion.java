@@ -0,0 +1,13 @@
+package com.naturgy.gas.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version of an {@link com.naturgy.gas.entity.Invoice}, read without its lines to answer conditional
+ * requests. {@code version} and {@code lastModified} are null on invoices issued before they were recorded.
+ */
+public record InvoiceVersion(
+        String numeroFactura,
+        Long version,
+        LocalDateTime lastModified
+) {}
@@ -0,0 +1,15 @@
+package com.naturgy.gas.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Lightweight projection of a {@link com.naturgy.gas.entity.GasReading} row, used by
+ * set-based queries that must not hydrate full entities.
+ */
+public record ReadingPoint(
+        Long id,
+        String cups,
+        LocalDate fecha,
+        BigDecimal lecturaM3
+) {}
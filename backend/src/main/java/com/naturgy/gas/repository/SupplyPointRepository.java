@@ -1,11 +1,37 @@
 package com.naturgy.gas.repository;
 
 import com.naturgy.gas.entity.SupplyPoint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface SupplyPointRepository extends JpaRepository<SupplyPoint, String> {
 
-    List<SupplyPoint> findByEstado(SupplyPoint.EstadoSupply estado);
+    long countByEstado(SupplyPoint.EstadoSupply estado);
+
+    /**
+     * Keyset page: the next {@code limit} supply points in CUPS order after {@code afterCups}.
+     */
+    List<SupplyPoint> findByEstadoAndCupsGreaterThanOrderByCupsAsc(SupplyPoint.EstadoSupply estado,
+                                                                    String afterCups, Limit limit);
+
+    List<SupplyPoint> findByEstadoAndCupsGreaterThanAndCupsLessThanEqualOrderByCupsAsc(
+            SupplyPoint.EstadoSupply estado, String afterCups, String lastCups, Limit limit);
+
+    /**
+     * The CUPS {@code offset} positions after {@code afterCups} in CUPS order (use
+     * {@code PageRequest.of(offset, 1)}); used to cut the active CUPS into partitions.
+     */
+    @Query("SELECT s.cups FROM SupplyPoint s WHERE s.estado = :estado AND s.cups > :afterCups ORDER BY s.cups")
+    List<String> findCupsAfter(SupplyPoint.EstadoSupply estado, String afterCups, Pageable pageable);
+
+    /**
+     * The given CUPS that exist, whatever their estado.
+     */
+    @Query("SELECT s.cups FROM SupplyPoint s WHERE s.cups IN :cups")
+    List<String> findExistingCups(Collection<String> cups);
 }
@@ -1,5 +1,6 @@
 package com.naturgy.gas.seed;
 
+import com.naturgy.gas.config.SeedProperties;
 import com.naturgy.gas.entity.*;
 import com.naturgy.gas.repository.*;
 import com.opencsv.CSVReader;
@@ -14,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -40,6 +42,7 @@ public class DataSeeder implements ApplicationRunner {
     private final GasConversionFactorRepository gasConversionFactorRepository;
     private final TaxConfigRepository taxConfigRepository;
     private final GasReadingRepository gasReadingRepository;
+    private final SeedProperties properties;
 
     @Override
     public void run(ApplicationArguments args) {
@@ -59,6 +62,11 @@ public class DataSeeder implements ApplicationRunner {
      * backend/ subdirectory while the data lives at the repo root.
      */
     private String resolveSamplesDir() {
+        if (!properties.samplesDir().isBlank()) {
+            Path configured = Paths.get(properties.samplesDir()).toAbsolutePath();
+            log.info("DataSeeder: samples dir from gas.seed.samples-dir -> {}", configured);
+            return configured + "/";
+        }
         Path cwd = Paths.get("").toAbsolutePath();
         Path candidate = cwd;
         for (int i = 0; i < 5; i++) {
@@ -81,13 +89,8 @@ public class DataSeeder implements ApplicationRunner {
         List<String[]> rows = readCsv(file);
         int loaded = 0;
         for (String[] row : rows) {
-            String cups = cell(row, 0, file);
-            if (supplyPointRepository.existsById(cups)) continue;
-            SupplyPoint sp = new SupplyPoint();
-            sp.setCups(cups);
-            sp.setZona(cell(row, 1, file));
-            sp.setTarifa(cell(row, 2, file));
-            sp.setEstado(parseEnum(SupplyPoint.EstadoSupply.class, cell(row, 3, file), file));
+            SupplyPoint sp = toSupplyPoint(row, file);
+            if (supplyPointRepository.existsById(sp.getCups())) continue;
             supplyPointRepository.save(sp);
             loaded++;
         }
@@ -161,20 +164,34 @@ public class DataSeeder implements ApplicationRunner {
         List<String[]> rows = readCsv(file);
         int loaded = 0;
         for (String[] row : rows) {
-            String cups = cell(row, 0, file);
-            LocalDate fecha = parseDate(cell(row, 1, file), "fecha", file);
-            if (gasReadingRepository.existsByCupsAndFecha(cups, fecha)) continue;
-            GasReading gr = new GasReading();
-            gr.setCups(cups);
-            gr.setFecha(fecha);
-            gr.setLecturaM3(parseDecimal(cell(row, 2, file), "lectura_m3", file));
-            gr.setTipo(parseEnum(GasReading.TipoLectura.class, cell(row, 3, file), file));
+            GasReading gr = toGasReading(row, file);
+            if (gasReadingRepository.existsByCupsAndFecha(gr.getCups(), gr.getFecha())) continue;
             gasReadingRepository.save(gr);
             loaded++;
         }
         log.info("gas-readings: {} new rows loaded (total {})", loaded, gasReadingRepository.count());
     }
 
+    // ---- row mapping (also used by the JMH benchmarks) ----
+
+    static SupplyPoint toSupplyPoint(String[] row, String file) {
+        SupplyPoint sp = new SupplyPoint();
+        sp.setCups(cell(row, 0, file));
+        sp.setZona(cell(row, 1, file));
+        sp.setTarifa(cell(row, 2, file));
+        sp.setEstado(parseEnum(SupplyPoint.EstadoSupply.class, cell(row, 3, file), file));
+        return sp;
+    }
+
+    static GasReading toGasReading(String[] row, String file) {
+        GasReading gr = new GasReading();
+        gr.setCups(cell(row, 0, file));
+        gr.setFecha(parseDate(cell(row, 1, file), "fecha", file));
+        gr.setLecturaM3(parseDecimal(cell(row, 2, file), "lectura_m3", file));
+        gr.setTipo(parseEnum(GasReading.TipoLectura.class, cell(row, 3, file), file));
+        return gr;
+    }
+
     // ---- helpers ----
 
     private boolean fileExists(String path) {
@@ -187,8 +204,19 @@ public class DataSeeder implements ApplicationRunner {
     }
 
     private List<String[]> readCsv(String path) {
+        try {
+            return readCsv(new FileReader(path), path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read CSV: " + path, e);
+        }
+    }
+
+    /**
+     * Reads all data rows (the header is skipped) and closes the reader.
+     */
+    static List<String[]> readCsv(Reader source, String path) {
         List<String[]> rows = new ArrayList<>();
-        try (CSVReader reader = new CSVReader(new FileReader(path))) {
+        try (CSVReader reader = new CSVReader(source)) {
             String[] header = reader.readNext(); // skip header
             if (header == null) {
                 throw new IllegalStateException("CSV is empty: " + path);
@@ -203,7 +231,7 @@ public class DataSeeder implements ApplicationRunner {
         return rows;
     }
 
-    private String cell(String[] row, int idx, String file) {
+    private static String cell(String[] row, int idx, String file) {
         if (idx >= row.length) {
             throw new IllegalStateException(
                 String.format("CSV %s: expected column at index %d but row has only %d columns", file, idx, row.length));
@@ -216,7 +244,7 @@ public class DataSeeder implements ApplicationRunner {
         return val;
     }
 
-    private BigDecimal parseDecimal(String value, String field, String file) {
+    private static BigDecimal parseDecimal(String value, String field, String file) {
         try {
             return new BigDecimal(value);
         } catch (NumberFormatException e) {
@@ -225,7 +253,7 @@ public class DataSeeder implements ApplicationRunner {
         }
     }
 
-    private LocalDate parseDate(String value, String field, String file) {
+    private static LocalDate parseDate(String value, String field, String file) {
         try {
             return LocalDate.parse(value);
         } catch (Exception e) {
@@ -234,7 +262,7 @@ public class DataSeeder implements ApplicationRunner {
         }
     }
 
-    private <E extends Enum<E>> E parseEnum(Class<E> type, String value, String file) {
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String file) {
         try {
             return Enum.valueOf(type, value);
         } catch (IllegalArgumentException e) {
@@ -0,0 +1,255 @@
+package com.naturgy.gas.seed;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of a synthetic data set in the CSV formats of {@code gas_csv-spec.txt}, for load
+ * testing at 1k to 10M CUPS.
+ * <p>
+ * Supply points and readings are written CUPS by CUPS to buffered writers, so memory use does not depend
+ * on the number of CUPS. The same {@code seed} and options always produce the same files.
+ * <p>
+ * Readings are taken at the end of every month from the month before {@code from} up to {@code to},
+ * i.e. the boundary readings needed to bill each month of the range, with anomalies:
+ * <ul>
+ *   <li>{@code gap-rate}: the reading is missing (billing error MISSING_INICIO / MISSING_FIN)</li>
+ *   <li>{@code estimated-rate}: the reading is ESTIMADA</li>
+ *   <li>{@code negative-rate}: the reading is below the previous one (NEGATIVE_CONSUMPTION)</li>
+ * </ul>
+ * Usage (options as {@code --name=value}, all optional; counts accept {@code k} / {@code M} suffixes):
+ * <pre>
+ * mvn -f backend compile exec:java -Dexec.mainClass=com.naturgy.gas.seed.DatasetGenerator \
+ *     -Dexec.args="--out=target/dataset --cups=1M --seed=42 --from=2026-01 --to=2026-02"
+ * </pre>
+ * Load the result with {@code --gas.seed.samples-dir=target/dataset}.
+ */
+public final class DatasetGenerator {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final LocalDate TARIFF_START = LocalDate.of(2000, 1, 1);
+
+    /**
+     * @param cups          number of supply points
+     * @param zones         zones ZONA1..ZONAn
+     * @param tariffs       tariffs RL1..RLn
+     * @param inactiveRate  share of INACTIVO supply points
+     * @param gapRate       share of missing month-end readings
+     * @param estimatedRate share of ESTIMADA readings
+     * @param negativeRate  share of readings below the previous one
+     */
+    public record Options(Path out, long cups, long seed, YearMonth from, YearMonth to, int zones, int tariffs,
+                          double inactiveRate, double gapRate, double estimatedRate, double negativeRate) {
+
+        public Options {
+            if (cups < 1 || cups > 999_999_999L) {
+                throw new IllegalArgumentException("cups must be between 1 and 999999999, got: " + cups);
+            }
+            if (to.isBefore(from)) {
+                throw new IllegalArgumentException("to (" + to + ") is before from (" + from + ")");
+            }
+            if (zones < 1 || tariffs < 1) {
+                throw new IllegalArgumentException("zones and tariffs must be >= 1");
+            }
+            for (double rate : new double[] {inactiveRate, gapRate, estimatedRate, negativeRate}) {
+                if (rate < 0 || rate > 1) {
+                    throw new IllegalArgumentException("rates must be between 0 and 1, got: " + rate);
+                }
+            }
+        }
+
+        public static Options defaults(Path out, long cups) {
+            return new Options(out, cups, 42L, YearMonth.of(2026, 1), YearMonth.of(2026, 2), 5, 3,
+                    0.05, 0.01, 0.10, 0.001);
+        }
+    }
+
+    /**
+     * Number of rows written per file.
+     */
+    public record Summary(long supplyPoints, long readings, long gaps, long estimated, long negative,
+                          long tariffs, long conversionFactors, long taxes) {}
+
+    private final Options options;
+
+    public DatasetGenerator(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            opts.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        Options d = Options.defaults(Path.of("target/dataset"), 1000);
+        Options options = new Options(
+                Path.of(opts.getOrDefault("out", d.out().toString())),
+                count(opts.getOrDefault("cups", String.valueOf(d.cups()))),
+                Long.parseLong(opts.getOrDefault("seed", String.valueOf(d.seed()))),
+                YearMonth.parse(opts.getOrDefault("from", d.from().toString())),
+                YearMonth.parse(opts.getOrDefault("to", d.to().toString())),
+                Integer.parseInt(opts.getOrDefault("zones", String.valueOf(d.zones()))),
+                Integer.parseInt(opts.getOrDefault("tariffs", String.valueOf(d.tariffs()))),
+                Double.parseDouble(opts.getOrDefault("inactive-rate", String.valueOf(d.inactiveRate()))),
+                Double.parseDouble(opts.getOrDefault("gap-rate", String.valueOf(d.gapRate()))),
+                Double.parseDouble(opts.getOrDefault("estimated-rate", String.valueOf(d.estimatedRate()))),
+                Double.parseDouble(opts.getOrDefault("negative-rate", String.valueOf(d.negativeRate()))));
+
+        long startedAt = System.nanoTime();
+        Summary summary = new DatasetGenerator(options).generate();
+        System.out.printf("Generated %s in %d ms: %s%n", options.out().toAbsolutePath(),
+                (System.nanoTime() - startedAt) / 1_000_000, summary);
+    }
+
+    /**
+     * Parses a count with an optional {@code k} (thousand) or {@code M} (million) suffix.
+     */
+    static long count(String value) {
+        if (value.endsWith("k")) return Long.parseLong(value.substring(0, value.length() - 1)) * 1_000L;
+        if (value.endsWith("M")) return Long.parseLong(value.substring(0, value.length() - 1)) * 1_000_000L;
+        return Long.parseLong(value);
+    }
+
+    public Summary generate() throws IOException {
+        Files.createDirectories(options.out());
+        long tariffs = writeTariffs();
+        long factors = writeConversionFactors();
+        long taxes = writeTaxes();
+
+        SplittableRandom random = new SplittableRandom(options.seed());
+        LocalDate[] readingDates = readingDates();
+        long readings = 0;
+        long gaps = 0;
+        long estimated = 0;
+        long negative = 0;
+        try (Writer supplyPoints = writer("supply-points.csv");
+             Writer gasReadings = writer("gas-readings.csv")) {
+            supplyPoints.write("cups,zona,tarifa,estado\n");
+            gasReadings.write("cups,fecha,lectura_m3,tipo\n");
+            for (long i = 1; i <= options.cups(); i++) {
+                String cups = cups(i);
+                int tariff = 1 + random.nextInt(options.tariffs());
+                supplyPoints.write(cups + ",ZONA" + (1 + random.nextInt(options.zones())) + ",RL" + tariff + ","
+                        + (random.nextDouble() < options.inactiveRate() ? "INACTIVO" : "ACTIVO") + "\n");
+
+                // Meter index in hundredths of m3; higher tariffs consume more
+                long meter = random.nextLong(0, 500_000);
+                long monthlyBase = (1_000 + random.nextLong(0, 8_000)) * tariff;
+                for (LocalDate fecha : readingDates) {
+                    meter += Math.round(monthlyBase * seasonality(fecha) * (0.5 + random.nextDouble()));
+                    if (random.nextDouble() < options.gapRate()) {
+                        gaps++;
+                        continue;
+                    }
+                    long value = meter;
+                    if (random.nextDouble() < options.negativeRate()) {
+                        value = Math.max(0, meter - monthlyBase * 3);
+                        negative++;
+                    }
+                    boolean estimada = random.nextDouble() < options.estimatedRate();
+                    if (estimada) estimated++;
+                    gasReadings.write(cups + "," + fecha + "," + m3(value) + ","
+                            + (estimada ? "ESTIMADA" : "REAL") + "\n");
+                    readings++;
+                }
+            }
+        }
+        return new Summary(options.cups(), readings, gaps, estimated, negative, tariffs, factors, taxes);
+    }
+
+    /**
+     * CUPS in the sample format (17 characters), zero-padded so that string order is generation order.
+     */
+    static String cups(long i) {
+        String digits = Long.toString(i);
+        return "ES0021" + "000000000".substring(digits.length()) + digits + "SY";
+    }
+
+    /**
+     * Hundredths of m3 as a {@code lectura_m3} decimal with 2 decimals.
+     */
+    private static String m3(long hundredths) {
+        long cents = hundredths % 100;
+        return (hundredths / 100) + (cents < 10 ? ".0" : ".") + cents;
+    }
+
+    private LocalDate[] readingDates() {
+        int months = (int) options.from().minusMonths(1).until(options.to(), ChronoUnit.MONTHS) + 1;
+        LocalDate[] dates = new LocalDate[months];
+        for (int m = 0; m < months; m++) {
+            dates[m] = options.from().minusMonths(1).plusMonths(m).atEndOfMonth();
+        }
+        return dates;
+    }
+
+    /**
+     * More gas in winter: x1.5 in January, x0.5 in July.
+     */
+    private static double seasonality(LocalDate fecha) {
+        return 1 + 0.5 * Math.cos(2 * Math.PI * (fecha.getMonthValue() - 1) / 12);
+    }
+
+    private long writeTariffs() throws IOException {
+        try (Writer w = writer("gas-tariffs.csv")) {
+            w.write("tarifa,fijo_mes_eur,variable_eur_kwh,vigencia_desde\n");
+            for (int t = 1; t <= options.tariffs(); t++) {
+                // RL1..RL3 as in the samples, then a larger fixed term and a cheaper kWh per step
+                BigDecimal fijo = BigDecimal.valueOf(385 + 265L * (t - 1) + 285L * Math.max(0, t - 2), 2);
+                BigDecimal variable = BigDecimal.valueOf(Math.max(1_000, 4_500 - 700L * (t - 1)), 6);
+                w.write("RL" + t + "," + fijo.toPlainString() + "," + variable.toPlainString() + ","
+                        + TARIFF_START + "\n");
+            }
+        }
+        return options.tariffs();
+    }
+
+    private long writeConversionFactors() throws IOException {
+        SplittableRandom random = new SplittableRandom(options.seed() ^ 0x5DEECE66DL);
+        long rows = 0;
+        try (Writer w = writer("gas-conversion-factors.csv")) {
+            w.write("zona,mes,coef_conv,pcs_kwh_m3\n");
+            for (int z = 1; z <= options.zones(); z++) {
+                for (YearMonth m = options.from(); !m.isAfter(options.to()); m = m.plusMonths(1)) {
+                    BigDecimal coef = BigDecimal.valueOf(98 + random.nextInt(6), 2);
+                    BigDecimal pcs = BigDecimal.valueOf(1_140 + random.nextInt(40), 2);
+                    w.write("ZONA" + z + "," + m + "," + coef.toPlainString() + "," + pcs.toPlainString() + "\n");
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long writeTaxes() throws IOException {
+        try (Writer w = writer("taxes.csv")) {
+            w.write("taxCode,taxRate,vigencia_desde\n");
+            w.write("IVA,0.21," + TARIFF_START + "\n");
+        }
+        return 1;
+    }
+
+    private Writer writer(String file) {
+        try {
+            return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(options.out().resolve(file)),
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + options.out().resolve(file), e);
+        }
+    }
+}
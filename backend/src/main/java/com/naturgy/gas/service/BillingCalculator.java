@@ -0,0 +1,213 @@
+package com.naturgy.gas.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point implementation of the invoice formulas of gas_logic-spec.txt. Every value is an unscaled
+ * {@code long} with a decimal scale (m³ with scale 3 are milli-m³, amounts with scale 2 are cents) and
+ * every rounding step is HALF_UP at the same scale as the {@link BigDecimal} reference path
+ * ({@link InvoiceAmounts#computeReference}), so both produce the same unscaled values and scales.
+ * <p>
+ * Nothing is allocated per step: {@link BigDecimal}s are only built from the final {@link Result} when
+ * the invoice is persisted. Products are rounded from an exact 128-bit intermediate; a value that still
+ * does not fit in a {@code long} throws {@link ArithmeticException}, and callers then fall back to the
+ * reference path.
+ */
+public final class BillingCalculator {
+
+    public static final int KWH_SCALE = 3;
+    public static final int MONEY_SCALE = 2;
+
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private BillingCalculator() {
+    }
+
+    /**
+     * A decimal as an unscaled {@code long} and a scale in [0, 18].
+     */
+    public record Fixed(long unscaled, int scale) {
+
+        /**
+         * @return the value with its own scale, or null if it does not fit
+         */
+        public static Fixed of(BigDecimal value) {
+            if (value.scale() < 0) value = value.setScale(0);
+            if (value.scale() > 18 || value.precision() > 18) return null;
+            return new Fixed(value.unscaledValue().longValue(), value.scale());
+        }
+
+        /**
+         * Like {@link #of} but without trailing zeros, which keeps products of reference data (e.g.
+         * {@code 1.020000 × 11.680000}) small enough for the fast path. Meant for values converted once.
+         */
+        public static Fixed normalized(BigDecimal value) {
+            return of(value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros());
+        }
+
+        public BigDecimal toBigDecimal() {
+            return BigDecimal.valueOf(unscaled, scale);
+        }
+    }
+
+    /**
+     * @param kwh    kWh at {@link #KWH_SCALE}
+     * @param base   money at {@link #MONEY_SCALE}, as every other amount
+     */
+    public record Result(long kwh, long costeFijo, long costeVariable, long base, long impuestos, long total) {
+
+        public InvoiceAmounts toInvoiceAmounts() {
+            return new InvoiceAmounts(
+                    BigDecimal.valueOf(kwh, KWH_SCALE),
+                    BigDecimal.valueOf(costeFijo, MONEY_SCALE),
+                    BigDecimal.valueOf(costeVariable, MONEY_SCALE),
+                    BigDecimal.valueOf(base, MONEY_SCALE),
+                    BigDecimal.valueOf(impuestos, MONEY_SCALE),
+                    BigDecimal.valueOf(total, MONEY_SCALE));
+        }
+    }
+
+    /**
+     * @throws ArithmeticException if an intermediate value overflows a {@code long}
+     */
+    public static Result compute(Fixed m3, Fixed kwhPerM3, Fixed fijoMesEur, Fixed variableEurKwh, Fixed ivaRate,
+                                 int daysInPeriod, int daysInMonth) {
+        long kwh = multiplyRescale(m3.unscaled(), kwhPerM3.unscaled(),
+                m3.scale() + kwhPerM3.scale(), KWH_SCALE);
+
+        long costeFijo = divide(Math.multiplyExact(fijoMesEur.unscaled(), daysInPeriod), fijoMesEur.scale(),
+                daysInMonth, MONEY_SCALE);
+
+        long costeVariable = multiplyRescale(kwh, variableEurKwh.unscaled(),
+                KWH_SCALE + variableEurKwh.scale(), MONEY_SCALE);
+
+        long alquilerEur = 0; // Workshop default: 0.00
+        long base = Math.addExact(Math.addExact(costeFijo, costeVariable), alquilerEur);
+
+        long impuestos = multiplyRescale(base, ivaRate.unscaled(), MONEY_SCALE + ivaRate.scale(), MONEY_SCALE);
+
+        long total = Math.addExact(base, impuestos);
+
+        return new Result(kwh, costeFijo, costeVariable, base, impuestos, total);
+    }
+
+    /**
+     * {@code a × b} (at {@code fromScale}) rescaled to {@code toScale}, rounding HALF_UP. The product is
+     * computed on 128 bits, so only a result that does not fit in a {@code long} overflows.
+     */
+    static long multiplyRescale(long a, long b, int fromScale, int toScale) {
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(Math.multiplyExact(a, b), pow10(toScale - fromScale));
+        }
+        return multiplyDivideHalfUp(a, b, pow10(fromScale - toScale));
+    }
+
+    /**
+     * {@code a × b / divisor} rounded half away from zero, with a 128-bit intermediate product;
+     * {@code divisor} must be positive.
+     */
+    static long multiplyDivideHalfUp(long a, long b, long divisor) {
+        long hi = Math.multiplyHigh(a, b);
+        long lo = a * b;
+        if ((hi == 0 && lo >= 0) || (hi == -1 && lo < 0)) {
+            return divideHalfUp(lo, divisor);
+        }
+        boolean negative = hi < 0;
+        if (negative) {
+            lo = -lo;
+            hi = lo == 0 ? -hi : ~hi;
+        }
+        if (Long.compareUnsigned(hi, divisor) >= 0) {
+            throw new ArithmeticException("long overflow");
+        }
+        long quotient = divideUnsigned128(hi, lo, divisor);
+        long remainder = lo - quotient * divisor;
+        if (quotient < 0) {
+            throw new ArithmeticException("long overflow");
+        }
+        if (Long.compareUnsigned(remainder, divisor - remainder) >= 0) {
+            quotient = Math.addExact(quotient, 1);
+        }
+        return negative ? -quotient : quotient;
+    }
+
+    /**
+     * Unsigned {@code (hi × 2^64 + lo) / divisor} for {@code hi < divisor} (Hacker's Delight, divlu).
+     */
+    private static long divideUnsigned128(long hi, long lo, long divisor) {
+        final long base = 1L << 32;
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << shift;
+        long vn1 = v >>> 32;
+        long vn0 = v & 0xFFFFFFFFL;
+        long un32 = shift == 0 ? hi : (hi << shift) | (lo >>> (64 - shift));
+        long un10 = lo << shift;
+        long un1 = un10 >>> 32;
+        long un0 = un10 & 0xFFFFFFFFL;
+
+        long q1 = Long.divideUnsigned(un32, vn1);
+        long rhat = un32 - q1 * vn1;
+        while (Long.compareUnsigned(q1, base) >= 0 || Long.compareUnsigned(q1 * vn0, base * rhat + un1) > 0) {
+            q1--;
+            rhat += vn1;
+            if (Long.compareUnsigned(rhat, base) >= 0) break;
+        }
+
+        long un21 = un32 * base + un1 - q1 * v;
+        long q0 = Long.divideUnsigned(un21, vn1);
+        rhat = un21 - q0 * vn1;
+        while (Long.compareUnsigned(q0, base) >= 0 || Long.compareUnsigned(q0 * vn0, base * rhat + un0) > 0) {
+            q0--;
+            rhat += vn1;
+            if (Long.compareUnsigned(rhat, base) >= 0) break;
+        }
+        return q1 * base + q0;
+    }
+
+    /**
+     * Changes the scale of an unscaled value, rounding HALF_UP when digits are dropped.
+     */
+    static long rescale(long unscaled, int fromScale, int toScale) {
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(unscaled, pow10(toScale - fromScale));
+        }
+        return divideHalfUp(unscaled, pow10(fromScale - toScale));
+    }
+
+    /**
+     * {@code (unscaled × 10^-scale) / divisor} at {@code toScale}, rounded HALF_UP.
+     */
+    static long divide(long unscaled, int scale, long divisor, int toScale) {
+        if (toScale >= scale) {
+            return divideHalfUp(Math.multiplyExact(unscaled, pow10(toScale - scale)), divisor);
+        }
+        return divideHalfUp(unscaled, Math.multiplyExact(pow10(scale - toScale), divisor));
+    }
+
+    /**
+     * Integer division rounding half away from zero; {@code divisor} must be positive.
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        // remainder >= divisor / 2, written so that it cannot overflow
+        if (remainder >= divisor - remainder) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    private static long pow10(int n) {
+        if (n >= POW10.length) {
+            throw new ArithmeticException("10^" + n + " does not fit in a long");
+        }
+        return POW10[n];
+    }
+}
@@ -0,0 +1,101 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.config.BillingClusterProperties;
+import com.naturgy.gas.entity.BillingJob;
+import com.naturgy.gas.entity.BillingPartition;
+import com.naturgy.gas.repository.BillingJobRepository;
+import com.naturgy.gas.repository.BillingPartitionRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * With {@code gas.billing.cluster.enabled}, polls the database for partitioned billing jobs started by
+ * other nodes (or left by a dead node) that still have claimable partitions, and joins them on the
+ * background job executor.
+ */
+@Component
+@RequiredArgsConstructor
+public class BillingClusterWorker implements ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingClusterWorker.class);
+
+    private final BillingClusterProperties properties;
+    private final BillingJobRepository jobRepository;
+    private final BillingPartitionRepository partitionRepository;
+    private final BillingService billingService;
+    private final BillingJobExecutor jobExecutor;
+    private final BillingPartitionLeases partitionLeases;
+    private final BillingJobTracker jobTracker;
+
+    /** Joins submitted to the job executor and not finished yet. */
+    private final Set<Long> joining = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService poller;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled()) return;
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "billing-cluster-poller");
+            t.setDaemon(true);
+            return t;
+        });
+        long periodMs = properties.pollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::poll, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        log.info("Billing cluster worker started, polling every {}", properties.pollInterval());
+    }
+
+    void poll() {
+        try {
+            List<Long> running = jobRepository.findByStatus(BillingJob.Status.RUNNING).stream()
+                    .map(BillingJob::getId)
+                    .filter(id -> !partitionLeases.isBillingHere(id))
+                    .toList();
+            if (running.isEmpty()) return;
+            for (Long jobId : partitionRepository.findJobsWithClaimable(running, LocalDateTime.now(),
+                    BillingPartition.Status.PENDING, BillingPartition.Status.LEASED)) {
+                if (joining.add(jobId)) {
+                    jobExecutor.submit(() -> join(jobId));
+                }
+            }
+            // Partitions all billed, but the node that started the job died before completing it
+            for (Long jobId : running) {
+                if (partitionLeases.hasPartitions(jobId) && partitionLeases.allDone(jobId)) {
+                    log.info("Billing job {}: all partitions done, completing it", jobId);
+                    jobTracker.completeJoined(jobId);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Billing cluster poll failed: {}", e.getMessage());
+        }
+    }
+
+    private void join(Long jobId) {
+        try {
+            if (!partitionLeases.isBillingHere(jobId)) {
+                billingService.joinJob(jobId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Billing job {}: partition failed on node {}: {}", jobId, partitionLeases.nodeId(), e.getMessage());
+        } finally {
+            joining.remove(jobId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (poller != null) poller.shutdownNow();
+    }
+}
@@ -0,0 +1,92 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.dto.BillingJobDto;
+import com.naturgy.gas.entity.BillingJob;
+import com.naturgy.gas.exception.NotFoundException;
+import com.naturgy.gas.repository.BillingJobRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams billing job progress as Server-Sent Events: one {@code progress} event per second while the job
+ * runs, then a final {@code done} event with the terminal status, after which the stream is closed.
+ */
+@Component
+public class BillingJobEventStreamer implements DisposableBean {
+
+    private static final long INTERVAL_MS = 1000;
+    private static final Duration STREAM_TIMEOUT = Duration.ofHours(2);
+
+    private final BillingJobRepository jobRepository;
+    private final BillingProgressRegistry progressRegistry;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "billing-sse");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public BillingJobEventStreamer(BillingJobRepository jobRepository, BillingProgressRegistry progressRegistry) {
+        this.jobRepository = jobRepository;
+        this.progressRegistry = progressRegistry;
+    }
+
+    public SseEmitter stream(Long jobId) {
+        if (!jobRepository.existsById(jobId)) {
+            throw new NotFoundException("Billing job not found: " + jobId);
+        }
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        AtomicReference<ScheduledFuture<?>> task = new AtomicReference<>();
+        Runnable cancel = () -> {
+            ScheduledFuture<?> f = task.get();
+            if (f != null) f.cancel(false);
+        };
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(e -> cancel.run());
+
+        task.set(scheduler.scheduleAtFixedRate(() -> push(jobId, emitter, cancel), 0, INTERVAL_MS, TimeUnit.MILLISECONDS));
+        return emitter;
+    }
+
+    private void push(Long jobId, SseEmitter emitter, Runnable cancel) {
+        try {
+            BillingJob job = jobRepository.findById(jobId).orElse(null);
+            if (job == null) {
+                cancel.run();
+                emitter.complete();
+                return;
+            }
+            BillingJobDto dto = BillingJobDto.from(job, progressRegistry.find(jobId).orElse(null));
+            boolean done = job.getStatus() != BillingJob.Status.RUNNING;
+            emitter.send(SseEmitter.event()
+                    .name(done ? "done" : "progress")
+                    .id(Long.toString(job.getProcessedCups()))
+                    .data(dto, MediaType.APPLICATION_JSON));
+            if (done) {
+                cancel.run();
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client went away or emitter already completed
+            cancel.run();
+        } catch (RuntimeException e) {
+            cancel.run();
+            emitter.completeWithError(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,32 @@
+package com.naturgy.gas.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background executor for asynchronously submitted billing jobs.
+ * Each job runs on its own thread and fans its chunks out to the {@link BillingWorkerPool}.
+ */
+@Component
+public class BillingJobExecutor implements DisposableBean {
+
+    private final AtomicInteger threadNo = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "billing-job-" + threadNo.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    public void submit(Runnable job) {
+        executor.execute(job);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,57 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.config.BillingClusterProperties;
+import com.naturgy.gas.config.BillingProperties;
+import com.naturgy.gas.entity.BillingJob;
+import com.naturgy.gas.repository.BillingJobRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * On startup, resumes billing jobs left RUNNING by a previous JVM (crash or kill) from their last checkpoint.
+ * Resumed jobs are submitted to the background job executor so they do not delay startup.
+ * With {@code gas.billing.cluster.enabled} this is left to {@link BillingClusterWorker}.
+ */
+@Component
+@RequiredArgsConstructor
+public class BillingJobRecovery implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingJobRecovery.class);
+
+    private final BillingJobRepository jobRepository;
+    private final BillingService billingService;
+    private final BillingProperties properties;
+    private final BillingClusterProperties clusterProperties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.resumeOnStartup()) return;
+        if (clusterProperties.enabled()) {
+            // RUNNING jobs may belong to live nodes; the cluster worker takes over expired partitions instead
+            log.info("Billing cluster enabled: interrupted jobs are resumed through partition leases");
+            return;
+        }
+        List<BillingScope> scopes = jobRepository.findByStatus(BillingJob.Status.RUNNING).stream()
+                .map(job -> new BillingScope(YearMonth.parse(job.getPeriod()),
+                        YearMonth.parse(job.getPeriodTo()), job.getCups(), job.isDelta()))
+                .distinct()
+                .toList();
+        if (scopes.isEmpty()) return;
+
+        log.info("Resuming interrupted billing jobs for {}", scopes.stream().map(BillingScope::label).toList());
+        for (BillingScope scope : scopes) {
+            try {
+                billingService.submitBilling(scope);
+            } catch (RuntimeException e) {
+                log.warn("Could not resume billing job for {}: {}", scope.label(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.entity.BillingCheckpoint;
+import com.naturgy.gas.entity.BillingError;
+import com.naturgy.gas.entity.BillingJob;
+import com.naturgy.gas.repository.BillingCheckpointRepository;
+import com.naturgy.gas.repository.BillingErrorRepository;
+import com.naturgy.gas.repository.BillingJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Persists billing runs as {@link BillingJob}s and their committed chunks as {@link BillingCheckpoint}s,
+ * so a run interrupted by a crash resumes where it stopped instead of starting from zero.
+ * <p>
+ * Only a job that died mid-run (left RUNNING) is resumed by the next run of its scope. A FAILED job is
+ * resumed only on request ({@link #resume}): once the cause is fixed (readings, tariffs), a new run
+ * starts a fresh job that bills every CUPS again, including those of the failed job's committed chunks.
+ */
+@Component
+public class BillingJobTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingJobTracker.class);
+
+    private final BillingJobRepository jobRepository;
+    private final BillingCheckpointRepository checkpointRepository;
+    private final BillingErrorRepository billingErrorRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate requiresNewTemplate;
+
+    /** Months currently being billed by this JVM; a job holds every month of its scope. */
+    private final Set<String> activePeriods = new HashSet<>();
+
+    public BillingJobTracker(BillingJobRepository jobRepository,
+                             BillingCheckpointRepository checkpointRepository,
+                             BillingErrorRepository billingErrorRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.billingErrorRepository = billingErrorRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Resumes the last job of the same scope left RUNNING by a dead JVM, or starts a new one.
+     * A new job clears the previous billing errors of its months (of its CUPS only, for a single-CUPS
+     * rebuild); a resumed job keeps the errors written by its already committed chunks. A delta job keeps
+     * the previous errors: each chunk reads and replaces the errors of its own CUPS.
+     *
+     * @throws IllegalStateException if this JVM is already billing one of the scope's months
+     */
+    public JobStart start(BillingScope scope, int chunkSize) {
+        List<String> periods = scope.months().stream().map(YearMonth::toString).toList();
+        acquire(periods);
+        try {
+            return transactionTemplate.execute(status -> {
+                Optional<BillingJob> unfinished = jobRepository
+                        .findTopByPeriodAndPeriodToAndCupsAndDeltaAndStatusOrderByIdDesc(
+                                scope.from().toString(), scope.to().toString(), scope.cups(), scope.delta(),
+                                BillingJob.Status.RUNNING);
+                if (unfinished.isPresent()) {
+                    return reopen(unfinished.get(), scope);
+                }
+                for (String period : scope.delta() ? List.<String>of() : periods) {
+                    if (scope.cups() == null) {
+                        billingErrorRepository.deleteByPeriod(period);
+                    } else {
+                        billingErrorRepository.deleteByCupsAndPeriod(scope.cups(), period);
+                    }
+                }
+                BillingJob job = jobRepository.save(new BillingJob(
+                        scope.from().toString(), scope.to().toString(), scope.cups(), scope.delta(), chunkSize));
+                return new JobStart(job.getId(), List.of(), Map.of());
+            });
+        } catch (RuntimeException e) {
+            release(periods);
+            throw e;
+        }
+    }
+
+    /**
+     * Resumes a job from its last checkpoint, e.g. a FAILED job whose cause was transient. The CUPS of
+     * its committed chunks are not billed again.
+     *
+     * @throws IllegalStateException if the job is COMPLETED, or this JVM is already billing one of its months
+     */
+    public JobStart resume(BillingJob job, BillingScope scope) {
+        if (job.getStatus() == BillingJob.Status.COMPLETED) {
+            throw new IllegalStateException("Billing job " + job.getId() + " is already completed");
+        }
+        List<String> periods = scope.months().stream().map(YearMonth::toString).toList();
+        acquire(periods);
+        try {
+            return transactionTemplate.execute(status -> reopen(
+                    jobRepository.findById(job.getId()).orElseThrow(), scope));
+        } catch (RuntimeException e) {
+            release(periods);
+            throw e;
+        }
+    }
+
+    private JobStart reopen(BillingJob job, BillingScope scope) {
+        job.setStatus(BillingJob.Status.RUNNING);
+        job.setFailureMessage(null);
+        List<BillingCheckpoint> checkpoints = checkpointRepository.findByJobIdOrderByFirstCups(job.getId());
+        log.info("Billing run {}: resuming job {} after {} committed chunk(s)",
+                scope.label(), job.getId(), checkpoints.size());
+        Map<BillingError.Code, Long> priorErrors = new EnumMap<>(BillingError.Code.class);
+        billingErrorRepository.countByCodeForJob(job.getId())
+                .forEach(c -> priorErrors.put(c.code(), c.count()));
+        return new JobStart(job.getId(), checkpoints, priorErrors);
+    }
+
+    private void acquire(List<String> periods) {
+        synchronized (activePeriods) {
+            for (String period : periods) {
+                if (activePeriods.contains(period)) {
+                    throw new IllegalStateException("A billing run is already in progress for period " + period);
+                }
+            }
+            activePeriods.addAll(periods);
+        }
+    }
+
+    private void release(List<String> periods) {
+        synchronized (activePeriods) {
+            periods.forEach(activePeriods::remove);
+        }
+    }
+
+    /**
+     * Records a committed chunk. Must run inside the chunk's transaction so the checkpoint commits
+     * atomically with the invoices and errors it covers.
+     */
+    public void recordChunk(Long jobId, String period, String firstCups, String lastCups,
+                            int cupsCount, int created, int updated, int skipped, int errors) {
+        BillingCheckpoint cp = new BillingCheckpoint();
+        cp.setJobId(jobId);
+        cp.setPeriod(period);
+        cp.setFirstCups(firstCups);
+        cp.setLastCups(lastCups);
+        cp.setCupsCount(cupsCount);
+        cp.setInvoicesCreated(created);
+        cp.setInvoicesUpdated(updated);
+        cp.setInvoicesSkipped(skipped);
+        cp.setErrorCount(errors);
+        cp.setCompletedAt(LocalDateTime.now());
+        checkpointRepository.save(cp);
+        jobRepository.addProgress(jobId, cupsCount, created, updated, skipped, errors);
+    }
+
+    /**
+     * Chunks of the job already committed, by any node, within the partition {@code (afterCups, lastCups]}.
+     */
+    public CompletedRanges completedRanges(Long jobId, String afterCups, String lastCups) {
+        return new CompletedRanges(lastCups == null
+                ? checkpointRepository.findByJobIdAndFirstCupsGreaterThanOrderByFirstCups(jobId, afterCups)
+                : checkpointRepository.findByJobIdAndFirstCupsGreaterThanAndFirstCupsLessThanEqualOrderByFirstCups(
+                        jobId, afterCups, lastCups));
+    }
+
+    public void setTotalCups(Long jobId, long totalCups) {
+        transactionTemplate.executeWithoutResult(status -> jobRepository.setTotalCups(jobId, totalCups));
+    }
+
+    // Job counters are maintained with bulk updates, so status changes are bulk updates too:
+    // dirty-checking a managed BillingJob would write back stale counters.
+
+    public void complete(Long jobId, BillingScope scope) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobRepository.finish(
+                    jobId, BillingJob.Status.COMPLETED, LocalDateTime.now(), null));
+        } finally {
+            release(scope.months().stream().map(YearMonth::toString).toList());
+        }
+    }
+
+    /**
+     * Completes a partitioned job whose last partition was billed by this node on behalf of the node
+     * that started it; this JVM holds no period lock for it.
+     */
+    public void completeJoined(Long jobId) {
+        transactionTemplate.executeWithoutResult(status -> jobRepository.finish(
+                jobId, BillingJob.Status.COMPLETED, LocalDateTime.now(), null));
+    }
+
+    /**
+     * Marks the job as failed in its own transaction, so the status survives a rollback of the caller.
+     */
+    public void fail(Long jobId, BillingScope scope, String message) {
+        try {
+            String failure = message == null ? null : message.substring(0, Math.min(500, message.length()));
+            requiresNewTemplate.executeWithoutResult(status -> jobRepository.finish(
+                    jobId, BillingJob.Status.FAILED, LocalDateTime.now(), failure));
+        } catch (RuntimeException e) {
+            log.warn("Could not mark billing job {} as failed: {}", jobId, e.getMessage());
+        } finally {
+            release(scope.months().stream().map(YearMonth::toString).toList());
+        }
+    }
+
+    public boolean isActive(String period) {
+        synchronized (activePeriods) {
+            return activePeriods.contains(period);
+        }
+    }
+
+    /**
+     * State of a started or resumed job.
+     *
+     * @param checkpoints chunks already committed by a previous attempt, ordered by first CUPS
+     * @param priorErrors number of billing errors written by those chunks, per code
+     */
+    public record JobStart(Long jobId, List<BillingCheckpoint> checkpoints,
+                           Map<BillingError.Code, Long> priorErrors) {
+
+        public boolean resumed() {
+            return !checkpoints.isEmpty();
+        }
+
+        public CompletedRanges completedRanges() {
+            return new CompletedRanges(checkpoints);
+        }
+    }
+
+    /**
+     * CUPS ranges already committed by a previous attempt of a job.
+     */
+    public static final class CompletedRanges {
+
+        private final TreeMap<String, String> lastByFirst = new TreeMap<>();
+
+        CompletedRanges(List<BillingCheckpoint> checkpoints) {
+            for (BillingCheckpoint cp : checkpoints) {
+                lastByFirst.put(cp.getFirstCups(), cp.getLastCups());
+            }
+        }
+
+        public boolean contains(String cups) {
+            Map.Entry<String, String> range = lastByFirst.floorEntry(cups);
+            return range != null && cups.compareTo(range.getValue()) <= 0;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.entity.BillingError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the billing engine, exported on {@code /actuator/prometheus}.
+ * <ul>
+ *   <li>{@code gas.billing.stage{stage}}: time spent per chunk in each stage: {@code readings} (boundary
+ *       readings), {@code reference} (tariff / factor / IVA snapshot of a month), {@code calculation}
+ *       (amounts, lines and invoice numbers) and {@code persistence} (existing invoice keys and writes)</li>
+ *   <li>{@code gas.billing.cups}: CUPS committed; {@code rate(gas_billing_cups_total[1m])} is the CUPS/s
+ *       throughput</li>
+ *   <li>{@code gas.billing.invoices{outcome}}: invoices created, updated and skipped</li>
+ *   <li>{@code gas.billing.errors{code}}: billing errors by {@link BillingError.Code}</li>
+ * </ul>
+ * Stage times are added up over the chunk and recorded once per chunk, so the per-CUPS loop only reads
+ * {@link System#nanoTime()}.
+ */
+@Component
+public class BillingMetrics {
+
+    public enum Stage { READINGS, REFERENCE, CALCULATION, PERSISTENCE }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<BillingError.Code, Counter> errorCounters = new EnumMap<>(BillingError.Code.class);
+    private final Counter cups;
+    private final Counter created;
+    private final Counter updated;
+    private final Counter skipped;
+
+    public BillingMetrics(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("gas.billing.stage")
+                    .description("Time spent per billing chunk in each stage")
+                    .tag("stage", stage.name().toLowerCase())
+                    .register(registry));
+        }
+        for (BillingError.Code code : BillingError.Code.values()) {
+            errorCounters.put(code, Counter.builder("gas.billing.errors")
+                    .description("Billing errors by cause")
+                    .tag("code", code.name())
+                    .register(registry));
+        }
+        cups = Counter.builder("gas.billing.cups")
+                .description("CUPS billed and committed")
+                .register(registry);
+        created = invoices(registry, "created");
+        updated = invoices(registry, "updated");
+        skipped = invoices(registry, "skipped");
+    }
+
+    private static Counter invoices(MeterRegistry registry, String outcome) {
+        return Counter.builder("gas.billing.invoices")
+                .description("Invoices written by billing runs")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a committed chunk; call it once the chunk transaction committed.
+     */
+    public void chunkCommitted(int chunkCups, int invoicesCreated, int invoicesUpdated, int invoicesSkipped,
+                               Map<BillingError.Code, Long> errors) {
+        cups.increment(chunkCups);
+        created.increment(invoicesCreated);
+        updated.increment(invoicesUpdated);
+        skipped.increment(invoicesSkipped);
+        errors.forEach((code, count) -> errorCounters.get(code).increment(count));
+    }
+}
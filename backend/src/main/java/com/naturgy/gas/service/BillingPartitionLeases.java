@@ -0,0 +1,236 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.config.BillingClusterProperties;
+import com.naturgy.gas.entity.BillingPartition;
+import com.naturgy.gas.entity.BillingPartition.Status;
+import com.naturgy.gas.entity.SupplyPoint;
+import com.naturgy.gas.repository.BillingPartitionRepository;
+import com.naturgy.gas.repository.SupplyPointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database-coordinated partition leases for multi-node billing ({@code gas.billing.cluster.enabled}).
+ * <p>
+ * A job's active CUPS are cut into {@link BillingPartition}s of {@code partition-size} CUPS. Nodes claim
+ * partitions with a conditional UPDATE, so exactly one node wins each claim. While a node holds a lease,
+ * a heartbeat renews it every third of {@code lease-duration}, and every committed chunk renews it too.
+ * A lease that expires (dead or stalled node) can be claimed by any other node, which resumes the
+ * partition from the chunk checkpoints. Chunk progress is recorded in the chunk transaction and only
+ * while the lease is still held, so a node that lost its lease cannot commit a chunk.
+ * <p>
+ * Lease times come from each node's clock: nodes are expected to run NTP, with a skew well below the
+ * lease duration.
+ */
+@Component
+public class BillingPartitionLeases implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingPartitionLeases.class);
+
+    private final BillingPartitionRepository partitionRepository;
+    private final SupplyPointRepository supplyPointRepository;
+    private final BillingClusterProperties properties;
+    private final TransactionTemplate requiresNewTemplate;
+    private final String nodeId;
+
+    /** Partitions leased by this node, renewed by the heartbeat. */
+    private final Set<Long> held = ConcurrentHashMap.newKeySet();
+    /** Jobs whose partitions this node is billing right now. */
+    private final Set<Long> billingHere = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeat;
+
+    public BillingPartitionLeases(BillingPartitionRepository partitionRepository,
+                                  SupplyPointRepository supplyPointRepository,
+                                  BillingClusterProperties properties,
+                                  PlatformTransactionManager transactionManager) {
+        this.partitionRepository = partitionRepository;
+        this.supplyPointRepository = supplyPointRepository;
+        this.properties = properties;
+        this.requiresNewTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = properties.nodeId().isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName()
+                : properties.nodeId();
+        if (properties.enabled()) {
+            this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "billing-lease-heartbeat");
+                t.setDaemon(true);
+                return t;
+            });
+            long periodMs = properties.leaseDuration().toMillis() / 3;
+            heartbeat.scheduleAtFixedRate(this::renewHeld, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.heartbeat = null;
+        }
+    }
+
+    public boolean enabled() {
+        return properties.enabled();
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Cuts the active CUPS of a job into partitions, unless the job already has them (resumed job, or
+     * another node got there first).
+     */
+    public void createPartitions(Long jobId) {
+        try {
+            requiresNewTemplate.executeWithoutResult(status -> {
+                if (partitionRepository.existsByJobId(jobId)) return;
+                List<BillingPartition> partitions = new ArrayList<>();
+                String after = "";
+                while (true) {
+                    List<String> boundary = supplyPointRepository.findCupsAfter(SupplyPoint.EstadoSupply.ACTIVO,
+                            after, PageRequest.of(properties.partitionSize() - 1, 1));
+                    String last = boundary.isEmpty() ? null : boundary.get(0);
+                    partitions.add(new BillingPartition(jobId, partitions.size(), after, last));
+                    if (last == null) break;
+                    after = last;
+                }
+                partitionRepository.saveAll(partitions);
+                log.info("Billing job {}: {} partition(s) of up to {} CUPS", jobId, partitions.size(),
+                        properties.partitionSize());
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("Billing job {}: partitions already created by another node", jobId);
+        }
+    }
+
+    /**
+     * Claims the first partition of the job that is not leased, or whose lease expired.
+     */
+    public Optional<BillingPartition> claimNext(Long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        for (BillingPartition candidate : partitionRepository.findClaimable(jobId, now, Status.PENDING, Status.LEASED)) {
+            Integer won = requiresNewTemplate.execute(status -> partitionRepository.claim(candidate.getId(), nodeId,
+                    now, now.plus(properties.leaseDuration()), Status.PENDING, Status.LEASED));
+            if (won != null && won == 1) {
+                held.add(candidate.getId());
+                if (candidate.getStatus() == Status.LEASED) {
+                    log.warn("Billing job {}: took over partition {} from {} (lease expired at {})",
+                            jobId, candidate.getPartitionNo(), candidate.getOwner(), candidate.getLeaseUntil());
+                } else {
+                    log.info("Billing job {}: claimed partition {}", jobId, candidate.getPartitionNo());
+                }
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Adds a committed chunk to the partition and renews its lease. Must run inside the chunk's
+     * transaction: if this node lost the lease, the chunk rolls back.
+     *
+     * @throws IllegalStateException if the lease is no longer held by this node
+     */
+    public void recordChunk(Long partitionId, int cups, int created, int updated, int skipped, long errors) {
+        int renewed = partitionRepository.addProgress(partitionId, nodeId,
+                LocalDateTime.now().plus(properties.leaseDuration()), Status.LEASED,
+                cups, created, updated, skipped, errors);
+        if (renewed != 1) {
+            held.remove(partitionId);
+            throw new IllegalStateException("Lease of billing partition " + partitionId + " lost by " + nodeId);
+        }
+    }
+
+    public void complete(Long partitionId) {
+        held.remove(partitionId);
+        Integer done = requiresNewTemplate.execute(status ->
+                partitionRepository.complete(partitionId, nodeId, LocalDateTime.now(), Status.LEASED, Status.DONE));
+        if (done == null || done != 1) {
+            throw new IllegalStateException("Lease of billing partition " + partitionId + " lost by " + nodeId);
+        }
+    }
+
+    /**
+     * Gives a partition back after a failure so another node can take it without waiting for expiry.
+     */
+    public void release(Long partitionId) {
+        held.remove(partitionId);
+        try {
+            requiresNewTemplate.executeWithoutResult(status ->
+                    partitionRepository.release(partitionId, nodeId, Status.LEASED, Status.PENDING));
+        } catch (RuntimeException e) {
+            log.warn("Could not release billing partition {}: {}", partitionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Registers the job as being billed by this node, so the cluster worker does not join it twice.
+     *
+     * @return false if this node is already billing the job
+     */
+    public boolean enter(Long jobId) {
+        return billingHere.add(jobId);
+    }
+
+    public void leave(Long jobId) {
+        billingHere.remove(jobId);
+    }
+
+    public boolean isBillingHere(Long jobId) {
+        return billingHere.contains(jobId);
+    }
+
+    public boolean hasPartitions(Long jobId) {
+        return partitionRepository.existsByJobId(jobId);
+    }
+
+    public boolean allDone(Long jobId) {
+        return partitionRepository.countByJobIdAndStatusNot(jobId, Status.DONE) == 0;
+    }
+
+    public List<BillingPartition> partitions(Long jobId) {
+        return partitionRepository.findByJobIdOrderByPartitionNo(jobId);
+    }
+
+    /**
+     * Waits one poll interval, e.g. before checking again for partitions leased by other nodes.
+     */
+    public void pause() {
+        try {
+            Thread.sleep(properties.pollInterval().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Billing run interrupted", e);
+        }
+    }
+
+    private void renewHeld() {
+        if (held.isEmpty()) return;
+        try {
+            List<Long> ids = List.copyOf(held);
+            requiresNewTemplate.executeWithoutResult(status -> partitionRepository.renew(ids, nodeId,
+                    LocalDateTime.now().plus(properties.leaseDuration()), Status.LEASED));
+        } catch (RuntimeException e) {
+            log.warn("Billing lease heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (heartbeat != null) heartbeat.shutdownNow();
+    }
+}
@@ -0,0 +1,69 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.dto.BillingResultDto;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live, in-memory progress of a billing job executed by this JVM.
+ * Counters are updated after every committed chunk and read by the job status and SSE endpoints.
+ */
+public class BillingProgress {
+
+    private final Long jobId;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong totalCups = new AtomicLong();
+    private final AtomicLong alreadyProcessed = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private volatile BillingResultDto result;
+
+    public BillingProgress(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    /**
+     * @param totalCups        CUPS of the whole job, including those committed by previous attempts
+     * @param alreadyProcessed CUPS committed by previous attempts of a resumed job
+     */
+    void start(long totalCups, long alreadyProcessed) {
+        this.totalCups.set(totalCups);
+        this.alreadyProcessed.set(alreadyProcessed);
+    }
+
+    void chunkCommitted(int cups) {
+        processed.addAndGet(cups);
+    }
+
+    void finished(BillingResultDto result) {
+        this.result = result;
+    }
+
+    public Long jobId() {
+        return jobId;
+    }
+
+    /**
+     * @return CUPS per second billed by this attempt
+     */
+    public double cupsPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : processed.get() / seconds;
+    }
+
+    /**
+     * @return estimated seconds to completion, or {@code null} while there is no throughput yet
+     */
+    public Long etaSeconds() {
+        double rate = cupsPerSecond();
+        if (rate <= 0) return null;
+        long remaining = Math.max(0, totalCups.get() - alreadyProcessed.get() - processed.get());
+        return Math.round(remaining / rate);
+    }
+
+    /**
+     * @return result of the job once this JVM finished it, otherwise {@code null}
+     */
+    public BillingResultDto result() {
+        return result;
+    }
+}
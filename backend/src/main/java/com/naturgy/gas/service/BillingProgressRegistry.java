@@ -0,0 +1,35 @@
+package com.naturgy.gas.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Live progress of the billing jobs run by this JVM, keyed by job id.
+ * Only the most recent jobs are kept; older entries fall back to the persisted job counters.
+ */
+@Component
+public class BillingProgressRegistry {
+
+    private static final int MAX_ENTRIES = 100;
+
+    private final ConcurrentSkipListMap<Long, BillingProgress> progressByJob = new ConcurrentSkipListMap<>();
+
+    public BillingProgress register(Long jobId) {
+        BillingProgress progress = new BillingProgress(jobId);
+        progressByJob.put(jobId, progress);
+        Iterator<Map.Entry<Long, BillingProgress>> oldest = progressByJob.entrySet().iterator();
+        while (progressByJob.size() > MAX_ENTRIES && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+        return progress;
+    }
+
+    public Optional<BillingProgress> find(Long jobId) {
+        return Optional.ofNullable(progressByJob.get(jobId));
+    }
+}
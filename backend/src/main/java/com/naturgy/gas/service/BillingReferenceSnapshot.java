@@ -0,0 +1,144 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.entity.BillingError;
+import com.naturgy.gas.entity.GasConversionFactor;
+import com.naturgy.gas.entity.GasTariff;
+import com.naturgy.gas.entity.TaxConfig;
+import com.naturgy.gas.service.BillingService.BillingException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable view of the reference data needed to bill one period: effective tariff per tarifa,
+ * conversion factor per zona for the month and the IVA rate.
+ * Built once per billing run so the per-CUPS loop performs no reference-data I/O.
+ */
+public final class BillingReferenceSnapshot {
+
+    /**
+     * @param fijoMes  {@code fijoMesEur} for {@link BillingCalculator}, converted once; null if it does not fit
+     * @param variable {@code variableEurKwh} for {@link BillingCalculator}, converted once; null if it does not fit
+     */
+    public record Tariff(String tarifa, BigDecimal fijoMesEur, BigDecimal variableEurKwh, LocalDate vigenciaDesde,
+                         BillingCalculator.Fixed fijoMes, BillingCalculator.Fixed variable) {
+
+        public Tariff(String tarifa, BigDecimal fijoMesEur, BigDecimal variableEurKwh, LocalDate vigenciaDesde) {
+            this(tarifa, fijoMesEur, variableEurKwh, vigenciaDesde,
+                    BillingCalculator.Fixed.normalized(fijoMesEur), BillingCalculator.Fixed.normalized(variableEurKwh));
+        }
+    }
+
+    /**
+     * @param kwhPerM3      cached {@code coefConv × pcsKwhM3}; exact, so {@code m3 × kwhPerM3} equals
+     *                      {@code m3 × coefConv × pcsKwhM3} before rounding
+     * @param kwhPerM3Fixed {@code kwhPerM3} for {@link BillingCalculator}; null if it does not fit
+     */
+    public record Factor(String zona, BigDecimal coefConv, BigDecimal pcsKwhM3, BigDecimal kwhPerM3,
+                         BillingCalculator.Fixed kwhPerM3Fixed) {
+
+        public Factor(String zona, BigDecimal coefConv, BigDecimal pcsKwhM3, BigDecimal kwhPerM3) {
+            this(zona, coefConv, pcsKwhM3, kwhPerM3, BillingCalculator.Fixed.normalized(kwhPerM3));
+        }
+
+        public static Factor of(String zona, BigDecimal coefConv, BigDecimal pcsKwhM3) {
+            return new Factor(zona, coefConv, pcsKwhM3, coefConv.multiply(pcsKwhM3));
+        }
+    }
+
+    private final LocalDate periodEnd;
+    private final String mes;
+    private final Map<String, Tariff> tariffs;
+    private final Map<String, Factor> factors;
+    private final BigDecimal ivaRate;
+
+    private BillingReferenceSnapshot(LocalDate periodEnd, String mes, Map<String, Tariff> tariffs,
+                                     Map<String, Factor> factors, BigDecimal ivaRate) {
+        this.periodEnd = periodEnd;
+        this.mes = mes;
+        this.tariffs = Map.copyOf(tariffs);
+        this.factors = Map.copyOf(factors);
+        this.ivaRate = ivaRate;
+    }
+
+    /**
+     * @param tariffs candidate tariff rows with vigencia_desde &lt;= period end; the latest per tarifa wins
+     * @param factors conversion factor rows of the period month
+     * @param iva     effective IVA row, if any
+     */
+    public static BillingReferenceSnapshot of(YearMonth ym, Collection<GasTariff> tariffs,
+                                              Collection<GasConversionFactor> factors, Optional<TaxConfig> iva) {
+        LocalDate periodEnd = ym.atEndOfMonth();
+        String mes = ym.format(DateTimeFormatter.ofPattern("yyyy-MM"));
+
+        Map<String, Tariff> tariffMap = new HashMap<>();
+        tariffs.stream()
+                .filter(t -> !t.getVigenciaDesde().isAfter(periodEnd))
+                .sorted(Comparator.comparing(GasTariff::getVigenciaDesde))
+                .forEach(t -> tariffMap.put(t.getTarifa(),
+                        new Tariff(t.getTarifa(), t.getFijoMesEur(), t.getVariableEurKwh(), t.getVigenciaDesde())));
+
+        Map<String, Factor> factorMap = new HashMap<>();
+        for (GasConversionFactor f : factors) {
+            if (!mes.equals(f.getMes())) continue;
+            factorMap.put(f.getZona(), Factor.of(f.getZona(), f.getCoefConv(), f.getPcsKwhM3()));
+        }
+
+        return new BillingReferenceSnapshot(periodEnd, mes, tariffMap, factorMap,
+                iva.map(TaxConfig::getTaxRate).orElse(null));
+    }
+
+    /**
+     * Copy of this snapshot with hypothetical reference data, for simulations: overridden tarifas and
+     * zonas replace (or add to) the effective ones, and a non-null {@code ivaRate} replaces the IVA rate.
+     */
+    public BillingReferenceSnapshot withOverrides(Collection<Tariff> tariffOverrides,
+                                                  Collection<Factor> factorOverrides, BigDecimal ivaRateOverride) {
+        Map<String, Tariff> tariffMap = new HashMap<>(tariffs);
+        tariffOverrides.forEach(t -> tariffMap.put(t.tarifa(), t));
+        Map<String, Factor> factorMap = new HashMap<>(factors);
+        factorOverrides.forEach(f -> factorMap.put(f.zona(), f));
+        return new BillingReferenceSnapshot(periodEnd, mes, tariffMap, factorMap,
+                ivaRateOverride != null ? ivaRateOverride : ivaRate);
+    }
+
+    public Tariff tariff(String tarifa) {
+        Tariff t = tariffs.get(tarifa);
+        if (t == null) {
+            throw new BillingException(BillingError.Code.NO_TARIFF,
+                    "No tariff found for tarifa=" + tarifa + " on " + periodEnd);
+        }
+        return t;
+    }
+
+    public Factor factor(String zona) {
+        Factor f = factors.get(zona);
+        if (f == null) {
+            throw new BillingException(BillingError.Code.NO_FACTOR,
+                    "No conversion factor for zona=" + zona + " mes=" + mes);
+        }
+        return f;
+    }
+
+    public BigDecimal ivaRate(String period) {
+        if (ivaRate == null) {
+            throw new BillingException(BillingError.Code.NO_IVA, "No IVA tax config found for period " + period);
+        }
+        return ivaRate;
+    }
+
+    public LocalDate periodEnd() {
+        return periodEnd;
+    }
+
+    public String mes() {
+        return mes;
+    }
+}
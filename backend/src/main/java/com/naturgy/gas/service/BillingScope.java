@@ -0,0 +1,83 @@
+package com.naturgy.gas.service;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What a billing job covers: a month range (a single month for a regular run) and, optionally,
+ * a single CUPS whose history is being rebuilt.
+ *
+ * @param cups  CUPS to bill, or {@code null} for every active CUPS
+ * @param delta only re-bill CUPS whose invoice inputs changed (see {@link InvoiceFingerprint}) or that
+ *              had a billing error in the previous run
+ */
+public record BillingScope(YearMonth from, YearMonth to, String cups, boolean delta) {
+
+    /** Upper bound on the months of one job, to keep per-job reference data and locks bounded. */
+    public static final int MAX_MONTHS = 120;
+
+    public BillingScope {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Invalid month range: from=" + from + " is after to=" + to);
+        }
+        if (from.plusMonths(MAX_MONTHS - 1).isBefore(to)) {
+            throw new IllegalArgumentException("Month range too large: at most " + MAX_MONTHS + " months per billing job");
+        }
+        if (cups != null && cups.isBlank()) {
+            cups = null;
+        }
+    }
+
+    public BillingScope(YearMonth from, YearMonth to, String cups) {
+        this(from, to, cups, false);
+    }
+
+    public static BillingScope ofPeriod(String period) {
+        YearMonth ym = parse(period, "period");
+        return new BillingScope(ym, ym, null);
+    }
+
+    /**
+     * Builds the scope of a billing request: either {@code period}, or {@code from} and {@code to}.
+     */
+    public static BillingScope of(String period, String from, String to, String cups, boolean delta) {
+        if (period != null && !period.isBlank()) {
+            if (from != null || to != null) {
+                throw new IllegalArgumentException("Use either period or from/to, not both");
+            }
+            YearMonth ym = parse(period, "period");
+            return new BillingScope(ym, ym, cups, delta);
+        }
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Either period or both from and to are required");
+        }
+        return new BillingScope(parse(from, "from"), parse(to, "to"), cups, delta);
+    }
+
+    static YearMonth parse(String value, String name) {
+        try {
+            return YearMonth.parse(value);
+        } catch (Exception e) {
+            if ("period".equals(name)) {
+                throw new IllegalArgumentException("Invalid period format. Expected YYYY-MM, got: " + value);
+            }
+            throw new IllegalArgumentException("Invalid " + name + " format. Expected YYYY-MM, got: " + value);
+        }
+    }
+
+    public List<YearMonth> months() {
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth m = from; !m.isAfter(to); m = m.plusMonths(1)) {
+            months.add(m);
+        }
+        return months;
+    }
+
+    /**
+     * @return "YYYY-MM" for a single month, "YYYY-MM..YYYY-MM" for a range
+     */
+    public String label() {
+        return from.equals(to) ? from.toString() : from + ".." + to;
+    }
+}
@@ -1,178 +1,556 @@
 package com.naturgy.gas.service;
 
+import com.naturgy.gas.config.BillingProperties;
 import com.naturgy.gas.dto.BillingResultDto;
-import com.naturgy.gas.dto.BillingResultDto.BillingErrorDto;
 import com.naturgy.gas.entity.*;
+import com.naturgy.gas.exception.NotFoundException;
 import com.naturgy.gas.repository.*;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
 
 @Service
 @RequiredArgsConstructor
 public class BillingService {
 
     private static final Logger log = LoggerFactory.getLogger(BillingService.class);
-    private static final BigDecimal ZERO = BigDecimal.ZERO;
 
     private final SupplyPointRepository supplyPointRepository;
-    private final GasReadingRepository gasReadingRepository;
     private final GasTariffRepository gasTariffRepository;
     private final GasConversionFactorRepository gasConversionFactorRepository;
     private final TaxConfigRepository taxConfigRepository;
     private final InvoiceRepository invoiceRepository;
     private final InvoiceLineRepository invoiceLineRepository;
     private final BillingErrorRepository billingErrorRepository;
+    private final BoundaryReadingResolver boundaryReadingResolver;
+    private final BillingWorkerPool workerPool;
+    private final BillingProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final BillingJobTracker jobTracker;
+    private final BillingProgressRegistry progressRegistry;
+    private final BillingJobExecutor jobExecutor;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final EntityManager entityManager;
+    private final BillingPartitionLeases partitionLeases;
+    private final BillingJobRepository jobRepository;
+    private final BillingMetrics metrics;
+    private final BillingSummaryService billingSummaryService;
 
-    @Transactional
+    /**
+     * Bills every active CUPS for the period.
+     * Active CUPS are split into chunks of {@code gas.billing.chunk-size}; each chunk is billed in its
+     * own transaction, on the worker pool when {@code gas.billing.workers > 1}. With a single worker
+     * the chunks run on the calling thread and join its transaction, if any.
+     * <p>
+     * The run is tracked as a {@link com.naturgy.gas.entity.BillingJob}: every committed chunk leaves a
+     * checkpoint, and a run of a period whose last job died mid-run (left RUNNING) only bills the CUPS
+     * outside the checkpointed ranges. After a FAILED job a run starts afresh; see {@link #resumeBilling}. The returned counters cover the whole job, including resumed chunks.
+     * This call blocks until the job is done; see {@link #submitBilling(String)} for the asynchronous variant.
+     */
     public BillingResultDto runBilling(String period) {
-        YearMonth ym;
+        return runBilling(BillingScope.ofPeriod(period));
+    }
+
+    /**
+     * Bills every month of the scope in one job. Each chunk reads the readings of its CUPS once for the
+     * whole range and bills all months of those CUPS in the same transaction, so checkpoints still
+     * cover CUPS ranges.
+     */
+    public BillingResultDto runBilling(BillingScope scope) {
+        BillingJobTracker.JobStart job = jobTracker.start(scope, properties.chunkSize());
+        return execute(job, scope, progressRegistry.register(job.jobId()));
+    }
+
+    /**
+     * Starts the billing job of the period on a background thread and returns its id immediately.
+     * Progress is available through {@link BillingProgressRegistry} and the persisted job row.
+     */
+    public Long submitBilling(String period) {
+        return submitBilling(BillingScope.ofPeriod(period));
+    }
+
+    public Long submitBilling(BillingScope scope) {
+        return submit(jobTracker.start(scope, properties.chunkSize()), scope);
+    }
+
+    /**
+     * Resumes a job that did not complete (typically FAILED on a transient cause) from its last checkpoint,
+     * on a background thread. The CUPS of its committed chunks are not billed again: to re-bill them after
+     * fixing their inputs, start a new run instead.
+     *
+     * @throws IllegalStateException if the job is already completed or its months are being billed
+     */
+    public Long resumeBilling(Long jobId) {
+        BillingJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new NotFoundException("Billing job not found: " + jobId));
+        BillingScope scope = scopeOf(job);
+        return submit(jobTracker.resume(job, scope), scope);
+    }
+
+    private Long submit(BillingJobTracker.JobStart job, BillingScope scope) {
+        BillingProgress progress = progressRegistry.register(job.jobId());
         try {
-            ym = YearMonth.parse(period);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid period format. Expected YYYY-MM, got: " + period);
+            jobExecutor.submit(() -> {
+                try {
+                    execute(job, scope, progress);
+                } catch (RuntimeException e) {
+                    log.error("Billing job {} for {} failed", job.jobId(), scope.label(), e);
+                }
+            });
+        } catch (RuntimeException e) {
+            jobTracker.fail(job.jobId(), scope, e.getMessage());
+            throw e;
         }
+        return job.jobId();
+    }
 
-        LocalDate periodStart = ym.atDay(1);
-        LocalDate periodEnd = ym.atEndOfMonth();
+    private BillingResultDto execute(BillingJobTracker.JobStart job, BillingScope scope, BillingProgress progress) {
+        try {
+            BillingResultDto result = runJob(job, scope, progress);
+            jobTracker.complete(job.jobId(), scope);
+            progress.finished(result);
+            return result;
+        } catch (RuntimeException e) {
+            jobTracker.fail(job.jobId(), scope, e.getMessage());
+            throw e;
+        }
+    }
+
+    private BillingResultDto runJob(BillingJobTracker.JobStart job, BillingScope scope, BillingProgress progress) {
+        String label = scope.label();
+        long alreadyProcessed = job.checkpoints().stream().mapToLong(BillingCheckpoint::getCupsCount).sum();
+        long total = scope.cups() == null
+                ? supplyPointRepository.countByEstado(SupplyPoint.EstadoSupply.ACTIVO)
+                : singleSupplyPoint(scope.cups()).size();
+        log.info("Billing run {}: {} active supply points to bill, {} worker(s)",
+                label, total - alreadyProcessed, properties.workers());
+        jobTracker.setTotalCups(job.jobId(), total);
+        progress.start(total, alreadyProcessed);
+
+        invoiceNumberAllocator.discardStaleBlocks();
+        List<RunContext> runs = scope.months().stream().map(this::newRunContext).toList();
+
+        if (partitionLeases.enabled() && scope.cups() == null) {
+            return runPartitioned(job.jobId(), scope, runs, progress);
+        }
+
+        Iterator<List<SupplyPoint>> pending = pendingChunks(scope, job.completedRanges());
+        ChunkResult result = billChunks(job.jobId(), scope, runs, pending, progress, resumedPart(job),
+                (chunk, billed) -> {});
+
+        log.info("Billing run {} done: {} created, {} updated, {} skipped, {} errors {}",
+                label, result.created(), result.updated(), result.skipped(), result.errorCount(), result.errors());
+        return new BillingResultDto(label, result.created(), result.updated(), result.skipped(),
+                result.errorCount(), result.errors());
+    }
+
+    /**
+     * Bills the chunks on the worker pool, one transaction and checkpoint per chunk.
+     *
+     * @param inChunkTransaction extra step run in each chunk's transaction once the chunk is billed
+     */
+    private ChunkResult billChunks(Long jobId, BillingScope scope, List<RunContext> runs,
+                                   Iterator<List<SupplyPoint>> pending, BillingProgress progress,
+                                   ChunkResult identity,
+                                   BiConsumer<List<SupplyPoint>, ChunkResult> inChunkTransaction) {
+        Iterator<Callable<ChunkResult>> chunks = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return pending.hasNext();
+            }
+
+            @Override
+            public Callable<ChunkResult> next() {
+                List<SupplyPoint> chunk = pending.next();
+                return () -> {
+                    billingSummaryService.prepare(runs.stream().map(RunContext::month).toList(), chunk);
+                    ChunkResult r = transactionTemplate.execute(status -> {
+                        ChunkResult billed = billChunk(jobId, chunk, runs, scope.delta());
+                        jobTracker.recordChunk(jobId, scope.from().toString(), chunk.get(0).getCups(),
+                                chunk.get(chunk.size() - 1).getCups(), chunk.size(),
+                                billed.created(), billed.updated(), billed.skipped(), (int) billed.errorCount());
+                        inChunkTransaction.accept(chunk, billed);
+                        return billed;
+                    });
+                    progress.chunkCommitted(chunk.size());
+                    metrics.chunkCommitted(chunk.size(), r.created(), r.updated(), r.skipped(), r.errors());
+                    return r;
+                };
+            }
+        };
+        return workerPool.invokeStreaming(chunks, identity, ChunkResult::plus);
+    }
+
+    /**
+     * Multi-node run: bills the partitions this node can claim, then waits for those leased by other
+     * nodes, taking over any whose lease expires. The result adds up the counters of all partitions,
+     * whichever node billed them.
+     */
+    private BillingResultDto runPartitioned(Long jobId, BillingScope scope, List<RunContext> runs,
+                                            BillingProgress progress) {
+        partitionLeases.createPartitions(jobId);
+        billPartitions(jobId, scope, runs, progress, true);
+
+        List<BillingPartition> partitions = partitionLeases.partitions(jobId);
+        int created = (int) partitions.stream().mapToLong(BillingPartition::getInvoicesCreated).sum();
+        int updated = (int) partitions.stream().mapToLong(BillingPartition::getInvoicesUpdated).sum();
+        int skipped = (int) partitions.stream().mapToLong(BillingPartition::getInvoicesSkipped).sum();
+        Map<BillingError.Code, Long> errors = new EnumMap<>(BillingError.Code.class);
+        billingErrorRepository.countByCodeForJob(jobId).forEach(c -> errors.put(c.code(), c.count()));
+        long errorCount = errors.values().stream().mapToLong(Long::longValue).sum();
+
+        log.info("Billing run {} done on {} partition(s) ({} billed by this node): {} created, {} updated, " +
+                        "{} skipped, {} errors {}", scope.label(), partitions.size(),
+                partitions.stream().filter(p -> partitionLeases.nodeId().equals(p.getOwner())).count(),
+                created, updated, skipped, errorCount, errors);
+        return new BillingResultDto(scope.label(), created, updated, skipped, errorCount, errors);
+    }
+
+    /**
+     * Helps with a partitioned job started by another node: bills partitions until none is left to claim.
+     * Completes the job if this node billed its last partition.
+     */
+    public void joinJob(Long jobId) {
+        BillingJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new NotFoundException("Billing job not found: " + jobId));
+        if (job.getStatus() != BillingJob.Status.RUNNING) return;
+        BillingScope scope = scopeOf(job);
+        log.info("Billing job {} ({}): joining as node {}", jobId, scope.label(), partitionLeases.nodeId());
+        invoiceNumberAllocator.discardStaleBlocks();
+        List<RunContext> runs = scope.months().stream().map(this::newRunContext).toList();
+        billPartitions(jobId, scope, runs, new BillingProgress(jobId), false);
+        if (partitionLeases.allDone(jobId)) {
+            jobTracker.completeJoined(jobId);
+        }
+    }
+
+    private void billPartitions(Long jobId, BillingScope scope, List<RunContext> runs, BillingProgress progress,
+                                boolean waitForOtherNodes) {
+        boolean entered = partitionLeases.enter(jobId);
+        try {
+            while (true) {
+                Optional<BillingPartition> claimed = partitionLeases.claimNext(jobId);
+                if (claimed.isPresent()) {
+                    billPartition(jobId, scope, runs, claimed.get(), progress);
+                } else if (!waitForOtherNodes || partitionLeases.allDone(jobId)) {
+                    return;
+                } else {
+                    partitionLeases.pause();
+                }
+            }
+        } finally {
+            if (entered) partitionLeases.leave(jobId);
+        }
+    }
+
+    /**
+     * Bills the CUPS of a leased partition not committed yet (a partition taken over from a dead node
+     * resumes after its last checkpoint). A failure gives the partition back to the other nodes.
+     */
+    private void billPartition(Long jobId, BillingScope scope, List<RunContext> runs, BillingPartition partition,
+                               BillingProgress progress) {
+        BillingJobTracker.CompletedRanges completed = jobTracker.completedRanges(jobId,
+                partition.getAfterCups(), partition.getLastCups());
+        Iterator<List<SupplyPoint>> pending = new SupplyPointChunks(supplyPointRepository, properties.chunkSize(),
+                partition.getAfterCups(), partition.getLastCups(), completed::contains);
+        try {
+            billChunks(jobId, scope, runs, pending, progress, ChunkResult.EMPTY,
+                    (chunk, billed) -> partitionLeases.recordChunk(partition.getId(), chunk.size(),
+                            billed.created(), billed.updated(), billed.skipped(), billed.errorCount()));
+            partitionLeases.complete(partition.getId());
+        } catch (RuntimeException e) {
+            partitionLeases.release(partition.getId());
+            throw e;
+        }
+    }
+
+    /**
+     * Chunks of active supply points not committed yet, in CUPS order. A full run pages through the
+     * table with keyset queries, so only the chunks in flight are held in memory.
+     */
+    private Iterator<List<SupplyPoint>> pendingChunks(BillingScope scope,
+                                                      BillingJobTracker.CompletedRanges completed) {
+        if (scope.cups() == null) {
+            return new SupplyPointChunks(supplyPointRepository, properties.chunkSize(), completed::contains);
+        }
+        List<SupplyPoint> single = singleSupplyPoint(scope.cups()).stream()
+                .filter(sp -> !completed.contains(sp.getCups()))
+                .toList();
+        return single.isEmpty() ? Collections.emptyIterator() : List.of(single).iterator();
+    }
+
+    private static BillingScope scopeOf(BillingJob job) {
+        return new BillingScope(YearMonth.parse(job.getPeriod()), YearMonth.parse(job.getPeriodTo()),
+                job.getCups(), job.isDelta());
+    }
+
+    private List<SupplyPoint> singleSupplyPoint(String cups) {
+        SupplyPoint sp = supplyPointRepository.findById(cups)
+                .orElseThrow(() -> new NotFoundException("Supply point not found: " + cups));
+        return sp.getEstado() == SupplyPoint.EstadoSupply.ACTIVO ? List.of(sp) : List.of();
+    }
+
+    private RunContext newRunContext(YearMonth ym) {
         String yyyyMM = ym.format(DateTimeFormatter.ofPattern("yyyyMM"));
+        long startedAt = System.nanoTime();
+        BillingReferenceSnapshot reference = loadReferenceSnapshot(ym);
+        metrics.recordStage(BillingMetrics.Stage.REFERENCE, System.nanoTime() - startedAt);
+        return new RunContext(ym, ym.toString(), ym.atDay(1), ym.atEndOfMonth(), yyyyMM, reference);
+    }
 
-        // Clear previous billing errors for this period
-        billingErrorRepository.deleteByPeriod(period);
+    /**
+     * Counters of the chunks committed by previous attempts of a resumed job.
+     */
+    private static ChunkResult resumedPart(BillingJobTracker.JobStart job) {
+        int created = job.checkpoints().stream().mapToInt(BillingCheckpoint::getInvoicesCreated).sum();
+        int updated = job.checkpoints().stream().mapToInt(BillingCheckpoint::getInvoicesUpdated).sum();
+        int skipped = job.checkpoints().stream().mapToInt(BillingCheckpoint::getInvoicesSkipped).sum();
+        return new ChunkResult(created, updated, skipped, job.priorErrors());
+    }
 
-        List<SupplyPoint> activePoints = supplyPointRepository.findByEstado(SupplyPoint.EstadoSupply.ACTIVO);
-        log.info("Billing run {}: {} active supply points", period, activePoints.size());
+    /**
+     * Bills one chunk of supply points for every month of the run inside the current transaction.
+     */
+    private ChunkResult billChunk(Long jobId, List<SupplyPoint> chunk, List<RunContext> runs, boolean delta) {
+        List<String> cups = chunk.stream().map(SupplyPoint::getCups).toList();
+        long startedAt = System.nanoTime();
+        Map<YearMonth, Map<String, BoundaryReadings>> boundaries = boundaryReadingResolver.resolve(
+                cups, runs.stream().map(RunContext::month).toList());
+        long readingsDone = System.nanoTime();
+        metrics.recordStage(BillingMetrics.Stage.READINGS, readingsDone - startedAt);
+        Map<LocalDate, Map<String, InvoiceKey>> existing = existingInvoices(cups, runs);
+        Set<String> retry = delta ? takePreviousErrors(cups, runs) : Set.of();
+        long persistenceNanos = System.nanoTime() - readingsDone;
+        long calculationNanos = 0;
 
         int created = 0;
         int updated = 0;
-        List<BillingErrorDto> errorDtos = new ArrayList<>();
-
-        for (SupplyPoint sp : activePoints) {
-            try {
-                boolean isNew = processSupplyPoint(sp, period, periodStart, periodEnd, yyyyMM);
-                if (isNew) created++;
-                else updated++;
-            } catch (BillingException e) {
-                log.warn("Billing error for CUPS {}: {}", sp.getCups(), e.getMessage());
-                billingErrorRepository.save(new BillingError(sp.getCups(), period, e.getMessage()));
-                errorDtos.add(new BillingErrorDto(sp.getCups(), e.getMessage()));
+        int skipped = 0;
+        List<BillingError> errors = new ArrayList<>();
+        Map<BillingError.Code, Long> errorCounts = new EnumMap<>(BillingError.Code.class);
+        List<Invoice> billed = new ArrayList<>();
+        List<String> replaced = new ArrayList<>();
+        BillingSummaryService.Changes summary = new BillingSummaryService.Changes();
+
+        for (RunContext run : runs) {
+            Map<String, BoundaryReadings> monthBoundaries = boundaries.get(run.month());
+            Map<String, InvoiceKey> monthExisting = existing.getOrDefault(run.periodStart(), Map.of());
+            for (SupplyPoint sp : chunk) {
+                if (billed.size() >= properties.flushInterval()) {
+                    long writeStart = System.nanoTime();
+                    writeInvoices(billed, replaced, errors, summary);
+                    persistenceNanos += System.nanoTime() - writeStart;
+                }
+                InvoiceKey existingKey = monthExisting.get(sp.getCups());
+                boolean skipUnchanged = delta && existingKey != null
+                        && !retry.contains(errorKey(sp.getCups(), run.period()));
+                long buildStart = System.nanoTime();
+                try {
+                    Optional<Invoice> invoice = buildInvoice(sp,
+                            monthBoundaries.getOrDefault(sp.getCups(), BoundaryReadings.NONE), run,
+                            existingKey, skipUnchanged);
+                    if (invoice.isEmpty()) {
+                        skipped++;
+                        continue;
+                    }
+                    billed.add(invoice.get());
+                    if (existingKey == null) {
+                        created++;
+                    } else {
+                        replaced.add(existingKey.numeroFactura());
+                        updated++;
+                    }
+                } catch (BillingException e) {
+                    log.warn("Billing error for CUPS {} period {}: {}", sp.getCups(), run.period(), e.getMessage());
+                    errors.add(new BillingError(jobId, sp.getCups(), run.period(), e.getCode(), e.getMessage()));
+                    errorCounts.merge(e.getCode(), 1L, Long::sum);
+                } finally {
+                    calculationNanos += System.nanoTime() - buildStart;
+                }
             }
         }
+        long writeStart = System.nanoTime();
+        writeInvoices(billed, replaced, errors, summary);
+        billingSummaryService.apply(summary);
+        persistenceNanos += System.nanoTime() - writeStart;
+        metrics.recordStage(BillingMetrics.Stage.CALCULATION, calculationNanos);
+        metrics.recordStage(BillingMetrics.Stage.PERSISTENCE, persistenceNanos);
+        return new ChunkResult(created, updated, skipped, errorCounts);
+    }
 
-        log.info("Billing run {} done: {} created, {} updated, {} errors", period, created, updated, errorDtos.size());
-        return new BillingResultDto(period, created, updated, errorDtos);
+    /**
+     * Keys of the invoices already issued to the chunk's CUPS for the run's months, by periodo_inicio
+     * and CUPS: one query per chunk instead of one idempotency lookup per CUPS.
+     */
+    private Map<LocalDate, Map<String, InvoiceKey>> existingInvoices(List<String> cups, List<RunContext> runs) {
+        Map<LocalDate, Map<String, InvoiceKey>> result = new HashMap<>();
+        LocalDate from = runs.get(0).periodStart();
+        LocalDate to = runs.get(runs.size() - 1).periodStart();
+        for (List<String> slice : slices(cups)) {
+            for (InvoiceKey key : invoiceRepository.findKeys(slice, from, to)) {
+                result.computeIfAbsent(key.periodoInicio(), k -> new HashMap<>()).put(key.cups(), key);
+            }
+        }
+        return result;
     }
 
     /**
-     * Processes one supply point for the given billing period.
+     * Delta runs keep the previous billing errors until the chunk covering their CUPS runs: the chunk
+     * reads them (those CUPS are always re-billed) and removes them, in its own transaction.
      *
-     * @return true if a new invoice was created, false if an existing one was updated.
+     * @return the (cups, period) keys that had a billing error
      */
-    private boolean processSupplyPoint(SupplyPoint sp, String period,
-                                       LocalDate periodStart, LocalDate periodEnd, String yyyyMM) {
-
-        String cups = sp.getCups();
+    private Set<String> takePreviousErrors(List<String> cups, List<RunContext> runs) {
+        List<String> periods = runs.stream().map(RunContext::period).toList();
+        Set<String> keys = new HashSet<>();
+        for (List<String> slice : slices(cups)) {
+            for (BillingError e : billingErrorRepository.findByCupsInAndPeriodIn(slice, periods)) {
+                keys.add(errorKey(e.getCups(), e.getPeriod()));
+            }
+            billingErrorRepository.deleteByCupsInAndPeriodIn(slice, periods);
+        }
+        return keys;
+    }
 
-        // 1) Boundary readings
-        Optional<GasReading> inicioOpt = gasReadingRepository
-                .findTopByCupsAndFechaBeforeOrderByFechaDesc(cups, periodStart);
-        Optional<GasReading> finOpt = gasReadingRepository
-                .findTopByCupsAndFechaLessThanEqualOrderByFechaDesc(cups, periodEnd);
+    private static String errorKey(String cups, String period) {
+        return cups + "|" + period;
+    }
 
-        if (inicioOpt.isEmpty()) {
-            throw new BillingException("Missing lectura_inicio for CUPS " + cups + " period " + period);
+    /**
+     * Splits CUPS into IN lists of at most {@link BoundaryReadingResolver#CHUNK_SIZE}.
+     */
+    private static List<List<String>> slices(List<String> cups) {
+        List<List<String>> slices = new ArrayList<>();
+        for (int i = 0; i < cups.size(); i += BoundaryReadingResolver.CHUNK_SIZE) {
+            slices.add(cups.subList(i, Math.min(i + BoundaryReadingResolver.CHUNK_SIZE, cups.size())));
         }
-        if (finOpt.isEmpty()) {
-            throw new BillingException("Missing lectura_fin for CUPS " + cups + " period " + period);
+        return slices;
+    }
+
+    /**
+     * Writes the billed invoices and the billing errors with batched INSERTs, then clears the persistence
+     * context so heap stays flat on large chunks. Re-billed invoices are replaced: their lines and headers
+     * are removed with two bulk DELETEs and inserted again under the same invoice number. Both are recorded
+     * in {@code summary}, which the chunk applies once at its end to keep summary rows locked briefly.
+     */
+    private void writeInvoices(List<Invoice> billed, List<String> replaced, List<BillingError> errors,
+                               BillingSummaryService.Changes summary) {
+        if (!replaced.isEmpty()) {
+            invoiceRepository.totalsOf(replaced).forEach(summary::subtract);
+            invoiceLineRepository.deleteByInvoiceNumbers(replaced);
+            invoiceRepository.deleteByNumeros(replaced);
         }
+        invoiceRepository.saveAll(billed);
+        billed.forEach(summary::add);
+        billingErrorRepository.saveAll(errors);
+        entityManager.flush();
+        entityManager.clear();
+        billed.clear();
+        replaced.clear();
+        errors.clear();
+    }
 
-        BigDecimal lecturaInicio = inicioOpt.get().getLecturaM3();
-        BigDecimal lecturaFin = finOpt.get().getLecturaM3();
+    /**
+     * Loads the reference data of the period once; the per-CUPS loop only reads from the snapshot.
+     */
+    BillingReferenceSnapshot loadReferenceSnapshot(YearMonth ym) {
+        LocalDate periodEnd = ym.atEndOfMonth();
+        return BillingReferenceSnapshot.of(ym,
+                gasTariffRepository.findAllEffectiveOn(periodEnd),
+                gasConversionFactorRepository.findByMes(ym.format(DateTimeFormatter.ofPattern("yyyy-MM"))),
+                taxConfigRepository.findEffective("IVA", periodEnd));
+    }
 
-        // 2) m3 consumption
-        BigDecimal m3Consumidos = lecturaFin.subtract(lecturaInicio);
-        if (m3Consumidos.compareTo(ZERO) < 0) {
-            throw new BillingException("Negative consumption for CUPS " + cups +
-                    ": lectura_fin=" + lecturaFin + " < lectura_inicio=" + lecturaInicio);
-        }
+    /**
+     * Computes the invoice of one supply point for the given billing period; the caller writes it.
+     *
+     * @param existing      invoice already issued for (cups, periodo_inicio), whose number is kept on
+     *                      re-billing; null to allocate a new number
+     * @param skipUnchanged return empty instead of re-billing when the inputs still match the fingerprint
+     *                      of {@code existing}
+     */
+    private Optional<Invoice> buildInvoice(SupplyPoint sp, BoundaryReadings readings, RunContext run,
+                                           InvoiceKey existing, boolean skipUnchanged) {
+
+        String cups = sp.getCups();
+        String period = run.period();
+        LocalDate periodStart = run.periodStart();
+        LocalDate periodEnd = run.periodEnd();
+        BillingReferenceSnapshot reference = run.reference();
+
+        // 1) Boundary readings (resolved in bulk for the whole run) and 2) m3 consumption
+        BigDecimal m3Consumidos = InvoiceAmounts.consumption(cups, period, readings);
 
         // 3) Tariff
-        GasTariff tariff = gasTariffRepository.findEffective(sp.getTarifa(), periodEnd)
-                .orElseThrow(() -> new BillingException(
-                        "No tariff found for tarifa=" + sp.getTarifa() + " on " + periodEnd));
+        BillingReferenceSnapshot.Tariff tariff = reference.tariff(sp.getTarifa());
 
         // 4) Conversion factor
-        YearMonth ym = YearMonth.of(periodEnd.getYear(), periodEnd.getMonth());
-        String mes = ym.format(DateTimeFormatter.ofPattern("yyyy-MM"));
-        GasConversionFactor factor = gasConversionFactorRepository.findByZonaAndMes(sp.getZona(), mes)
-                .orElseThrow(() -> new BillingException(
-                        "No conversion factor for zona=" + sp.getZona() + " mes=" + mes));
+        BillingReferenceSnapshot.Factor factor = reference.factor(sp.getZona());
 
         // 5) IVA
-        TaxConfig iva = taxConfigRepository.findEffective("IVA", periodEnd)
-                .orElseThrow(() -> new BillingException("No IVA tax config found for period " + period));
+        BigDecimal ivaRate = reference.ivaRate(period);
+
+        // Delta billing: same inputs as the issued invoice, same amounts
+        String fingerprint = InvoiceFingerprint.of(readings, tariff, factor, ivaRate);
+        if (skipUnchanged && fingerprint.equals(existing.inputFingerprint())) {
+            return Optional.empty();
+        }
 
         // Calculations
-        BigDecimal kwh = m3Consumidos
-                .multiply(factor.getCoefConv())
-                .multiply(factor.getPcsKwhM3())
-                .setScale(3, RoundingMode.HALF_UP);
-
-        int daysInPeriod = periodEnd.getDayOfMonth();
-        int daysInMonth = daysInPeriod; // monthly billing: same value
-        BigDecimal costeFijo = tariff.getFijoMesEur()
-                .multiply(BigDecimal.valueOf(daysInPeriod))
-                .divide(BigDecimal.valueOf(daysInMonth), 2, RoundingMode.HALF_UP);
-
-        BigDecimal costeVariable = kwh
-                .multiply(tariff.getVariableEurKwh())
-                .setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal alquilerEur = ZERO; // Workshop default: 0.00
-        BigDecimal base = costeFijo.add(costeVariable).add(alquilerEur)
-                .setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal impuestos = base.multiply(iva.getTaxRate())
-                .setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal total = base.add(impuestos)
-                .setScale(2, RoundingMode.HALF_UP);
-
-        // Idempotency: check if invoice already exists for (cups, periodo_inicio)
-        Optional<Invoice> existingOpt = invoiceRepository.findByCupsAndPeriodoInicio(cups, periodStart);
-
-        boolean isNew;
-        Invoice invoice;
-        if (existingOpt.isPresent()) {
-            invoice = existingOpt.get();
-            invoice.getLines().clear();
-            isNew = false;
+        InvoiceAmounts amounts = InvoiceAmounts.compute(m3Consumidos, tariff, factor, ivaRate, periodEnd);
+        BigDecimal kwh = amounts.kwh();
+        BigDecimal costeFijo = amounts.costeFijo();
+        BigDecimal costeVariable = amounts.costeVariable();
+        BigDecimal base = amounts.base();
+        BigDecimal impuestos = amounts.impuestos();
+        BigDecimal total = amounts.total();
+
+        // Idempotency: a re-billed (cups, periodo_inicio) keeps its invoice number
+        Invoice invoice = new Invoice();
+        if (existing != null) {
+            invoice.setNumeroFactura(existing.numeroFactura());
         } else {
-            invoice = new Invoice();
-            String prefix = "GAS-" + yyyyMM + "-";
-            long seq = invoiceRepository.countByNumeroFacturaStartingWith(prefix) + 1;
+            String prefix = "GAS-" + run.yyyyMM() + "-";
+            long seq = invoiceNumberAllocator.next(run.yyyyMM());
             invoice.setNumeroFactura(prefix + cups + "-" + String.format("%03d", seq));
-            invoice.setCups(cups);
-            invoice.setPeriodoInicio(periodStart);
-            invoice.setPeriodoFin(periodEnd);
-            isNew = true;
         }
+        invoice.setCups(cups);
+        invoice.setPeriodoInicio(periodStart);
+        invoice.setPeriodoFin(periodEnd);
+        invoice.setZona(sp.getZona());
+        invoice.setTarifa(sp.getTarifa());
+        invoice.setConsumoM3(m3Consumidos.setScale(3, RoundingMode.HALF_UP));
+        invoice.setKwh(kwh.setScale(3, RoundingMode.HALF_UP));
 
         invoice.setBase(base);
         invoice.setImpuestos(impuestos);
         invoice.setTotal(total);
         invoice.setFechaEmision(LocalDate.now());
+        invoice.setInputFingerprint(fingerprint);
+        invoice.setVersion(existing == null || existing.version() == null ? 1 : existing.version() + 1);
+        invoice.setLastModified(LocalDateTime.now());
 
         // Build lines
         InvoiceLine lineaFija = new InvoiceLine();
@@ -188,14 +566,14 @@ public class BillingService {
         lineaVariable.setTipoLinea(InvoiceLine.TipoLinea.TERMINO_VARIABLE);
         lineaVariable.setDescripcion("Término variable");
         lineaVariable.setCantidad(kwh.setScale(3, RoundingMode.HALF_UP));
-        lineaVariable.setPrecioUnitario(tariff.getVariableEurKwh().setScale(6, RoundingMode.HALF_UP));
+        lineaVariable.setPrecioUnitario(tariff.variableEurKwh().setScale(6, RoundingMode.HALF_UP));
         lineaVariable.setImporte(costeVariable);
 
         InvoiceLine lineaIva = new InvoiceLine();
         lineaIva.setInvoice(invoice);
         lineaIva.setTipoLinea(InvoiceLine.TipoLinea.IVA);
         lineaIva.setDescripcion("IVA");
-        lineaIva.setCantidad(iva.getTaxRate().setScale(3, RoundingMode.HALF_UP));
+        lineaIva.setCantidad(ivaRate.setScale(3, RoundingMode.HALF_UP));
         lineaIva.setPrecioUnitario(base.setScale(6, RoundingMode.HALF_UP));
         lineaIva.setImporte(impuestos);
 
@@ -203,19 +581,51 @@ public class BillingService {
         invoice.getLines().add(lineaVariable);
         invoice.getLines().add(lineaIva);
 
-        invoiceRepository.save(invoice);
-
-        log.info("Invoice {} for CUPS {} period {}: base={} IVA={} total={}",
+        log.debug("Invoice {} for CUPS {} period {}: base={} IVA={} total={}",
                 invoice.getNumeroFactura(), cups, period, base, impuestos, total);
-        return isNew;
+        return Optional.of(invoice);
+    }
+
+    /**
+     * Immutable state of one billed month, shared by all chunks of the job.
+     */
+    private record RunContext(YearMonth month, String period, LocalDate periodStart, LocalDate periodEnd,
+                              String yyyyMM, BillingReferenceSnapshot reference) {}
+
+    /**
+     * Counters of one billed chunk; chunk results are merged in chunk order.
+     */
+    private record ChunkResult(int created, int updated, int skipped, Map<BillingError.Code, Long> errors) {
+
+        static final ChunkResult EMPTY = new ChunkResult(0, 0, 0, Map.of());
+
+        ChunkResult plus(ChunkResult other) {
+            Map<BillingError.Code, Long> merged = new EnumMap<>(BillingError.Code.class);
+            merged.putAll(errors);
+            other.errors.forEach((code, count) -> merged.merge(code, count, Long::sum));
+            return new ChunkResult(created + other.created, updated + other.updated, skipped + other.skipped,
+                    merged);
+        }
+
+        long errorCount() {
+            return errors.values().stream().mapToLong(Long::longValue).sum();
+        }
     }
 
     /**
      * Internal unchecked exception for per-CUPS billing errors.
      */
     public static class BillingException extends RuntimeException {
-        public BillingException(String message) {
+
+        private final BillingError.Code code;
+
+        public BillingException(BillingError.Code code, String message) {
             super(message);
+            this.code = code;
+        }
+
+        public BillingError.Code getCode() {
+            return code;
         }
     }
 }
@@ -0,0 +1,215 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.config.BillingProperties;
+import com.naturgy.gas.dto.BillingSimulationRequestDto;
+import com.naturgy.gas.dto.BillingSimulationResultDto;
+import com.naturgy.gas.dto.BillingSimulationResultDto.Amounts;
+import com.naturgy.gas.dto.BillingSimulationResultDto.GroupDto;
+import com.naturgy.gas.dto.GasConversionFactorDto;
+import com.naturgy.gas.dto.GasTariffDto;
+import com.naturgy.gas.entity.SupplyPoint;
+import com.naturgy.gas.repository.SupplyPointRepository;
+import com.naturgy.gas.service.BillingService.BillingException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * What-if billing: runs the billing calculation of a period for every active CUPS with hypothetical
+ * tariff / IVA / conversion factor values, entirely in memory. Nothing is written: no invoices, no billing
+ * errors, no job. Chunks are computed on the billing worker pool.
+ */
+@Service
+@RequiredArgsConstructor
+public class BillingSimulationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingSimulationService.class);
+
+    private final SupplyPointRepository supplyPointRepository;
+    private final BoundaryReadingResolver boundaryReadingResolver;
+    private final BillingService billingService;
+    private final BillingWorkerPool workerPool;
+    private final BillingProperties properties;
+
+    public BillingSimulationResultDto simulate(BillingSimulationRequestDto request) {
+        long startedAt = System.nanoTime();
+        YearMonth ym = BillingScope.parse(request.period(), "period");
+        String period = ym.toString();
+        validateOverrides(request);
+
+        BillingReferenceSnapshot current = billingService.loadReferenceSnapshot(ym);
+        BillingReferenceSnapshot simulated = current.withOverrides(
+                request.tariffs().stream()
+                        .map(t -> new BillingReferenceSnapshot.Tariff(t.tarifa(), t.fijoMesEur(), t.variableEurKwh(),
+                                t.vigenciaDesde() != null ? t.vigenciaDesde() : ym.atDay(1)))
+                        .toList(),
+                request.factors().stream()
+                        .map(f -> BillingReferenceSnapshot.Factor.of(f.zona(), f.coefConv(), f.pcsKwhM3()))
+                        .toList(),
+                request.ivaRate());
+
+        Iterator<List<SupplyPoint>> active = new SupplyPointChunks(supplyPointRepository, properties.chunkSize(),
+                cups -> false);
+        Iterator<Callable<Map<String, Group>>> chunks = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return active.hasNext();
+            }
+
+            @Override
+            public Callable<Map<String, Group>> next() {
+                List<SupplyPoint> chunk = active.next();
+                return () -> simulateChunk(chunk, ym, current, simulated);
+            }
+        };
+
+        Map<String, Group> groups = workerPool.invokeStreaming(chunks, new HashMap<>(), (merged, partial) -> {
+            partial.forEach((key, group) -> merged.merge(key, group, Group::plus));
+            return merged;
+        });
+
+        List<GroupDto> groupDtos = groups.values().stream()
+                .sorted(Comparator.comparing(Group::tarifa).thenComparing(Group::zona))
+                .map(Group::toDto)
+                .toList();
+        Group all = groups.values().stream().reduce(new Group("*", "*"), Group::plus);
+        long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+        log.info("Billing simulation {}: {} CUPS in {} ms, total delta {}",
+                period, all.cups, elapsedMs, all.simulated.minus(all.current).total());
+        return new BillingSimulationResultDto(period, all.cups, all.unbillableCurrent, all.unbillableSimulated,
+                all.current, all.simulated, all.simulated.minus(all.current), groupDtos, elapsedMs);
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the first override field that is missing or negative
+     */
+    private static void validateOverrides(BillingSimulationRequestDto request) {
+        for (int i = 0; i < request.tariffs().size(); i++) {
+            GasTariffDto t = request.tariffs().get(i);
+            String field = "tariffs[" + i + "]";
+            if (t == null) {
+                throw new IllegalArgumentException(field + " is required");
+            }
+            if (t.tarifa() == null || t.tarifa().isBlank()) {
+                throw new IllegalArgumentException(field + ".tarifa is required");
+            }
+            requireNonNegative(t.fijoMesEur(), field + ".fijoMesEur");
+            requireNonNegative(t.variableEurKwh(), field + ".variableEurKwh");
+        }
+        for (int i = 0; i < request.factors().size(); i++) {
+            GasConversionFactorDto f = request.factors().get(i);
+            String field = "factors[" + i + "]";
+            if (f == null) {
+                throw new IllegalArgumentException(field + " is required");
+            }
+            if (f.zona() == null || f.zona().isBlank()) {
+                throw new IllegalArgumentException(field + ".zona is required");
+            }
+            requireNonNegative(f.coefConv(), field + ".coefConv");
+            requireNonNegative(f.pcsKwhM3(), field + ".pcsKwhM3");
+        }
+        if (request.ivaRate() != null) {
+            requireNonNegative(request.ivaRate(), "ivaRate");
+        }
+    }
+
+    private static void requireNonNegative(BigDecimal value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        if (value.signum() < 0) {
+            throw new IllegalArgumentException(field + " must not be negative, got: " + value);
+        }
+    }
+
+    private Map<String, Group> simulateChunk(List<SupplyPoint> chunk, YearMonth ym,
+                                             BillingReferenceSnapshot current, BillingReferenceSnapshot simulated) {
+        Map<String, BoundaryReadings> boundaries = boundaryReadingResolver.resolve(
+                chunk.stream().map(SupplyPoint::getCups).toList(), ym.atDay(1), ym.atEndOfMonth());
+        Map<String, Group> groups = new HashMap<>();
+        for (SupplyPoint sp : chunk) {
+            Group group = groups.computeIfAbsent(sp.getTarifa() + "|" + sp.getZona(),
+                    k -> new Group(sp.getTarifa(), sp.getZona()));
+            BoundaryReadings readings = boundaries.getOrDefault(sp.getCups(), BoundaryReadings.NONE);
+            Amounts now = amounts(sp, readings, ym, current);
+            Amounts then = amounts(sp, readings, ym, simulated);
+            group.add(now, then);
+        }
+        return groups;
+    }
+
+    /**
+     * @return the invoice amounts of the CUPS, or null if it cannot be billed with this reference data
+     */
+    private static Amounts amounts(SupplyPoint sp, BoundaryReadings readings, YearMonth ym,
+                                   BillingReferenceSnapshot reference) {
+        String period = ym.toString();
+        try {
+            BigDecimal m3 = InvoiceAmounts.consumption(sp.getCups(), period, readings);
+            InvoiceAmounts a = InvoiceAmounts.compute(m3, reference.tariff(sp.getTarifa()),
+                    reference.factor(sp.getZona()), reference.ivaRate(period), ym.atEndOfMonth());
+            return new Amounts(a.base(), a.impuestos(), a.total());
+        } catch (BillingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Running totals of one (tarifa, zona); confined to one worker until merged.
+     */
+    private static final class Group {
+
+        private final String tarifa;
+        private final String zona;
+        private int cups;
+        private int unbillableCurrent;
+        private int unbillableSimulated;
+        private Amounts current = Amounts.ZERO;
+        private Amounts simulated = Amounts.ZERO;
+
+        Group(String tarifa, String zona) {
+            this.tarifa = tarifa;
+            this.zona = zona;
+        }
+
+        String tarifa() {
+            return tarifa;
+        }
+
+        String zona() {
+            return zona;
+        }
+
+        void add(Amounts now, Amounts then) {
+            cups++;
+            if (now == null) unbillableCurrent++;
+            else current = current.plus(now);
+            if (then == null) unbillableSimulated++;
+            else simulated = simulated.plus(then);
+        }
+
+        Group plus(Group other) {
+            Group merged = new Group(tarifa, zona);
+            merged.cups = cups + other.cups;
+            merged.unbillableCurrent = unbillableCurrent + other.unbillableCurrent;
+            merged.unbillableSimulated = unbillableSimulated + other.unbillableSimulated;
+            merged.current = current.plus(other.current);
+            merged.simulated = simulated.plus(other.simulated);
+            return merged;
+        }
+
+        GroupDto toDto() {
+            return new GroupDto(tarifa, zona, cups, current, simulated, simulated.minus(current));
+        }
+    }
+}
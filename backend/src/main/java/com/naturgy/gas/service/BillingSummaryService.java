@@ -0,0 +1,231 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.entity.BillingSummary;
+import com.naturgy.gas.entity.Invoice;
+import com.naturgy.gas.entity.SupplyPoint;
+import com.naturgy.gas.repository.BillingSummaryRepository;
+import com.naturgy.gas.repository.InvoiceRepository;
+import com.naturgy.gas.repository.InvoiceTotals;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Billing summary per (period, zona, tarifa): invoice count, m³, kWh, base, impuestos and total.
+ * <p>
+ * Billing chunks collect the {@link Changes} of the invoices they write and replace, and
+ * {@link #apply(Changes)} adds them to the summary rows in the chunk's transaction with
+ * {@code col = col + ?} updates: the summary commits or rolls back with the invoices, and reading it costs
+ * one row per group whatever the number of invoices. Rows are updated in key order so concurrent chunks
+ * lock them in the same order.
+ * <p>
+ * The rows a chunk adds to are created by {@link #prepare(List, List)} before the chunk's transaction
+ * opens, each in a short transaction of its own: creating a row never waits for another chunk to commit,
+ * and a worker never needs a second connection while it holds its chunk's one. Rows are never inserted
+ * in the chunk's transaction, where two workers or nodes creating the same row would make one of the
+ * chunks fail on the unique key.
+ */
+@Service
+public class BillingSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingSummaryService.class);
+
+    private final BillingSummaryRepository summaryRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final TransactionTemplate requiresNewTemplate;
+
+    public BillingSummaryService(BillingSummaryRepository summaryRepository,
+                                 InvoiceRepository invoiceRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.requiresNewTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param period YYYY-MM
+     * @return the groups of the period with at least one invoice, by zona and tarifa
+     */
+    @Transactional(readOnly = true)
+    public List<BillingSummary> summary(String period) {
+        return summaryRepository.findByPeriod(period);
+    }
+
+    /**
+     * Creates the missing summary rows a chunk can add to: those of the given months and the zonas and
+     * tarifas of {@code chunk}, and those of the invoices it may replace (issued under a former zona or
+     * tarifa). Call it outside any transaction, before billing the chunk.
+     */
+    public void prepare(List<YearMonth> months, List<SupplyPoint> chunk) {
+        Set<Key> keys = new TreeSet<>(Key.ORDER);
+        for (YearMonth month : months) {
+            for (SupplyPoint sp : chunk) {
+                keys.add(Key.of(month.atDay(1), sp.getZona(), sp.getTarifa()));
+            }
+        }
+        List<String> cups = chunk.stream().map(SupplyPoint::getCups).toList();
+        LocalDate from = months.get(0).atDay(1);
+        LocalDate to = months.get(months.size() - 1).atDay(1);
+        for (int i = 0; i < cups.size(); i += BoundaryReadingResolver.CHUNK_SIZE) {
+            List<String> slice = cups.subList(i, Math.min(i + BoundaryReadingResolver.CHUNK_SIZE, cups.size()));
+            invoiceRepository.findGroups(slice, from, to)
+                    .forEach(g -> keys.add(Key.of(g.periodoInicio(), g.zona(), g.tarifa())));
+        }
+        summaryRepository.findByPeriodIn(months.stream().map(YearMonth::toString).toList())
+                .forEach(row -> keys.remove(new Key(row.getPeriod(), row.getZona(), row.getTarifa())));
+        keys.forEach(this::createRow);
+    }
+
+    /**
+     * Adds the collected changes to the summary in the current transaction.
+     *
+     * @throws IllegalStateException if a group has no row: {@link #prepare} did not run for the chunk, or
+     *                               the rows of the period were deleted (a rebuild) while it was billed
+     */
+    public void apply(Changes changes) {
+        for (Map.Entry<Key, Totals> e : changes.groups.entrySet()) {
+            Key key = e.getKey();
+            Totals t = e.getValue();
+            if (t.isZero()) continue;
+            if (add(key, t) == 0) {
+                throw new IllegalStateException("No billing summary row for period=" + key.period()
+                        + " zona=" + key.zona() + " tarifa=" + key.tarifa()
+                        + "; rebuild the summary of the period and bill it again");
+            }
+        }
+    }
+
+    /**
+     * Recomputes the summary of a period from its invoices, e.g. after upgrading a database whose invoices
+     * predate the summary. Run it while the period is not being billed.
+     *
+     * @return number of groups written
+     */
+    @Transactional
+    public int rebuild(YearMonth period) {
+        String label = period.toString();
+        summaryRepository.deleteByPeriod(label);
+        List<BillingSummary> rows = invoiceRepository.totalsOfPeriod(period.atDay(1)).stream()
+                .map(totals -> {
+                    Key key = Key.of(totals.periodoInicio(), totals.zona(), totals.tarifa());
+                    BillingSummary row = new BillingSummary(key.period(), key.zona(), key.tarifa());
+                    row.setInvoices(totals.invoices());
+                    row.setM3(orZero(totals.m3()));
+                    row.setKwh(orZero(totals.kwh()));
+                    row.setBase(orZero(totals.base()));
+                    row.setImpuestos(orZero(totals.impuestos()));
+                    row.setTotal(orZero(totals.total()));
+                    return row;
+                })
+                .toList();
+        summaryRepository.saveAll(rows);
+        log.info("Rebuilt billing summary of {}: {} groups", label, rows.size());
+        return rows.size();
+    }
+
+    private int add(Key key, Totals t) {
+        return summaryRepository.add(key.period(), key.zona(), key.tarifa(), t.invoices, t.m3, t.kwh, t.base,
+                t.impuestos, t.total);
+    }
+
+    private void createRow(Key key) {
+        try {
+            requiresNewTemplate.executeWithoutResult(status -> {
+                if (!summaryRepository.existsByPeriodAndZonaAndTarifa(key.period(), key.zona(), key.tarifa())) {
+                    summaryRepository.saveAndFlush(new BillingSummary(key.period(), key.zona(), key.tarifa()));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another chunk created the row first
+            log.debug("Billing summary row {} created concurrently", key);
+        }
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    /**
+     * Summary changes of one billing chunk, per group in key order. Not thread-safe.
+     */
+    public static final class Changes {
+
+        private final Map<Key, Totals> groups = new TreeMap<>(Key.ORDER);
+
+        public void add(Invoice invoice) {
+            totals(Key.of(invoice.getPeriodoInicio(), invoice.getZona(), invoice.getTarifa()))
+                    .add(1, invoice.getConsumoM3(), invoice.getKwh(), invoice.getBase(), invoice.getImpuestos(),
+                            invoice.getTotal());
+        }
+
+        public void subtract(InvoiceTotals replaced) {
+            totals(Key.of(replaced.periodoInicio(), replaced.zona(), replaced.tarifa()))
+                    .add(-replaced.invoices(), negate(replaced.m3()), negate(replaced.kwh()),
+                            negate(replaced.base()), negate(replaced.impuestos()), negate(replaced.total()));
+        }
+
+        private Totals totals(Key key) {
+            return groups.computeIfAbsent(key, k -> new Totals());
+        }
+
+        private static BigDecimal negate(BigDecimal value) {
+            return value == null ? null : value.negate();
+        }
+    }
+
+    /**
+     * Group of the summary. Invoices without zona or tarifa (issued before they were recorded) are
+     * grouped under an empty one.
+     */
+    private record Key(String period, String zona, String tarifa) {
+
+        static final Comparator<Key> ORDER = Comparator.comparing(Key::period)
+                .thenComparing(Key::zona).thenComparing(Key::tarifa);
+
+        static Key of(LocalDate periodoInicio, String zona, String tarifa) {
+            return new Key(YearMonth.from(periodoInicio).toString(), zona == null ? "" : zona,
+                    tarifa == null ? "" : tarifa);
+        }
+    }
+
+    private static final class Totals {
+
+        private long invoices;
+        private BigDecimal m3 = BigDecimal.ZERO;
+        private BigDecimal kwh = BigDecimal.ZERO;
+        private BigDecimal base = BigDecimal.ZERO;
+        private BigDecimal impuestos = BigDecimal.ZERO;
+        private BigDecimal total = BigDecimal.ZERO;
+
+        void add(long invoices, BigDecimal m3, BigDecimal kwh, BigDecimal base, BigDecimal impuestos,
+                 BigDecimal total) {
+            this.invoices += invoices;
+            this.m3 = this.m3.add(orZero(m3));
+            this.kwh = this.kwh.add(orZero(kwh));
+            this.base = this.base.add(orZero(base));
+            this.impuestos = this.impuestos.add(orZero(impuestos));
+            this.total = this.total.add(orZero(total));
+        }
+
+        boolean isZero() {
+            return invoices == 0 && m3.signum() == 0 && kwh.signum() == 0 && base.signum() == 0
+                    && impuestos.signum() == 0 && total.signum() == 0;
+        }
+    }
+}
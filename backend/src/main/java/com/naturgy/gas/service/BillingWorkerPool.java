@@ -0,0 +1,145 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.config.BillingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+
+/**
+ * Fixed-size thread pool used to bill chunks of CUPS in parallel.
+ * With {@code gas.billing.workers=1} no thread is created and tasks run on the caller's thread,
+ * so they join the caller's transaction exactly like the original sequential run.
+ * <p>
+ * A worker holds its chunk's connection while it reserves invoice numbers on a second one (in a
+ * transaction of its own), so the connection pool must be larger than the number of workers: with as
+ * many workers as connections every worker could wait for a second connection that never frees up.
+ */
+@Component
+public class BillingWorkerPool implements DisposableBean {
+
+    private final ExecutorService executor;
+    private final int workers;
+
+    public BillingWorkerPool(BillingProperties properties, DataSource dataSource) {
+        int poolSize = maximumPoolSize(dataSource);
+        if (poolSize > 0 && properties.workers() >= poolSize) {
+            throw new IllegalStateException("gas.billing.workers (" + properties.workers()
+                    + ") must be below the connection pool size (spring.datasource.hikari.maximum-pool-size="
+                    + poolSize + "): each worker needs a second connection to reserve invoice numbers");
+        }
+        this.workers = properties.workers();
+        if (properties.workers() > 1) {
+            AtomicInteger threadNo = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(properties.workers(), r -> {
+                Thread t = new Thread(r, "billing-worker-" + threadNo.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * @return the maximum size of the Hikari pool behind {@code dataSource}, or 0 if it is not one
+     */
+    private static int maximumPoolSize(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()
+                    : 0;
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+
+    public boolean isParallel() {
+        return executor != null;
+    }
+
+    /**
+     * Runs tasks as the iterator produces them and folds their results in submission order.
+     * At most twice the pool size is submitted and not yet collected, so a lazy iterator (e.g. one
+     * reading its chunks page by page) is never drained ahead of the workers. After the first task
+     * failure no further task is taken from the iterator; the failure is rethrown once the tasks
+     * already submitted have finished.
+     */
+    public <T> T invokeStreaming(Iterator<Callable<T>> tasks, T identity, BinaryOperator<T> combiner) {
+        T result = identity;
+        if (executor == null) {
+            while (tasks.hasNext()) {
+                result = combiner.apply(result, call(tasks.next()));
+            }
+            return result;
+        }
+
+        Deque<Future<T>> inFlight = new ArrayDeque<>();
+        RuntimeException failure = null;
+        try {
+            while (tasks.hasNext()) {
+                if (inFlight.size() >= 2 * workers) {
+                    result = combiner.apply(result, await(inFlight.removeFirst()));
+                }
+                inFlight.addLast(executor.submit(tasks.next()));
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        while (!inFlight.isEmpty()) {
+            if (Thread.currentThread().isInterrupted()) {
+                inFlight.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Billing run interrupted");
+            }
+            try {
+                T value = await(inFlight.removeFirst());
+                if (failure == null) result = combiner.apply(result, value);
+            } catch (RuntimeException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+        return result;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Billing run interrupted", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable t) {
+        return t instanceof RuntimeException re ? re : new IllegalStateException(t);
+    }
+}
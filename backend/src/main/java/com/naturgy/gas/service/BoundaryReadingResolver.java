@@ -0,0 +1,129 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.repository.GasReadingRepository;
+import com.naturgy.gas.repository.ReadingPoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves lectura_inicio / lectura_fin for a whole set of CUPS with one set-based query
+ * per chunk, instead of two single-row lookups per CUPS. Once the {@link ReadingIndex} is loaded,
+ * boundaries are looked up in memory instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class BoundaryReadingResolver {
+
+    /** Upper bound for the IN list of a single query. */
+    static final int CHUNK_SIZE = 1000;
+
+    private final GasReadingRepository gasReadingRepository;
+    private final ReadingIndex readingIndex;
+
+    /**
+     * @return boundary readings keyed by CUPS; CUPS without any qualifying reading are absent.
+     */
+    public Map<String, BoundaryReadings> resolve(List<String> cups, LocalDate periodStart, LocalDate periodEnd) {
+        Map<String, BoundaryReadings> result = new HashMap<>(cups.size() * 2);
+        if (readingIndex.isReady()) {
+            for (String c : cups) {
+                ReadingPoint fin = readingIndex.lastOnOrBefore(c, periodEnd);
+                if (fin != null) {
+                    result.put(c, new BoundaryReadings(readingIndex.lastBefore(c, periodStart), fin));
+                }
+            }
+            return result;
+        }
+        for (int from = 0; from < cups.size(); from += CHUNK_SIZE) {
+            List<String> chunk = cups.subList(from, Math.min(from + CHUNK_SIZE, cups.size()));
+            for (ReadingPoint r : gasReadingRepository.findBoundaryReadings(chunk, periodStart, periodEnd)) {
+                result.merge(r.cups(), classify(r, periodStart), BoundaryReadingResolver::combine);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the boundary readings of consecutive months with one window query per chunk: the readings
+     * of each CUPS are read once, in date order, and every month's inicio/fin falls out of a single
+     * sliding pass.
+     *
+     * @param months consecutive months in ascending order
+     * @return per month, boundary readings keyed by CUPS; CUPS without any qualifying reading are absent.
+     */
+    public Map<YearMonth, Map<String, BoundaryReadings>> resolve(List<String> cups, List<YearMonth> months) {
+        Map<YearMonth, Map<String, BoundaryReadings>> result = new HashMap<>(months.size() * 2);
+        if (months.size() == 1 || readingIndex.isReady()) {
+            for (YearMonth ym : months) {
+                result.put(ym, resolve(cups, ym.atDay(1), ym.atEndOfMonth()));
+            }
+            return result;
+        }
+        for (YearMonth ym : months) {
+            result.put(ym, new HashMap<>(cups.size() * 2));
+        }
+        if (months.isEmpty()) return result;
+
+        LocalDate fromStart = months.get(0).atDay(1);
+        LocalDate toEnd = months.get(months.size() - 1).atEndOfMonth();
+        for (int from = 0; from < cups.size(); from += CHUNK_SIZE) {
+            List<String> chunk = cups.subList(from, Math.min(from + CHUNK_SIZE, cups.size()));
+            List<ReadingPoint> window = gasReadingRepository.findReadingWindow(chunk, fromStart, toEnd);
+            int groupStart = 0;
+            for (int i = 1; i <= window.size(); i++) {
+                if (i == window.size() || !window.get(i).cups().equals(window.get(groupStart).cups())) {
+                    slide(window.subList(groupStart, i), months, result);
+                    groupStart = i;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Walks the date-ordered readings of one CUPS across the months: the last reading seen before a
+     * month starts is its inicio, the last one seen by the month's end is its fin.
+     */
+    private static void slide(List<ReadingPoint> readings, List<YearMonth> months,
+                              Map<YearMonth, Map<String, BoundaryReadings>> result) {
+        String cups = readings.get(0).cups();
+        ReadingPoint last = null;
+        int i = 0;
+        for (YearMonth ym : months) {
+            LocalDate start = ym.atDay(1);
+            LocalDate end = ym.atEndOfMonth();
+            while (i < readings.size() && readings.get(i).fecha().isBefore(start)) {
+                last = readings.get(i++);
+            }
+            ReadingPoint inicio = last;
+            while (i < readings.size() && !readings.get(i).fecha().isAfter(end)) {
+                last = readings.get(i++);
+            }
+            if (last != null) {
+                result.get(ym).put(cups, new BoundaryReadings(inicio, last));
+            }
+        }
+    }
+
+    private static BoundaryReadings classify(ReadingPoint r, LocalDate periodStart) {
+        // The query only returns boundary candidates, so the latest row overall is the fin reading and
+        // the latest row before period_start is the inicio reading (possibly the same row).
+        return new BoundaryReadings(r.fecha().isBefore(periodStart) ? r : null, r);
+    }
+
+    private static BoundaryReadings combine(BoundaryReadings a, BoundaryReadings b) {
+        return new BoundaryReadings(latest(a.inicio(), b.inicio()), latest(a.fin(), b.fin()));
+    }
+
+    private static ReadingPoint latest(ReadingPoint a, ReadingPoint b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return b.fecha().isAfter(a.fecha()) ? b : a;
+    }
+}
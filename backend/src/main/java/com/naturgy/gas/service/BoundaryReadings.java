@@ -0,0 +1,15 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.repository.ReadingPoint;
+
+/**
+ * Boundary readings of one CUPS for a billing period.
+ * Either side is {@code null} when no qualifying reading exists.
+ *
+ * @param inicio last reading with fecha &lt; period_start
+ * @param fin    last reading with fecha &lt;= period_end
+ */
+public record BoundaryReadings(ReadingPoint inicio, ReadingPoint fin) {
+
+    public static final BoundaryReadings NONE = new BoundaryReadings(null, null);
+}
@@ -0,0 +1,106 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.entity.BillingError;
+import com.naturgy.gas.service.BillingService.BillingException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Amounts of one monthly gas invoice, following gas_logic-spec.txt: kWh at scale 3, money at scale 2,
+ * HALF_UP. Shared by real billing and simulations so both compute exactly the same figures.
+ */
+public record InvoiceAmounts(
+        BigDecimal kwh,
+        BigDecimal costeFijo,
+        BigDecimal costeVariable,
+        BigDecimal base,
+        BigDecimal impuestos,
+        BigDecimal total
+) {
+
+    private static final BigDecimal ALQUILER_EUR = BigDecimal.ZERO; // Workshop default: 0.00
+
+    /**
+     * Validates the boundary readings and returns the m³ consumed between them.
+     *
+     * @throws BillingException if a boundary reading is missing or the consumption is negative
+     */
+    public static BigDecimal consumption(String cups, String period, BoundaryReadings readings) {
+        if (readings.inicio() == null) {
+            throw new BillingException(BillingError.Code.MISSING_INICIO,
+                    "Missing lectura_inicio for CUPS " + cups + " period " + period);
+        }
+        if (readings.fin() == null) {
+            throw new BillingException(BillingError.Code.MISSING_FIN,
+                    "Missing lectura_fin for CUPS " + cups + " period " + period);
+        }
+
+        BigDecimal lecturaInicio = readings.inicio().lecturaM3();
+        BigDecimal lecturaFin = readings.fin().lecturaM3();
+
+        BigDecimal m3Consumidos = lecturaFin.subtract(lecturaInicio);
+        if (m3Consumidos.compareTo(BigDecimal.ZERO) < 0) {
+            throw new BillingException(BillingError.Code.NEGATIVE_CONSUMPTION,
+                    "Negative consumption for CUPS " + cups +
+                    ": lectura_fin=" + lecturaFin + " < lectura_inicio=" + lecturaInicio);
+        }
+        return m3Consumidos;
+    }
+
+    /**
+     * Computes the amounts with the fixed-point {@link BillingCalculator}, or with
+     * {@link #computeReference} when a value does not fit in its {@code long} arithmetic.
+     */
+    public static InvoiceAmounts compute(BigDecimal m3Consumidos, BillingReferenceSnapshot.Tariff tariff,
+                                         BillingReferenceSnapshot.Factor factor, BigDecimal ivaRate,
+                                         LocalDate periodEnd) {
+        BillingCalculator.Fixed m3 = BillingCalculator.Fixed.of(m3Consumidos);
+        BillingCalculator.Fixed iva = BillingCalculator.Fixed.of(ivaRate);
+        if (m3 != null && iva != null && factor.kwhPerM3Fixed() != null
+                && tariff.fijoMes() != null && tariff.variable() != null) {
+            int daysInPeriod = periodEnd.getDayOfMonth();
+            try {
+                return BillingCalculator.compute(m3, factor.kwhPerM3Fixed(), tariff.fijoMes(), tariff.variable(),
+                        iva, daysInPeriod, daysInPeriod).toInvoiceAmounts();
+            } catch (ArithmeticException overflow) {
+                // fall through to the BigDecimal path
+            }
+        }
+        return computeReference(m3Consumidos, tariff, factor, ivaRate, periodEnd);
+    }
+
+    /**
+     * Reference {@link BigDecimal} implementation of the formulas; {@link BillingCalculator} must match it
+     * bit for bit.
+     */
+    public static InvoiceAmounts computeReference(BigDecimal m3Consumidos, BillingReferenceSnapshot.Tariff tariff,
+                                                  BillingReferenceSnapshot.Factor factor, BigDecimal ivaRate,
+                                                  LocalDate periodEnd) {
+        BigDecimal kwh = m3Consumidos
+                .multiply(factor.kwhPerM3())
+                .setScale(3, RoundingMode.HALF_UP);
+
+        int daysInPeriod = periodEnd.getDayOfMonth();
+        int daysInMonth = daysInPeriod; // monthly billing: same value
+        BigDecimal costeFijo = tariff.fijoMesEur()
+                .multiply(BigDecimal.valueOf(daysInPeriod))
+                .divide(BigDecimal.valueOf(daysInMonth), 2, RoundingMode.HALF_UP);
+
+        BigDecimal costeVariable = kwh
+                .multiply(tariff.variableEurKwh())
+                .setScale(2, RoundingMode.HALF_UP);
+
+        BigDecimal base = costeFijo.add(costeVariable).add(ALQUILER_EUR)
+                .setScale(2, RoundingMode.HALF_UP);
+
+        BigDecimal impuestos = base.multiply(ivaRate)
+                .setScale(2, RoundingMode.HALF_UP);
+
+        BigDecimal total = base.add(impuestos)
+                .setScale(2, RoundingMode.HALF_UP);
+
+        return new InvoiceAmounts(kwh, costeFijo, costeVariable, base, impuestos, total);
+    }
+}
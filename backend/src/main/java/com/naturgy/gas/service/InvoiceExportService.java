@@ -0,0 +1,246 @@
+package com.naturgy.gas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.naturgy.gas.dto.InvoiceDto;
+import com.naturgy.gas.dto.InvoiceLineDto;
+import com.opencsv.CSVWriter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Export of the invoices of a period with their lines, for downstream accounting.
+ * <p>
+ * Headers and lines come from one forward-only JDBC query ordered by invoice number, read with a fetch
+ * size and written to the output as they arrive: memory holds one invoice at a time, whatever the size
+ * of the period.
+ * <ul>
+ *   <li>CSV: one row per line, preceded by the columns of its invoice</li>
+ *   <li>NDJSON: one {@link InvoiceDto} per invoice, lines included</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+public class InvoiceExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceExportService.class);
+
+    private static final int FETCH_SIZE = 1000;
+    /** Invoices written between two flushes of the output. */
+    private static final int FLUSH_EVERY = 1000;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final String SELECT =
+            "SELECT i.numero_factura, i.cups, i.periodo_inicio, i.periodo_fin, i.base, i.impuestos, i.total, "
+            + "i.fecha_emision, l.id, l.tipo_linea, l.descripcion, l.cantidad, l.precio_unitario, l.importe "
+            + "FROM invoices i LEFT JOIN invoice_lines l ON l.numero_factura = i.numero_factura "
+            + "WHERE i.periodo_inicio = ? ORDER BY i.numero_factura, l.id";
+
+    static final String[] CSV_HEADER = {
+            "numero_factura", "cups", "periodo_inicio", "periodo_fin", "fecha_emision", "base", "impuestos",
+            "total", "tipo_linea", "descripcion", "cantidad", "precio_unitario", "importe"};
+
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * @throws IllegalArgumentException for anything other than csv or ndjson
+         */
+        public static Format parse(String format) {
+            return switch (format) {
+                case "csv" -> CSV;
+                case "ndjson" -> NDJSON;
+                default -> throw new IllegalArgumentException("format must be csv or ndjson; got: " + format);
+            };
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes the invoices of {@code period} to {@code out}, which is flushed but not closed. The read-only
+     * transaction lets drivers that need one (PostgreSQL) use a server-side cursor.
+     *
+     * @return number of invoices written
+     */
+    @Transactional(readOnly = true)
+    public long export(YearMonth period, Format format, OutputStream out) {
+        long startedAt = System.nanoTime();
+        InvoiceWriter writer = format == Format.CSV ? new CsvInvoiceWriter(out) : new NdjsonInvoiceWriter(out);
+        InvoiceCollector collector = new InvoiceCollector(writer);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setObject(1, period.atDay(1));
+            return ps;
+        }, collector::processRow);
+        collector.finish();
+        try {
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Exported {} invoices of {} as {} in {} ms", collector.invoices, period, format,
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return collector.invoices;
+    }
+
+    /**
+     * Groups the joined rows, ordered by invoice number, into one invoice with its lines at a time.
+     */
+    private static final class InvoiceCollector {
+
+        private final InvoiceWriter writer;
+        private InvoiceDto header;
+        private final List<InvoiceLineDto> lines = new ArrayList<>();
+        private long invoices;
+
+        InvoiceCollector(InvoiceWriter writer) {
+            this.writer = writer;
+        }
+
+        void processRow(ResultSet rs) throws SQLException {
+            String numero = rs.getString(1);
+            if (header == null || !header.numeroFactura().equals(numero)) {
+                finish();
+                header = new InvoiceDto(numero, rs.getString(2), rs.getObject(3, LocalDate.class),
+                        rs.getObject(4, LocalDate.class), rs.getBigDecimal(5), rs.getBigDecimal(6),
+                        rs.getBigDecimal(7), rs.getObject(8, LocalDate.class), List.of());
+            }
+            long lineId = rs.getLong(9);
+            if (!rs.wasNull()) {
+                lines.add(new InvoiceLineDto(lineId, rs.getString(10), rs.getString(11), rs.getBigDecimal(12),
+                        rs.getBigDecimal(13), rs.getBigDecimal(14)));
+            }
+        }
+
+        void finish() {
+            if (header == null) return;
+            try {
+                writer.write(header, lines);
+                if (++invoices % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            header = null;
+            lines.clear();
+        }
+    }
+
+    private interface InvoiceWriter {
+
+        void write(InvoiceDto header, List<InvoiceLineDto> lines) throws IOException;
+
+        void flush() throws IOException;
+
+        /**
+         * Writes whatever ends the document and flushes; the output stays open.
+         */
+        void finish() throws IOException;
+    }
+
+    private static final class CsvInvoiceWriter implements InvoiceWriter {
+
+        private final BufferedWriter out;
+        private final CSVWriter csv;
+
+        CsvInvoiceWriter(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.csv = new CSVWriter(this.out);
+            csv.writeNext(CSV_HEADER, false);
+        }
+
+        @Override
+        public void write(InvoiceDto h, List<InvoiceLineDto> lines) {
+            String[] row = {h.numeroFactura(), h.cups(), h.periodoInicio().toString(), h.periodoFin().toString(),
+                    h.fechaEmision().toString(), plain(h.base()), plain(h.impuestos()), plain(h.total()),
+                    "", "", "", "", ""};
+            if (lines.isEmpty()) {
+                csv.writeNext(row, false);
+            }
+            for (InvoiceLineDto line : lines) {
+                row[8] = line.tipoLinea();
+                row[9] = line.descripcion();
+                row[10] = plain(line.cantidad());
+                row[11] = plain(line.precioUnitario());
+                row[12] = plain(line.importe());
+                csv.writeNext(row, false);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            csv.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            flush();
+        }
+
+        private static String plain(BigDecimal value) {
+            return value.toPlainString();
+        }
+    }
+
+    private final class NdjsonInvoiceWriter implements InvoiceWriter {
+
+        private final OutputStream out;
+        private final SequenceWriter values;
+        private boolean empty = true;
+
+        NdjsonInvoiceWriter(OutputStream out) {
+            this.out = out;
+            try {
+                // One value per line: Jackson separates root values with a space unless told otherwise
+                this.values = objectMapper.writer().withRootValueSeparator("\n").writeValues(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void write(InvoiceDto h, List<InvoiceLineDto> lines) throws IOException {
+            values.write(new InvoiceDto(h.numeroFactura(), h.cups(), h.periodoInicio(), h.periodoFin(),
+                    h.base(), h.impuestos(), h.total(), h.fechaEmision(), lines));
+            empty = false;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            values.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            values.flush();
+            if (!empty) {
+                out.write('\n');
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.repository.ReadingPoint;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 of everything an invoice is computed from: both boundary readings (id, date, m³), the tariff
+ * version, the conversion factor of the zona and the IVA rate. Two computations with the same fingerprint
+ * produce the same amounts, which is what delta billing relies on to skip unchanged CUPS.
+ * <p>
+ * Decimals are normalised, so a value read back from the database with a different scale still
+ * matches. {@link #VERSION} must be bumped whenever the calculation itself changes.
+ */
+public final class InvoiceFingerprint {
+
+    static final String VERSION = "1";
+
+    private InvoiceFingerprint() {
+    }
+
+    public static String of(BoundaryReadings readings, BillingReferenceSnapshot.Tariff tariff,
+                            BillingReferenceSnapshot.Factor factor, BigDecimal ivaRate) {
+        StringBuilder sb = new StringBuilder(160).append('v').append(VERSION);
+        append(sb, readings.inicio());
+        append(sb, readings.fin());
+        sb.append('|').append(tariff.tarifa())
+                .append(':').append(tariff.vigenciaDesde())
+                .append(':').append(plain(tariff.fijoMesEur()))
+                .append(':').append(plain(tariff.variableEurKwh()));
+        sb.append('|').append(factor.zona())
+                .append(':').append(plain(factor.coefConv()))
+                .append(':').append(plain(factor.pcsKwhM3()));
+        sb.append('|').append(plain(ivaRate));
+        return sha256(sb.toString());
+    }
+
+    private static void append(StringBuilder sb, ReadingPoint r) {
+        sb.append('|').append(r.id()).append(':').append(r.fecha()).append(':').append(plain(r.lecturaM3()));
+    }
+
+    private static String plain(BigDecimal value) {
+        return value.stripTrailingZeros().toPlainString();
+    }
+
+    private static String sha256(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(input.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
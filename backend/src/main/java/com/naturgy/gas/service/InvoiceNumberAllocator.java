@@ -0,0 +1,121 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.config.BillingProperties;
+import com.naturgy.gas.entity.InvoiceSequence;
+import com.naturgy.gas.repository.InvoiceRepository;
+import com.naturgy.gas.repository.InvoiceSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Hands out invoice sequence numbers per billing month ({@code GAS-{YYYYMM}-{CUPS}-{seq}}).
+ * <p>
+ * Numbers are reserved from the {@link InvoiceSequence} row of the month in blocks of
+ * {@code gas.billing.invoice-number-block}, under a row lock and in a transaction of their own, so the
+ * reservation never waits for a billing chunk to commit. The workers of this node then take numbers
+ * from the block in memory. Numbers are unique across threads and nodes; numbers left in a block when
+ * the JVM stops are never used, so sequences may have gaps.
+ * <p>
+ * A block belongs to the sequence row it was reserved from: if the row is deleted (and created again,
+ * counting from the month's invoices), the numbers left in the block may be reserved again, so
+ * {@link #discardStaleBlocks()} drops it before the next billing run hands them out.
+ */
+@Component
+public class InvoiceNumberAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceNumberAllocator.class);
+
+    private final InvoiceSequenceRepository sequenceRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final TransactionTemplate requiresNewTemplate;
+    private final int blockSize;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public InvoiceNumberAllocator(InvoiceSequenceRepository sequenceRepository,
+                                  InvoiceRepository invoiceRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  BillingProperties properties) {
+        this.sequenceRepository = sequenceRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.requiresNewTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = properties.invoiceNumberBlock();
+    }
+
+    /**
+     * @param yyyyMM billing month as it appears in the invoice number
+     * @return the next unused sequence number of the month
+     */
+    public long next(String yyyyMM) {
+        Block block = blocks.computeIfAbsent(yyyyMM, k -> new Block());
+        synchronized (block) {
+            if (block.next > block.last) {
+                InvoiceSequence reserved = reserve(yyyyMM);
+                block.last = reserved.getLastValue();
+                block.next = block.last - blockSize + 1;
+                block.epoch = reserved.getEpoch();
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Drops the numbers left in blocks whose sequence row no longer exists or was created again since they
+     * were reserved; their months reserve a new block on the next number. Called at the start of each
+     * billing run.
+     */
+    public void discardStaleBlocks() {
+        if (blocks.isEmpty()) return;
+        Map<String, Long> epochs = sequenceRepository.findAllById(Set.copyOf(blocks.keySet())).stream()
+                .collect(Collectors.toMap(InvoiceSequence::getPeriod, InvoiceSequence::getEpoch));
+        blocks.forEach((yyyyMM, block) -> {
+            synchronized (block) {
+                Long epoch = epochs.get(yyyyMM);
+                if (block.next <= block.last && (epoch == null || epoch != block.epoch)) {
+                    log.info("Invoice sequence {} was reset, discarding numbers {}-{} of this node",
+                            yyyyMM, block.next, block.last);
+                    block.next = block.last + 1;
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the sequence row after reserving a new block, ending at its {@code lastValue}
+     */
+    private InvoiceSequence reserve(String yyyyMM) {
+        try {
+            return requiresNewTemplate.execute(status -> reserveLocked(yyyyMM));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the month's row first: lock it and reserve again
+            log.debug("Invoice sequence {} created concurrently, retrying", yyyyMM);
+            return requiresNewTemplate.execute(status -> reserveLocked(yyyyMM));
+        }
+    }
+
+    private InvoiceSequence reserveLocked(String yyyyMM) {
+        InvoiceSequence sequence = sequenceRepository.findForUpdate(yyyyMM)
+                .orElseGet(() -> sequenceRepository.saveAndFlush(new InvoiceSequence(yyyyMM,
+                        // Months billed before the sequence existed were numbered by counting their invoices
+                        invoiceRepository.countByNumeroFacturaStartingWith("GAS-" + yyyyMM + "-"))));
+        sequence.setLastValue(sequence.getLastValue() + blockSize);
+        return sequence;
+    }
+
+    private static final class Block {
+        private long next = 1;
+        private long last = 0;
+        private long epoch;
+    }
+}
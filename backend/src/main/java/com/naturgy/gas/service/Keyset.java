@@ -0,0 +1,93 @@
+package com.naturgy.gas.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (seek) ordering of a listing: the columns rows are sorted by, unique together, and the cursor
+ * token that resumes the listing after a given row. The next page is read with
+ * {@code WHERE (c1, c2) > (?, ?) ORDER BY c1, c2} (or {@code <} and DESC), which an index on the columns
+ * answers without skipping rows, however deep the page.
+ * <p>
+ * Cursors are opaque to clients: the sort and the last row's key values, base64url-encoded.
+ *
+ * @param name       sort name as given in the request, checked against the cursor
+ * @param columns    sort columns, the last one unique
+ * @param descending whether every column is sorted descending
+ */
+public record Keyset<T>(String name, List<Column<T>> columns, boolean descending) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * @param type  Long, LocalDate, BigDecimal or String
+     * @param value the column value of a listed row
+     */
+    public record Column<T>(String name, Class<?> type, Function<T, Object> value) {}
+
+    /**
+     * @return SQL condition (with one parameter per column) for the rows after the cursor
+     */
+    public String after() {
+        List<String> names = columns.stream().map(Column::name).toList();
+        return "(" + String.join(", ", names) + ") " + (descending ? "<" : ">") + " ("
+                + String.join(", ", names.stream().map(n -> "?").toList()) + ")";
+    }
+
+    public String orderBy() {
+        String direction = descending ? " DESC" : " ASC";
+        return String.join(", ", columns.stream().map(c -> c.name() + direction).toList());
+    }
+
+    /**
+     * @return the cursor resuming the listing after {@code last}
+     */
+    public String cursor(T last) {
+        StringBuilder sb = new StringBuilder(label());
+        for (Column<T> column : columns) {
+            sb.append(SEPARATOR).append(column.value().apply(last));
+        }
+        return ENCODER.encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the key values encoded in the cursor, typed for the columns
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort
+     */
+    public Object[] decode(String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(String.valueOf(SEPARATOR), -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (parts.length != columns.size() + 1 || !parts[0].equals(label())) {
+            throw new IllegalArgumentException("Cursor does not belong to sort " + label() + ": " + cursor);
+        }
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            String value = parts[i + 1];
+            Class<?> type = columns.get(i).type();
+            try {
+                values[i] = type == Long.class ? Long.valueOf(value)
+                        : type == LocalDate.class ? LocalDate.parse(value)
+                        : type == BigDecimal.class ? new BigDecimal(value)
+                        : value;
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+        return values;
+    }
+
+    private String label() {
+        return name + (descending ? ":desc" : ":asc");
+    }
+}
@@ -0,0 +1,288 @@
+package com.naturgy.gas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.naturgy.gas.dto.CursorPageDto;
+import com.naturgy.gas.dto.GasReadingDto;
+import com.naturgy.gas.dto.InvoiceDto;
+import com.naturgy.gas.dto.SupplyPointDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Listings of the readings, supply points and invoices tables that do not load whole tables: keyset pages
+ * ({@link Keyset}) and NDJSON streams read through a JDBC cursor. Rows are mapped straight to DTOs,
+ * without entities or a persistence context, and the WHERE clause only holds the filters actually given,
+ * so the database can use the index of each one.
+ */
+@Service
+@RequiredArgsConstructor
+public class ListingService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+    /** Rows fetched per round trip by the streaming cursor, and written between two flushes. */
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String READINGS = "SELECT id, cups, fecha, lectura_m3, tipo FROM gas_readings";
+    private static final String SUPPLY_POINTS = "SELECT cups, zona, tarifa, estado FROM supply_points";
+    private static final String INVOICES = "SELECT numero_factura, cups, periodo_inicio, periodo_fin, base, "
+            + "impuestos, total, fecha_emision FROM invoices";
+
+    private static final RowMapper<GasReadingDto> READING = (rs, n) -> new GasReadingDto(
+            rs.getLong(1), rs.getString(2), rs.getObject(3, LocalDate.class), rs.getBigDecimal(4), rs.getString(5));
+    private static final RowMapper<SupplyPointDto> SUPPLY_POINT = (rs, n) -> new SupplyPointDto(
+            rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4));
+    private static final RowMapper<InvoiceDto> INVOICE_HEADER = (rs, n) -> new InvoiceDto(
+            rs.getString(1), rs.getString(2), rs.getObject(3, LocalDate.class), rs.getObject(4, LocalDate.class),
+            rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getBigDecimal(7), rs.getObject(8, LocalDate.class),
+            List.of());
+
+    /**
+     * Invoice search filters; null ones are left out of the query.
+     */
+    public record InvoiceFilter(String cups, LocalDate periodoInicio, LocalDate fechaEmision) {}
+
+    /**
+     * Validator of an invoice listing: billing only adds invoices or re-bills them with a higher version,
+     * so the count, the sum of versions and the latest modification change whenever the listing does.
+     *
+     * @param lastModified null if no listed invoice records it
+     */
+    public record InvoicesVersion(long count, long versions, LocalDateTime lastModified) {}
+
+    /**
+     * A SQL statement with its positional arguments.
+     */
+    public record Query(String sql, List<Object> args) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param sort  {@code id}, {@code cups} (then fecha) or {@code fecha} (then id)
+     * @param order {@code asc} or {@code desc}
+     */
+    public static Keyset<GasReadingDto> readingSort(String sort, String order) {
+        boolean descending = descending(order);
+        return switch (sort) {
+            case "id" -> new Keyset<>(sort, List.of(
+                    column("id", Long.class, GasReadingDto::id)), descending);
+            case "cups" -> new Keyset<>(sort, List.of(
+                    column("cups", String.class, GasReadingDto::cups),
+                    column("fecha", LocalDate.class, GasReadingDto::fecha)), descending);
+            case "fecha" -> new Keyset<>(sort, List.of(
+                    column("fecha", LocalDate.class, GasReadingDto::fecha),
+                    column("id", Long.class, GasReadingDto::id)), descending);
+            default -> throw new IllegalArgumentException("sort must be one of id, cups, fecha; got: " + sort);
+        };
+    }
+
+    /**
+     * @param sort  {@code cups}, {@code zona} (then cups) or {@code tarifa} (then cups)
+     * @param order {@code asc} or {@code desc}
+     */
+    public static Keyset<SupplyPointDto> supplyPointSort(String sort, String order) {
+        boolean descending = descending(order);
+        Keyset.Column<SupplyPointDto> cups = column("cups", String.class, SupplyPointDto::cups);
+        return switch (sort) {
+            case "cups" -> new Keyset<>(sort, List.of(cups), descending);
+            case "zona" -> new Keyset<>(sort, List.of(
+                    column("zona", String.class, SupplyPointDto::zona), cups), descending);
+            case "tarifa" -> new Keyset<>(sort, List.of(
+                    column("tarifa", String.class, SupplyPointDto::tarifa), cups), descending);
+            default -> throw new IllegalArgumentException("sort must be one of cups, zona, tarifa; got: " + sort);
+        };
+    }
+
+    /**
+     * @param sort  {@code numero}, {@code periodo} (periodo_inicio, then numero), {@code emision}
+     *              (fecha_emision, then numero) or {@code total} (then numero)
+     * @param order {@code asc} or {@code desc}
+     */
+    public static Keyset<InvoiceDto> invoiceSort(String sort, String order) {
+        boolean descending = descending(order);
+        Keyset.Column<InvoiceDto> numero = column("numero_factura", String.class, InvoiceDto::numeroFactura);
+        return switch (sort) {
+            case "numero" -> new Keyset<>(sort, List.of(numero), descending);
+            case "periodo" -> new Keyset<>(sort, List.of(
+                    column("periodo_inicio", LocalDate.class, InvoiceDto::periodoInicio), numero), descending);
+            case "emision" -> new Keyset<>(sort, List.of(
+                    column("fecha_emision", LocalDate.class, InvoiceDto::fechaEmision), numero), descending);
+            case "total" -> new Keyset<>(sort, List.of(
+                    column("total", BigDecimal.class, InvoiceDto::total), numero), descending);
+            default -> throw new IllegalArgumentException(
+                    "sort must be one of numero, periodo, emision, total; got: " + sort);
+        };
+    }
+
+    /**
+     * Invoice headers (no lines) matching the filter, in keyset pages.
+     */
+    public CursorPageDto<InvoiceDto> invoices(InvoiceFilter filter, Keyset<InvoiceDto> keyset, String cursor,
+                                              int limit) {
+        return page(invoiceQuery(filter, keyset, cursor, limit), INVOICE_HEADER, keyset, limit);
+    }
+
+    /**
+     * Every invoice header matching the filter, in keyset order.
+     */
+    public List<InvoiceDto> invoices(InvoiceFilter filter, Keyset<InvoiceDto> keyset) {
+        Query query = invoiceQuery(filter, keyset, null, null);
+        return jdbcTemplate.query(query.sql(), INVOICE_HEADER, query.args().toArray());
+    }
+
+    /**
+     * The invoice search statement: one predicate per given filter, then the keyset condition.
+     *
+     * @param limit null for no limit
+     */
+    public static Query invoiceQuery(InvoiceFilter filter, Keyset<InvoiceDto> keyset, String cursor,
+                                     Integer limit) {
+        List<String> predicates = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        invoicePredicates(filter, predicates, args);
+        return query(INVOICES, predicates, args, keyset, cursor, limit);
+    }
+
+    /**
+     * Version of the invoices matching the filter, from one aggregate query: answers conditional requests
+     * without mapping or serializing the listing.
+     */
+    public InvoicesVersion invoicesVersion(InvoiceFilter filter) {
+        List<String> predicates = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        invoicePredicates(filter, predicates, args);
+        String sql = "SELECT COUNT(*), COALESCE(SUM(version), 0), MAX(last_modified) FROM invoices"
+                + (predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates));
+        return jdbcTemplate.queryForObject(sql, (rs, n) -> new InvoicesVersion(rs.getLong(1), rs.getLong(2),
+                rs.getObject(3, LocalDateTime.class)), args.toArray());
+    }
+
+    private static void invoicePredicates(InvoiceFilter filter, List<String> predicates, List<Object> args) {
+        if (filter.cups() != null && !filter.cups().isBlank()) {
+            predicates.add("cups = ?");
+            args.add(filter.cups());
+        }
+        if (filter.periodoInicio() != null) {
+            predicates.add("periodo_inicio = ?");
+            args.add(filter.periodoInicio());
+        }
+        if (filter.fechaEmision() != null) {
+            predicates.add("fecha_emision = ?");
+            args.add(filter.fechaEmision());
+        }
+    }
+
+    public CursorPageDto<GasReadingDto> readings(Keyset<GasReadingDto> keyset, String cursor, int limit) {
+        return page(query(READINGS, List.of(), List.of(), keyset, cursor, limit), READING, keyset, limit);
+    }
+
+    public CursorPageDto<SupplyPointDto> supplyPoints(Keyset<SupplyPointDto> keyset, String cursor, int limit) {
+        return page(query(SUPPLY_POINTS, List.of(), List.of(), keyset, cursor, limit), SUPPLY_POINT, keyset, limit);
+    }
+
+    /**
+     * Writes every reading to {@code out} as NDJSON, in keyset order. The read-only transaction lets
+     * drivers that need one (PostgreSQL) use a server-side cursor.
+     */
+    @Transactional(readOnly = true)
+    public long streamReadings(Keyset<GasReadingDto> keyset, OutputStream out) {
+        return stream(READINGS, READING, keyset, out);
+    }
+
+    @Transactional(readOnly = true)
+    public long streamSupplyPoints(Keyset<SupplyPointDto> keyset, OutputStream out) {
+        return stream(SUPPLY_POINTS, SUPPLY_POINT, keyset, out);
+    }
+
+    private <T> CursorPageDto<T> page(Query query, RowMapper<T> mapper, Keyset<T> keyset, int limit) {
+        List<T> items = jdbcTemplate.query(query.sql(), mapper, query.args().toArray());
+        String nextCursor = items.size() < limit ? null : keyset.cursor(items.get(items.size() - 1));
+        return new CursorPageDto<>(items, nextCursor);
+    }
+
+    /**
+     * {@code select} restricted by the predicates (ANDed) and, with a cursor, to the rows after it.
+     */
+    private static Query query(String select, List<String> predicates, List<Object> predicateArgs,
+                               Keyset<?> keyset, String cursor, Integer limit) {
+        if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<String> where = new ArrayList<>(predicates);
+        List<Object> args = new ArrayList<>(predicateArgs);
+        if (cursor != null && !cursor.isBlank()) {
+            where.add(keyset.after());
+            args.addAll(List.of(keyset.decode(cursor)));
+        }
+        StringBuilder sql = new StringBuilder(select);
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+        sql.append(" ORDER BY ").append(keyset.orderBy());
+        if (limit != null) {
+            sql.append(" LIMIT ?");
+            args.add(limit);
+        }
+        return new Query(sql.toString(), args);
+    }
+
+    private <T> long stream(String select, RowMapper<T> mapper, Keyset<T> keyset, OutputStream out) {
+        String sql = select + " ORDER BY " + keyset.orderBy();
+        try {
+            // One value per line: Jackson separates root values with a space unless told otherwise
+            SequenceWriter lines = objectMapper.writer().withRootValueSeparator("\n").writeValues(out);
+            long[] rows = {0};
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(FETCH_SIZE);
+                return ps;
+            }, rs -> {
+                try {
+                    lines.write(mapper.mapRow(rs, (int) rows[0]));
+                    if (++rows[0] % FETCH_SIZE == 0) {
+                        lines.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            lines.flush();
+            if (rows[0] > 0) {
+                out.write('\n');
+            }
+            return rows[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean descending(String order) {
+        return switch (order.toLowerCase(Locale.ROOT)) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new IllegalArgumentException("order must be asc or desc; got: " + order);
+        };
+    }
+
+    private static <T> Keyset.Column<T> column(String name, Class<?> type, Function<T, Object> value) {
+        return new Keyset.Column<>(name, type, value);
+    }
+}
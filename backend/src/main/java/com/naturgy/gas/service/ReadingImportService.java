@@ -0,0 +1,322 @@
+package com.naturgy.gas.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.naturgy.gas.dto.ReadingImportResultDto;
+import com.naturgy.gas.dto.ReadingRejectDto;
+import com.naturgy.gas.entity.GasReading;
+import com.naturgy.gas.repository.GasReadingRepository;
+import com.naturgy.gas.repository.ReadingPoint;
+import com.naturgy.gas.repository.SupplyPointRepository;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk import of meter readings from a CSV ({@code gas-readings.csv} format) or NDJSON
+ * ({@link com.naturgy.gas.dto.GasReadingDto} per line) body.
+ * <p>
+ * The body is parsed row by row and written in chunks of {@link #CHUNK_SIZE} rows, one transaction per
+ * chunk, so memory does not depend on the size of the batch. Per chunk, unknown CUPS and existing
+ * (cups, fecha) readings are found with one query each and checked with set lookups; the accepted rows
+ * are inserted with JDBC batches. Rows already committed stay committed if a later chunk fails.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReadingImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadingImportService.class);
+
+    /** Rows per transaction; also bounds the IN lists of the per-chunk lookups. */
+    static final int CHUNK_SIZE = 1000;
+    /** Rejected rows listed in the result; the count covers all of them. */
+    public static final int MAX_REJECTS = 1000;
+
+    private static final String CSV_HEADER = "cups,fecha,lectura_m3,tipo";
+    private static final String INSERT_SQL =
+            "INSERT INTO gas_readings (cups, fecha, lectura_m3, tipo) VALUES (?, ?, ?, ?)";
+    /** lectura_m3 is NUMERIC(12, 3). */
+    private static final int MAX_SCALE = 3;
+    private static final int MAX_INTEGER_DIGITS = 9;
+
+    public enum Format { CSV, NDJSON }
+
+    private final GasReadingRepository gasReadingRepository;
+    private final SupplyPointRepository supplyPointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ReadingIndex readingIndex;
+
+    /**
+     * @throws IllegalArgumentException if the CSV header is not {@code cups,fecha,lectura_m3,tipo}
+     */
+    public ReadingImportResultDto importReadings(InputStream body, Format format) {
+        long startedAt = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16);
+        RowSource rows = format == Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader, objectMapper);
+        Result result = new Result();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        Row row;
+        while ((row = rows.next()) != null) {
+            result.received++;
+            if (row.error() != null) {
+                result.reject(row, ReadingRejectDto.Reason.INVALID, row.error());
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, result);
+        }
+        long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+        log.info("Readings import ({}): {} received, {} inserted, {} rejected in {} ms",
+                format, result.received, result.inserted, result.rejected, elapsedMs);
+        return new ReadingImportResultDto(result.received, result.inserted, result.rejected,
+                List.copyOf(result.rejects), result.rejected > result.rejects.size(), elapsedMs);
+    }
+
+    /**
+     * Inserts the rows of the chunk that have a known CUPS and no reading yet. A concurrent insert of the
+     * same (cups, fecha) makes the batch fail; the chunk is then checked again once.
+     */
+    private void writeChunk(List<Row> chunk, Result result) {
+        try {
+            result.add(transactionTemplate.execute(status -> insertNew(chunk)));
+        } catch (DuplicateKeyException e) {
+            log.info("Readings import: concurrent insert detected, checking the chunk again");
+            result.add(transactionTemplate.execute(status -> insertNew(chunk)));
+        }
+    }
+
+    private ChunkOutcome insertNew(List<Row> chunk) {
+        Set<String> cups = new HashSet<>();
+        LocalDate from = LocalDate.MAX;
+        LocalDate to = LocalDate.MIN;
+        for (Row r : chunk) {
+            cups.add(r.cups());
+            if (r.fecha().isBefore(from)) from = r.fecha();
+            if (r.fecha().isAfter(to)) to = r.fecha();
+        }
+        Set<String> known = new HashSet<>(supplyPointRepository.findExistingCups(cups));
+        Set<String> taken = new HashSet<>();
+        for (ReadingPoint p : gasReadingRepository.findReadingsBetween(cups, from, to)) {
+            taken.add(key(p.cups(), p.fecha()));
+        }
+
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        List<ReadingRejectDto> rejects = new ArrayList<>();
+        for (Row r : chunk) {
+            if (!known.contains(r.cups())) {
+                rejects.add(r.reject(ReadingRejectDto.Reason.UNKNOWN_CUPS, "Supply point not found: " + r.cups()));
+            } else if (!taken.add(key(r.cups(), r.fecha()))) {
+                rejects.add(r.reject(ReadingRejectDto.Reason.DUPLICATE,
+                        "Reading already exists for cups=" + r.cups() + " fecha=" + r.fecha()));
+            } else {
+                accepted.add(r);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, accepted, accepted.size(), (ps, r) -> {
+            ps.setString(1, r.cups());
+            ps.setDate(2, Date.valueOf(r.fecha()));
+            ps.setBigDecimal(3, r.lecturaM3());
+            ps.setString(4, r.tipo().name());
+        });
+        readingIndex.refreshAfterCommit(accepted.stream().map(Row::cups).toList());
+        return new ChunkOutcome(accepted.size(), rejects);
+    }
+
+    private static String key(String cups, LocalDate fecha) {
+        return cups + "|" + fecha;
+    }
+
+    /**
+     * Validates one row; a row that does not pass carries its {@code error} instead of parsed values.
+     */
+    static Row parse(long line, String cups, String fecha, String lecturaM3, String tipo) {
+        if (cups == null || cups.isBlank()) {
+            return Row.invalid(line, cups, fecha, "cups is blank");
+        }
+        cups = cups.trim();
+        if (cups.length() > 50) {
+            return Row.invalid(line, cups, fecha, "cups is longer than 50 characters");
+        }
+        if (fecha == null || lecturaM3 == null || tipo == null) {
+            return Row.invalid(line, cups, fecha, "expected columns cups, fecha, lectura_m3, tipo");
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.parse(fecha.trim());
+        } catch (DateTimeParseException e) {
+            return Row.invalid(line, cups, fecha, "invalid fecha (expected YYYY-MM-DD): '" + fecha + "'");
+        }
+        BigDecimal m3;
+        try {
+            m3 = new BigDecimal(lecturaM3.trim());
+        } catch (NumberFormatException e) {
+            return Row.invalid(line, cups, fecha, "invalid lectura_m3: '" + lecturaM3 + "'");
+        }
+        if (m3.signum() < 0) {
+            return Row.invalid(line, cups, fecha, "lectura_m3 must be >= 0, got: " + lecturaM3);
+        }
+        BigDecimal stripped = m3.stripTrailingZeros();
+        if (stripped.scale() > MAX_SCALE || stripped.precision() - stripped.scale() > MAX_INTEGER_DIGITS) {
+            return Row.invalid(line, cups, fecha, "lectura_m3 does not fit NUMERIC(12, 3): " + lecturaM3);
+        }
+        GasReading.TipoLectura tipoLectura;
+        try {
+            tipoLectura = GasReading.TipoLectura.valueOf(tipo.trim());
+        } catch (IllegalArgumentException e) {
+            return Row.invalid(line, cups, fecha, "invalid tipo (expected REAL or ESTIMADA): '" + tipo + "'");
+        }
+        return new Row(line, cups, fecha, date, m3, tipoLectura, null);
+    }
+
+    record Row(long line, String cups, String fechaRaw, LocalDate fecha, BigDecimal lecturaM3,
+               GasReading.TipoLectura tipo, String error) {
+
+        static Row invalid(long line, String cups, String fecha, String error) {
+            return new Row(line, cups, fecha, null, null, null, error);
+        }
+
+        ReadingRejectDto reject(ReadingRejectDto.Reason reason, String message) {
+            return new ReadingRejectDto(line, cups, fechaRaw, reason, message);
+        }
+    }
+
+    private record ChunkOutcome(int inserted, List<ReadingRejectDto> rejects) {}
+
+    private static final class Result {
+        long received;
+        long inserted;
+        long rejected;
+        final List<ReadingRejectDto> rejects = new ArrayList<>();
+
+        void reject(Row row, ReadingRejectDto.Reason reason, String message) {
+            rejected++;
+            if (rejects.size() < MAX_REJECTS) {
+                rejects.add(row.reject(reason, message));
+            }
+        }
+
+        void add(ChunkOutcome outcome) {
+            inserted += outcome.inserted();
+            rejected += outcome.rejects().size();
+            for (ReadingRejectDto reject : outcome.rejects()) {
+                if (rejects.size() >= MAX_REJECTS) break;
+                rejects.add(reject);
+            }
+        }
+    }
+
+    /**
+     * Rows of the request body, parsed one at a time; null at the end of the body.
+     */
+    private interface RowSource {
+        Row next();
+    }
+
+    private static final class CsvRows implements RowSource {
+
+        private final CSVReader reader;
+
+        CsvRows(BufferedReader body) {
+            this.reader = new CSVReader(body);
+            String[] header = read();
+            if (header == null || !CSV_HEADER.equals(String.join(",", header).replace(" ", ""))) {
+                throw new IllegalArgumentException("Expected CSV header '" + CSV_HEADER + "', got: "
+                        + (header == null ? "empty body" : "'" + String.join(",", header) + "'"));
+            }
+        }
+
+        @Override
+        public Row next() {
+            String[] row;
+            do {
+                row = read();
+            } while (row != null && row.length == 1 && row[0].isBlank());
+            if (row == null) return null;
+            long line = reader.getLinesRead();
+            return parse(line, cell(row, 0), cell(row, 1), cell(row, 2), cell(row, 3));
+        }
+
+        private String[] read() {
+            try {
+                return reader.readNext();
+            } catch (CsvValidationException e) {
+                throw new IllegalArgumentException("Malformed CSV near line " + reader.getLinesRead() + ": "
+                        + e.getMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static String cell(String[] row, int index) {
+            return index < row.length ? row[index] : null;
+        }
+    }
+
+    private static final class NdjsonRows implements RowSource {
+
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long line;
+
+        NdjsonRows(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Row next() {
+            String json;
+            try {
+                do {
+                    json = reader.readLine();
+                    line++;
+                } while (json != null && json.isBlank());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (json == null) return null;
+            try {
+                JsonNode node = objectMapper.readTree(json);
+                return parse(line, text(node, "cups"), text(node, "fecha"), text(node, "lecturaM3"),
+                        text(node, "tipo"));
+            } catch (JsonProcessingException e) {
+                return Row.invalid(line, null, null, "invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+    }
+}
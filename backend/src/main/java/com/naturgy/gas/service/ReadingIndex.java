@@ -0,0 +1,238 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.config.BillingClusterProperties;
+import com.naturgy.gas.config.ReadingIndexProperties;
+import com.naturgy.gas.dto.GasReadingDto;
+import com.naturgy.gas.entity.GasReading;
+import com.naturgy.gas.repository.ReadingPoint;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory time series of the meter readings of every CUPS ({@code gas.readings.index.enabled}).
+ * <p>
+ * Each CUPS holds its readings as parallel primitive arrays sorted by date (epoch day, thousandths of m3,
+ * id, tipo), so "last reading before / on or before a date" is a binary search. The arrays are never
+ * modified: a write replaces the series of its CUPS, which lookups read without locking.
+ * <p>
+ * The index is loaded once the application is ready and kept in line with writes through
+ * {@link #refreshAfterCommit}: once the writing transaction commits, the series of the written CUPS are
+ * read again from the database. Writes that bypass the application (SQL scripts, other nodes) are not seen.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReadingIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadingIndex.class);
+
+    /** Upper bound for the IN list of a refresh query. */
+    private static final int CHUNK_SIZE = 1000;
+    private static final String SELECT = "SELECT id, cups, fecha, lectura_m3, tipo FROM gas_readings";
+    private static final GasReading.TipoLectura[] TIPOS = GasReading.TipoLectura.values();
+
+    private final ReadingIndexProperties properties;
+    private final BillingClusterProperties clusterProperties;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    /** CUPS written while the index is loading, refreshed once it is loaded; guarded by {@code this}. */
+    private Set<String> writtenDuringLoad;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!properties.enabled()) return;
+        if (clusterProperties.enabled()) {
+            log.warn("gas.readings.index.enabled is ignored with gas.billing.cluster.enabled: "
+                    + "readings written by other nodes would be missing");
+            return;
+        }
+        synchronized (this) {
+            writtenDuringLoad = new HashSet<>();
+        }
+        long startedAt = System.nanoTime();
+        series.clear();
+        SeriesCollector collector = new SeriesCollector(series::put);
+        jdbcTemplate.query(SELECT + " ORDER BY cups, fecha", collector);
+        collector.finish();
+
+        Set<String> written;
+        synchronized (this) {
+            written = writtenDuringLoad;
+            writtenDuringLoad = null;
+        }
+        refresh(written);
+        ready = true;
+        log.info("Reading index loaded: {} readings of {} CUPS in {} ms", collector.readings, series.size(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * @return true once loaded; lookups must not be used before (callers fall back to SQL)
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return the last reading of the CUPS with fecha &lt; {@code date}, or null
+     */
+    public ReadingPoint lastBefore(String cups, LocalDate date) {
+        return lastOnOrBefore(cups, date.minusDays(1));
+    }
+
+    /**
+     * @return the last reading of the CUPS with fecha &lt;= {@code date}, or null
+     */
+    public ReadingPoint lastOnOrBefore(String cups, LocalDate date) {
+        Series s = series.get(cups);
+        if (s == null) return null;
+        int i = s.lastOnOrBefore((int) date.toEpochDay());
+        return i < 0 ? null : s.point(cups, i);
+    }
+
+    /**
+     * @return every reading of the CUPS, newest first
+     */
+    public List<GasReadingDto> history(String cups) {
+        Series s = series.get(cups);
+        if (s == null) return List.of();
+        List<GasReadingDto> readings = new ArrayList<>(s.days().length);
+        for (int i = s.days().length - 1; i >= 0; i--) {
+            ReadingPoint p = s.point(cups, i);
+            readings.add(new GasReadingDto(p.id(), cups, p.fecha(), p.lecturaM3(), TIPOS[s.tipos()[i]].name()));
+        }
+        return readings;
+    }
+
+    /**
+     * Reloads the series of the given CUPS once the current transaction commits (at once without one).
+     * Nothing is reloaded if the transaction rolls back.
+     */
+    public void refreshAfterCommit(Collection<String> cups) {
+        if (!properties.enabled() || clusterProperties.enabled() || cups.isEmpty()) return;
+        Set<String> written = new HashSet<>(cups);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(written);
+                }
+            });
+        } else {
+            refresh(written);
+        }
+    }
+
+    /**
+     * Serialized so that a refresh reading older data can never overwrite a later one.
+     */
+    private synchronized void refresh(Set<String> cups) {
+        if (writtenDuringLoad != null) {
+            writtenDuringLoad.addAll(cups);
+            return;
+        }
+        List<String> all = new ArrayList<>(cups);
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            List<String> chunk = all.subList(from, Math.min(from + CHUNK_SIZE, all.size()));
+            Set<String> emptied = new HashSet<>(chunk);
+            SeriesCollector collector = new SeriesCollector((c, s) -> {
+                series.put(c, s);
+                emptied.remove(c);
+            });
+            jdbcTemplate.query(SELECT + " WHERE cups IN (" + String.join(",", Collections.nCopies(chunk.size(), "?"))
+                    + ") ORDER BY cups, fecha", collector, chunk.toArray());
+            collector.finish();
+            emptied.forEach(series::remove);
+        }
+    }
+
+    /**
+     * Readings of one CUPS sorted by date; index i of every array is the same reading.
+     */
+    private record Series(int[] days, long[] milliM3, long[] ids, byte[] tipos) {
+
+        /**
+         * @return index of the last reading with epoch day &lt;= {@code day}, or -1
+         */
+        int lastOnOrBefore(int day) {
+            int i = Arrays.binarySearch(days, day);
+            return i >= 0 ? i : -i - 2;
+        }
+
+        ReadingPoint point(String cups, int i) {
+            return new ReadingPoint(ids[i], cups, LocalDate.ofEpochDay(days[i]), BigDecimal.valueOf(milliM3[i], 3));
+        }
+    }
+
+    /**
+     * Builds the series of a result set ordered by cups and fecha, handing each one over once complete.
+     */
+    private static final class SeriesCollector implements RowCallbackHandler {
+
+        private final BiConsumer<String, Series> sink;
+        private String cups;
+        private int[] days = new int[16];
+        private long[] milliM3 = new long[16];
+        private long[] ids = new long[16];
+        private byte[] tipos = new byte[16];
+        private int size;
+        private long readings;
+
+        SeriesCollector(BiConsumer<String, Series> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String rowCups = rs.getString(2);
+            if (!rowCups.equals(cups)) {
+                finish();
+                cups = rowCups;
+            }
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                milliM3 = Arrays.copyOf(milliM3, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+                tipos = Arrays.copyOf(tipos, size * 2);
+            }
+            ids[size] = rs.getLong(1);
+            days[size] = (int) rs.getObject(3, LocalDate.class).toEpochDay();
+            milliM3[size] = rs.getBigDecimal(4).setScale(3, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            tipos[size] = (byte) GasReading.TipoLectura.valueOf(rs.getString(5)).ordinal();
+            size++;
+            readings++;
+        }
+
+        void finish() {
+            if (size == 0) return;
+            sink.accept(cups, new Series(Arrays.copyOf(days, size), Arrays.copyOf(milliM3, size),
+                    Arrays.copyOf(ids, size), Arrays.copyOf(tipos, size)));
+            size = 0;
+        }
+    }
+}
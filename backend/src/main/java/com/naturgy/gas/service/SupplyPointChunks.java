@@ -0,0 +1,81 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.entity.SupplyPoint;
+import com.naturgy.gas.repository.SupplyPointRepository;
+import org.springframework.data.domain.Limit;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Forward-only iteration over the active supply points in CUPS order, one keyset page per chunk,
+ * optionally limited to the CUPS range {@code (afterCups, lastCups]} of a billing partition.
+ * <p>
+ * Each page is read with its own query ({@code cups > last CUPS of the previous page}), so only the
+ * chunks being billed are ever in memory, whatever the size of the portfolio. Supply points rejected by
+ * {@code skip} (e.g. CUPS already committed by a resumed job) are dropped from their page; a page left
+ * empty is not returned.
+ */
+final class SupplyPointChunks implements Iterator<List<SupplyPoint>> {
+
+    private final SupplyPointRepository repository;
+    private final int chunkSize;
+    private final Predicate<String> skip;
+    private final String upperBound;
+
+    private String lastCups;
+    private boolean exhausted;
+    private List<SupplyPoint> next;
+
+    SupplyPointChunks(SupplyPointRepository repository, int chunkSize, Predicate<String> skip) {
+        this(repository, chunkSize, "", null, skip);
+    }
+
+    /**
+     * @param afterCups exclusive lower bound ({@code ""} for the first CUPS)
+     * @param lastCups  inclusive upper bound, or null for no upper bound
+     */
+    SupplyPointChunks(SupplyPointRepository repository, int chunkSize, String afterCups, String lastCups,
+                      Predicate<String> skip) {
+        this.repository = repository;
+        this.chunkSize = chunkSize;
+        this.skip = skip;
+        this.lastCups = afterCups;
+        this.upperBound = lastCups;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !exhausted) {
+            List<SupplyPoint> page = upperBound == null
+                    ? repository.findByEstadoAndCupsGreaterThanOrderByCupsAsc(
+                            SupplyPoint.EstadoSupply.ACTIVO, lastCups, Limit.of(chunkSize))
+                    : repository.findByEstadoAndCupsGreaterThanAndCupsLessThanEqualOrderByCupsAsc(
+                            SupplyPoint.EstadoSupply.ACTIVO, lastCups, upperBound, Limit.of(chunkSize));
+            if (page.size() < chunkSize) {
+                exhausted = true;
+            }
+            if (page.isEmpty()) {
+                break;
+            }
+            lastCups = page.get(page.size() - 1).getCups();
+            List<SupplyPoint> pending = page.stream().filter(sp -> !skip.test(sp.getCups())).toList();
+            if (!pending.isEmpty()) {
+                next = pending;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public List<SupplyPoint> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<SupplyPoint> chunk = next;
+        next = null;
+        return chunk;
+    }
+}
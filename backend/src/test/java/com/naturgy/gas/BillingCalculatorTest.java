@@ -0,0 +1,124 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.service.BillingCalculator;
+import com.naturgy.gas.service.BillingReferenceSnapshot;
+import com.naturgy.gas.service.InvoiceAmounts;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property tests for the fixed-point {@link BillingCalculator}: over random inputs, the amounts must be
+ * equal (same unscaled value and scale) to the {@link BigDecimal} reference path.
+ * Run with {@code -Dbilling.calculator.iterations=5000000} for a longer search; failures print the seed.
+ */
+class BillingCalculatorTest {
+
+    private static final int ITERATIONS = Integer.getInteger("billing.calculator.iterations", 1_000_000);
+    private static final long SEED = Long.getLong("billing.calculator.seed", 20260201L);
+
+    @Test
+    void sampleInvoice_matchesSpecExample() {
+        // CUPS AA, 2026-02: 75.30 m3, RL1, ZONA1, IVA 21%
+        BillingCalculator.Result r = BillingCalculator.compute(
+                BillingCalculator.Fixed.of(new BigDecimal("75.300")),
+                BillingCalculator.Fixed.normalized(new BigDecimal("1.020000").multiply(new BigDecimal("11.680000"))),
+                BillingCalculator.Fixed.of(new BigDecimal("3.8500")),
+                BillingCalculator.Fixed.of(new BigDecimal("0.004500")),
+                BillingCalculator.Fixed.of(new BigDecimal("0.2100")),
+                28, 28);
+
+        assertThat(r.kwh()).isEqualTo(897_094L);
+        assertThat(r.costeFijo()).isEqualTo(385L);
+        assertThat(r.costeVariable()).isEqualTo(404L);
+        assertThat(r.base()).isEqualTo(789L);
+        assertThat(r.impuestos()).isEqualTo(166L);
+        assertThat(r.total()).isEqualTo(955L);
+    }
+
+    @Test
+    void halfUp_roundsTiesAwayFromZero() {
+        BillingCalculator.Result r = BillingCalculator.compute(
+                BillingCalculator.Fixed.of(new BigDecimal("1.000")),
+                BillingCalculator.Fixed.of(new BigDecimal("0.0005")),   // kwh 0.0005 -> 0.001
+                BillingCalculator.Fixed.of(new BigDecimal("0.005")),    // fijo 0.005 -> 0.01
+                BillingCalculator.Fixed.of(new BigDecimal("5")),        // variable 0.001 * 5 = 0.005 -> 0.01
+                BillingCalculator.Fixed.of(new BigDecimal("0.25")),     // base 0.02 * 0.25 = 0.005 -> 0.01
+                30, 30);
+
+        assertThat(r.kwh()).isEqualTo(1L);
+        assertThat(r.costeFijo()).isEqualTo(1L);
+        assertThat(r.costeVariable()).isEqualTo(1L);
+        assertThat(r.impuestos()).isEqualTo(1L);
+    }
+
+    @Test
+    void randomInputs_matchBigDecimalPathBitForBit() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int fastPath = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            BigDecimal m3 = decimal(random, 100_000_000L, random.nextInt(4));
+            BigDecimal coef = decimal(random, 900_000, 1_100_000, 6).setScale(2 + random.nextInt(5), RoundingMode.DOWN);
+            BigDecimal pcs = decimal(random, 10_000_000, 13_000_000, 6).setScale(2 + random.nextInt(5), RoundingMode.DOWN);
+            BigDecimal fijo = decimal(random, 10_000_000L, random.nextInt(5));
+            BigDecimal variable = decimal(random, 1_000_000L, 2 + random.nextInt(5));
+            BigDecimal iva = decimal(random, 3_000L, 2 + random.nextInt(3));
+            LocalDate periodEnd = YearMonth.of(2024 + random.nextInt(4), 1 + random.nextInt(12)).atEndOfMonth();
+
+            BillingReferenceSnapshot.Tariff tariff = new BillingReferenceSnapshot.Tariff("T", fijo, variable, periodEnd);
+            BillingReferenceSnapshot.Factor factor = BillingReferenceSnapshot.Factor.of("Z", coef, pcs);
+
+            InvoiceAmounts expected = InvoiceAmounts.computeReference(m3, tariff, factor, iva, periodEnd);
+            InvoiceAmounts actual;
+            try {
+                actual = BillingCalculator.compute(BillingCalculator.Fixed.of(m3), factor.kwhPerM3Fixed(),
+                        tariff.fijoMes(), tariff.variable(), BillingCalculator.Fixed.of(iva),
+                        periodEnd.getDayOfMonth(), periodEnd.getDayOfMonth()).toInvoiceAmounts();
+                fastPath++;
+            } catch (ArithmeticException overflow) {
+                actual = InvoiceAmounts.compute(m3, tariff, factor, iva, periodEnd);
+            }
+
+            assertThat(actual)
+                    .as("seed=%d iteration=%d m3=%s coef=%s pcs=%s fijo=%s variable=%s iva=%s",
+                            SEED, i, m3, coef, pcs, fijo, variable, iva)
+                    .isEqualTo(expected);
+        }
+        // Realistic inputs must almost never need the BigDecimal fallback
+        assertThat(fastPath).isGreaterThan(ITERATIONS * 99 / 100);
+    }
+
+    @Test
+    void fixedDivision_matchesBigDecimalForProratedFixedTerm() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            BigDecimal fijo = decimal(random, 10_000_000L, random.nextInt(5)).negate();
+            int daysInMonth = 28 + random.nextInt(4);
+            int daysInPeriod = 1 + random.nextInt(daysInMonth);
+            BigDecimal expected = fijo.multiply(BigDecimal.valueOf(daysInPeriod))
+                    .divide(BigDecimal.valueOf(daysInMonth), 2, RoundingMode.HALF_UP);
+
+            BillingCalculator.Result r = BillingCalculator.compute(
+                    BillingCalculator.Fixed.of(BigDecimal.ZERO), BillingCalculator.Fixed.of(BigDecimal.ONE),
+                    BillingCalculator.Fixed.of(fijo), BillingCalculator.Fixed.of(BigDecimal.ONE),
+                    BillingCalculator.Fixed.of(BigDecimal.ZERO), daysInPeriod, daysInMonth);
+
+            assertThat(BigDecimal.valueOf(r.costeFijo(), 2)).as("fijo=%s %d/%d", fijo, daysInPeriod, daysInMonth)
+                    .isEqualTo(expected);
+        }
+    }
+
+    private static BigDecimal decimal(SplittableRandom random, long bound, int scale) {
+        return BigDecimal.valueOf(random.nextLong(bound), scale);
+    }
+
+    private static BigDecimal decimal(SplittableRandom random, long origin, long bound, int scale) {
+        return BigDecimal.valueOf(random.nextLong(origin, bound), scale);
+    }
+}
@@ -1,21 +1,47 @@
 package com.naturgy.gas;
 
+import com.naturgy.gas.controller.BillingController;
+import com.naturgy.gas.dto.BillingErrorDto;
+import com.naturgy.gas.dto.BillingErrorPageDto;
 import com.naturgy.gas.dto.BillingResultDto;
+import com.naturgy.gas.dto.BillingSimulationRequestDto;
+import com.naturgy.gas.dto.BillingSimulationResultDto;
+import com.naturgy.gas.dto.GasConversionFactorDto;
+import com.naturgy.gas.dto.GasTariffDto;
+import com.naturgy.gas.entity.BillingCheckpoint;
+import com.naturgy.gas.entity.BillingError;
+import com.naturgy.gas.entity.BillingJob;
+import com.naturgy.gas.entity.GasReading;
 import com.naturgy.gas.entity.Invoice;
 import com.naturgy.gas.entity.InvoiceLine;
+import com.naturgy.gas.repository.BillingCheckpointRepository;
+import com.naturgy.gas.repository.BillingErrorRepository;
+import com.naturgy.gas.repository.BillingJobRepository;
+import com.naturgy.gas.repository.GasReadingRepository;
 import com.naturgy.gas.repository.InvoiceRepository;
+import com.naturgy.gas.service.BillingJobTracker;
+import com.naturgy.gas.service.BillingScope;
 import com.naturgy.gas.service.BillingService;
+import com.naturgy.gas.service.BillingSimulationService;
+import com.naturgy.gas.service.BoundaryReadingResolver;
+import com.naturgy.gas.service.BoundaryReadings;
 import com.naturgy.gas.service.PdfService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Integration test: seed → billing run 2026-02 → invoices → PDF.
@@ -35,6 +61,33 @@ class BillingIntegrationTest {
     @Autowired
     private PdfService pdfService;
 
+    @Autowired
+    private BoundaryReadingResolver boundaryReadingResolver;
+
+    @Autowired
+    private BillingJobRepository billingJobRepository;
+
+    @Autowired
+    private BillingCheckpointRepository billingCheckpointRepository;
+
+    @Autowired
+    private BillingJobTracker billingJobTracker;
+
+    @Autowired
+    private GasReadingRepository gasReadingRepository;
+
+    @Autowired
+    private BillingErrorRepository billingErrorRepository;
+
+    @Autowired
+    private BillingSimulationService billingSimulationService;
+
+    @Autowired
+    private BillingController billingController;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void billingRun_2026_02_generatesExpectedInvoices() {
         BillingResultDto result = billingService.runBilling("2026-02");
@@ -43,7 +96,7 @@ class BillingIntegrationTest {
         assertThat(result.invoicesCreated() + result.invoicesUpdated())
                 .as("Should generate 3 invoices for 3 active CUPS")
                 .isEqualTo(3);
-        assertThat(result.errors()).as("No billing errors expected for seeded data").isEmpty();
+        assertThat(result.errorCount()).as("No billing errors expected for seeded data").isZero();
     }
 
     @Test
@@ -140,8 +193,265 @@ class BillingIntegrationTest {
         // Period with no readings – all CUPS should get billing errors
         BillingResultDto result = billingService.runBilling("2020-01");
 
-        assertThat(result.errors()).isNotEmpty();
+        assertThat(result.errorCount()).isEqualTo(3);
+        assertThat(result.errorsByCode()).containsExactly(Map.entry(BillingError.Code.MISSING_INICIO, 3L));
         assertThat(result.invoicesCreated()).isEqualTo(0);
         assertThat(result.invoicesUpdated()).isEqualTo(0);
     }
+
+    @Test
+    void billingErrors_arePagedByIdAndFilteredByCode() {
+        billingService.runBilling("2020-01");
+
+        BillingErrorPageDto first = billingController.errors("2020-01", null, 0, 2);
+        assertThat(first.items()).hasSize(2);
+        assertThat(first.nextAfterId()).isEqualTo(first.items().get(1).id());
+
+        BillingErrorPageDto second = billingController.errors("2020-01", BillingError.Code.MISSING_INICIO,
+                first.nextAfterId(), 2);
+        assertThat(second.items()).hasSize(1);
+        assertThat(second.nextAfterId()).isNull();
+        assertThat(List.of(first.items().get(0), first.items().get(1), second.items().get(0)))
+                .extracting(BillingErrorDto::cups)
+                .containsExactly("ES0021000000001AA", "ES0021000000002BB", "ES0021000000003CC");
+
+        assertThat(billingController.errors("2020-01", BillingError.Code.NO_TARIFF, 0, 100).items()).isEmpty();
+    }
+
+    @Test
+    void billingRun_publishesBillingMetrics() {
+        // Meters are shared by the whole test context: compare before / after
+        double cups = meterRegistry.find("gas.billing.cups").counter().count();
+        double created = meterRegistry.find("gas.billing.invoices").tag("outcome", "created").counter().count();
+        double missingInicio = meterRegistry.find("gas.billing.errors").tag("code", "MISSING_INICIO").counter().count();
+        long calculations = meterRegistry.find("gas.billing.stage").tag("stage", "calculation").timer().count();
+
+        billingService.runBilling("2026-02");
+        billingService.runBilling("2020-01");
+
+        assertThat(meterRegistry.find("gas.billing.cups").counter().count()).isEqualTo(cups + 6);
+        assertThat(meterRegistry.find("gas.billing.invoices").tag("outcome", "created").counter().count())
+                .isEqualTo(created + 3);
+        assertThat(meterRegistry.find("gas.billing.errors").tag("code", "MISSING_INICIO").counter().count())
+                .isEqualTo(missingInicio + 3);
+        assertThat(meterRegistry.find("gas.billing.stage").tag("stage", "calculation").timer().count())
+                .isGreaterThan(calculations);
+    }
+
+    @Test
+    void boundaryResolver_matchesSingleCupsLookupRules() {
+        Map<String, BoundaryReadings> result = boundaryReadingResolver.resolve(
+                List.of("ES0021000000001AA", "ES0021000000003CD", "ES0021000000009ZZ"),
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+
+        // AA: inicio 2025-12-31, fin 2026-01-31
+        BoundaryReadings aa = result.get("ES0021000000001AA");
+        assertThat(aa.inicio().fecha()).isEqualTo(LocalDate.of(2025, 12, 31));
+        assertThat(aa.fin().fecha()).isEqualTo(LocalDate.of(2026, 1, 31));
+        assertThat(aa.fin().lecturaM3()).isEqualByComparingTo("1250.50");
+
+        // CD has no reading in January: the same row is both inicio and fin
+        BoundaryReadings cd = result.get("ES0021000000003CD");
+        assertThat(cd.inicio().id()).isEqualTo(cd.fin().id());
+
+        // Unknown CUPS: no entry at all
+        assertThat(result).doesNotContainKey("ES0021000000009ZZ");
+    }
+
+    @Test
+    void billingRun_resumesInterruptedJobFromCheckpoint() {
+        // Simulate a crash after the chunk containing AA was committed
+        BillingJob job = billingJobRepository.save(new BillingJob("2026-02", 1));
+        BillingCheckpoint cp = new BillingCheckpoint();
+        cp.setJobId(job.getId());
+        cp.setPeriod("2026-02");
+        cp.setFirstCups("ES0021000000001AA");
+        cp.setLastCups("ES0021000000001AA");
+        cp.setCupsCount(1);
+        cp.setInvoicesCreated(1);
+        cp.setCompletedAt(LocalDateTime.now());
+        billingCheckpointRepository.save(cp);
+
+        BillingResultDto result = billingService.runBilling("2026-02");
+
+        // Counters cover the whole job, but only BB and CC were billed by the resumed attempt
+        assertThat(result.invoicesCreated()).isEqualTo(3);
+        assertThat(invoiceRepository.findByCupsAndPeriodoInicio("ES0021000000001AA", LocalDate.of(2026, 2, 1))).isEmpty();
+        assertThat(invoiceRepository.findByCupsAndPeriodoInicio("ES0021000000002BB", LocalDate.of(2026, 2, 1))).isPresent();
+        assertThat(billingJobRepository.findById(job.getId()).orElseThrow().getStatus())
+                .isEqualTo(BillingJob.Status.COMPLETED);
+        assertThat(billingCheckpointRepository.findByJobIdOrderByFirstCups(job.getId())).hasSize(2);
+    }
+
+    @Test
+    void billingRun_afterFailedJob_startsAFreshJob() {
+        // A failed job whose chunk with AA was committed before the failure
+        BillingJob failed = billingJobRepository.save(new BillingJob("2026-02", 1));
+        failed.setStatus(BillingJob.Status.FAILED);
+        billingCheckpointRepository.save(checkpoint(failed, "ES0021000000001AA"));
+
+        BillingResultDto result = billingService.runBilling("2026-02");
+
+        // Every CUPS is billed again, AA included
+        assertThat(result.invoicesCreated()).isEqualTo(3);
+        assertThat(invoiceRepository.findByCupsAndPeriodoInicio("ES0021000000001AA", LocalDate.of(2026, 2, 1))).isPresent();
+        assertThat(billingJobRepository.findById(failed.getId()).orElseThrow().getStatus())
+                .isEqualTo(BillingJob.Status.FAILED);
+    }
+
+    @Test
+    void resume_reopensAFailedJobFromItsCheckpoints() {
+        BillingJob failed = billingJobRepository.save(new BillingJob("2026-02", 1));
+        failed.setStatus(BillingJob.Status.FAILED);
+        failed.setFailureMessage("Connection reset");
+        billingCheckpointRepository.save(checkpoint(failed, "ES0021000000001AA"));
+        BillingScope scope = BillingScope.ofPeriod("2026-02");
+
+        BillingJobTracker.JobStart start = billingJobTracker.resume(failed, scope);
+        billingJobTracker.complete(start.jobId(), scope);
+
+        assertThat(start.jobId()).isEqualTo(failed.getId());
+        assertThat(start.completedRanges().contains("ES0021000000001AA")).isTrue();
+        assertThat(start.completedRanges().contains("ES0021000000002BB")).isFalse();
+
+        IllegalStateException completed = assertThrows(IllegalStateException.class,
+                () -> billingService.resumeBilling(failed.getId()));
+        assertThat(completed.getMessage()).isEqualTo("Billing job " + failed.getId() + " is already completed");
+    }
+
+    private BillingCheckpoint checkpoint(BillingJob job, String cups) {
+        BillingCheckpoint cp = new BillingCheckpoint();
+        cp.setJobId(job.getId());
+        cp.setPeriod(job.getPeriod());
+        cp.setFirstCups(cups);
+        cp.setLastCups(cups);
+        cp.setCupsCount(1);
+        cp.setInvoicesCreated(1);
+        cp.setCompletedAt(LocalDateTime.now());
+        return cp;
+    }
+
+    @Test
+    void boundaryResolver_rangePass_matchesPerMonthLookups() {
+        List<String> cups = List.of("ES0021000000001AA", "ES0021000000003CD", "ES0021000000009ZZ");
+        List<YearMonth> months = List.of(YearMonth.of(2026, 1), YearMonth.of(2026, 2), YearMonth.of(2026, 3));
+
+        Map<YearMonth, Map<String, BoundaryReadings>> range = boundaryReadingResolver.resolve(cups, months);
+
+        for (YearMonth ym : months) {
+            Map<String, BoundaryReadings> single = boundaryReadingResolver.resolve(cups, ym.atDay(1), ym.atEndOfMonth());
+            assertThat(range.get(ym)).as("boundaries of %s", ym).isEqualTo(single);
+        }
+    }
+
+    @Test
+    void billingRun_monthRange_billsEveryMonthInOneJob() {
+        BillingResultDto result = billingService.runBilling(
+                new BillingScope(YearMonth.of(2026, 1), YearMonth.of(2026, 2), null));
+
+        assertThat(result.period()).isEqualTo("2026-01..2026-02");
+        assertThat(result.invoicesCreated()).isEqualTo(6);
+        assertThat(result.errorCount()).isZero();
+
+        // Same figures as a single-month run of 2026-02
+        Invoice aaFeb = invoiceRepository.findByCupsAndPeriodoInicio("ES0021000000001AA", LocalDate.of(2026, 2, 1))
+                .orElseThrow();
+        assertThat(aaFeb.getTotal()).isEqualByComparingTo("9.55");
+        assertThat(invoiceRepository.findByCupsAndPeriodoInicio("ES0021000000003CC", LocalDate.of(2026, 1, 1)))
+                .isPresent();
+    }
+
+    @Test
+    void billingRun_singleCupsHistory_onlyBillsThatCups() {
+        BillingResultDto result = billingService.runBilling(
+                new BillingScope(YearMonth.of(2026, 1), YearMonth.of(2026, 2), "ES0021000000002BB"));
+
+        assertThat(result.invoicesCreated()).isEqualTo(2);
+        assertThat(result.errorCount()).isZero();
+        assertThat(invoiceRepository.findAll())
+                .extracting(Invoice::getCups)
+                .containsOnly("ES0021000000002BB");
+    }
+
+    @Test
+    void deltaRun_onlyReBillsCupsWhoseInputsChanged() {
+        billingService.runBilling("2026-02");
+        Invoice before = invoiceRepository.findByCupsAndPeriodoInicio("ES0021000000001AA", LocalDate.of(2026, 2, 1))
+                .orElseThrow();
+
+        // Correct AA's closing reading only
+        GasReading fin = gasReadingRepository.findByCupsOrderByFechaDesc("ES0021000000001AA").get(0);
+        fin.setLecturaM3(new BigDecimal("1400.000"));
+        gasReadingRepository.save(fin);
+
+        BillingResultDto result = billingService.runBilling(
+                new BillingScope(YearMonth.of(2026, 2), YearMonth.of(2026, 2), null, true));
+
+        assertThat(result.invoicesUpdated()).isEqualTo(1);
+        assertThat(result.invoicesSkipped()).isEqualTo(2);
+        assertThat(result.invoicesCreated()).isZero();
+        Invoice after = invoiceRepository.findByCupsAndPeriodoInicio("ES0021000000001AA", LocalDate.of(2026, 2, 1))
+                .orElseThrow();
+        assertThat(after.getNumeroFactura()).isEqualTo(before.getNumeroFactura());
+        assertThat(after.getTotal()).isGreaterThan(new BigDecimal("9.55"));
+    }
+
+    @Test
+    void simulation_reportsDeltasPerTarifaAndZona_andWritesNothing() {
+        BillingSimulationResultDto result = billingSimulationService.simulate(new BillingSimulationRequestDto(
+                "2026-02", null, null, new BigDecimal("0.10")));
+
+        assertThat(result.cupsSimulated()).isEqualTo(3);
+        assertThat(result.unbillableSimulated()).isZero();
+        assertThat(result.groups()).hasSize(3);
+
+        // AA (RL1, ZONA1): base 7.89, IVA 21% -> 1.66, IVA 10% -> 0.79
+        BillingSimulationResultDto.GroupDto aa = result.groups().stream()
+                .filter(g -> g.tarifa().equals("RL1") && g.zona().equals("ZONA1"))
+                .findFirst().orElseThrow();
+        assertThat(aa.current().total()).isEqualByComparingTo("9.55");
+        assertThat(aa.simulated().impuestos()).isEqualByComparingTo("0.79");
+        assertThat(aa.delta().base()).isEqualByComparingTo("0.00");
+        assertThat(aa.delta().total()).isEqualByComparingTo("-0.87");
+        assertThat(result.delta().total()).isNegative();
+
+        assertThat(invoiceRepository.count()).isZero();
+        assertThat(billingErrorRepository.count()).isZero();
+    }
+
+    @Test
+    void simulation_tariffOverride_changesOnlyThatTarifa() {
+        BillingSimulationResultDto result = billingSimulationService.simulate(new BillingSimulationRequestDto(
+                "2026-02",
+                List.of(new GasTariffDto("RL2", new BigDecimal("10.00"), new BigDecimal("0.0038"), null)),
+                null, null));
+
+        for (BillingSimulationResultDto.GroupDto g : result.groups()) {
+            if (g.tarifa().equals("RL2")) {
+                assertThat(g.delta().base()).isEqualByComparingTo("3.50");
+            } else {
+                assertThat(g.delta().total()).isEqualByComparingTo("0.00");
+            }
+        }
+    }
+
+    @Test
+    void simulation_incompleteOverrides_areRejectedNamingTheField() {
+        IllegalArgumentException noVariable = assertThrows(IllegalArgumentException.class, () ->
+                billingSimulationService.simulate(new BillingSimulationRequestDto("2026-02",
+                        List.of(new GasTariffDto("RL2", new BigDecimal("10.00"), null, null)), null, null)));
+        assertThat(noVariable.getMessage()).contains("tariffs[0].variableEurKwh");
+
+        IllegalArgumentException noZona = assertThrows(IllegalArgumentException.class, () ->
+                billingSimulationService.simulate(new BillingSimulationRequestDto("2026-02", null,
+                        List.of(new GasConversionFactorDto(null, null, "2026-02", new BigDecimal("1.01"),
+                                new BigDecimal("11.5"))), null)));
+        assertThat(noZona.getMessage()).contains("factors[0].zona");
+
+        IllegalArgumentException noPcs = assertThrows(IllegalArgumentException.class, () ->
+                billingSimulationService.simulate(new BillingSimulationRequestDto("2026-02", null,
+                        List.of(new GasConversionFactorDto(null, "ZONA1", "2026-02", new BigDecimal("1.01"), null)),
+                        null)));
+        assertThat(noPcs.getMessage()).contains("factors[0].pcsKwhM3");
+    }
 }
@@ -1,12 +1,23 @@
 package com.naturgy.gas;
 
+import com.naturgy.gas.entity.GasConversionFactor;
+import com.naturgy.gas.entity.GasTariff;
+import com.naturgy.gas.repository.ReadingPoint;
+import com.naturgy.gas.service.BillingReferenceSnapshot;
 import com.naturgy.gas.service.BillingService;
+import com.naturgy.gas.service.BoundaryReadings;
+import com.naturgy.gas.service.InvoiceFingerprint;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Pure unit tests for billing logic (no Spring context).
@@ -144,4 +155,67 @@ class BillingLogicTest {
 
         assertThat(shouldError).isTrue();
     }
+
+    // ---- Reference snapshot ----
+
+    @Test
+    void referenceSnapshot_cachedKwhFactor_givesSameKwhAsChainedMultiply() {
+        GasConversionFactor f = new GasConversionFactor();
+        f.setZona("ZONA1");
+        f.setMes("2026-02");
+        f.setCoefConv(new BigDecimal("1.020000"));
+        f.setPcsKwhM3(new BigDecimal("11.680000"));
+
+        BillingReferenceSnapshot snapshot = BillingReferenceSnapshot.of(
+                YearMonth.of(2026, 2), List.of(), List.of(f), Optional.empty());
+
+        BigDecimal m3 = new BigDecimal("75.300");
+        BigDecimal chained = m3.multiply(f.getCoefConv()).multiply(f.getPcsKwhM3()).setScale(3, RoundingMode.HALF_UP);
+        BigDecimal cached = m3.multiply(snapshot.factor("ZONA1").kwhPerM3()).setScale(3, RoundingMode.HALF_UP);
+
+        assertThat(cached).isEqualTo(chained);
+    }
+
+    @Test
+    void referenceSnapshot_picksLatestEffectiveTariff_andReportsMissingData() {
+        GasTariff future = new GasTariff();
+        future.setTarifa("RL1");
+        future.setFijoMesEur(new BigDecimal("9.99"));
+        future.setVariableEurKwh(new BigDecimal("0.009"));
+        future.setVigenciaDesde(LocalDate.of(2026, 3, 1));
+
+        BillingReferenceSnapshot snapshot = BillingReferenceSnapshot.of(
+                YearMonth.of(2026, 2), List.of(future), List.of(), Optional.empty());
+
+        assertThrows(BillingService.BillingException.class,
+                () -> snapshot.tariff("RL1"));
+        BillingService.BillingException noFactor = assertThrows(
+                BillingService.BillingException.class, () -> snapshot.factor("ZONA9"));
+        assertThat(noFactor.getMessage()).isEqualTo("No conversion factor for zona=ZONA9 mes=2026-02");
+        BillingService.BillingException noIva = assertThrows(
+                BillingService.BillingException.class, () -> snapshot.ivaRate("2026-02"));
+        assertThat(noIva.getMessage()).isEqualTo("No IVA tax config found for period 2026-02");
+    }
+
+    // ---- Input fingerprint (delta billing) ----
+
+    @Test
+    void inputFingerprint_ignoresScale_butTracksEveryInput() {
+        BoundaryReadings readings = new BoundaryReadings(
+                new ReadingPoint(1L, "ES0021000000001AA", LocalDate.of(2026, 1, 31), new BigDecimal("1250.50")),
+                new ReadingPoint(2L, "ES0021000000001AA", LocalDate.of(2026, 2, 28), new BigDecimal("1325.80")));
+        BillingReferenceSnapshot.Tariff tariff = new BillingReferenceSnapshot.Tariff(
+                "RL1", new BigDecimal("3.85"), new BigDecimal("0.0045"), LocalDate.of(2026, 1, 1));
+        BillingReferenceSnapshot.Factor factor = new BillingReferenceSnapshot.Factor(
+                "ZONA1", new BigDecimal("1.02"), new BigDecimal("11.68"), new BigDecimal("11.9136"));
+
+        String fp = InvoiceFingerprint.of(readings, tariff, factor, new BigDecimal("0.21"));
+
+        assertThat(fp).hasSize(64);
+        assertThat(InvoiceFingerprint.of(readings, tariff, factor, new BigDecimal("0.210000"))).isEqualTo(fp);
+        assertThat(InvoiceFingerprint.of(readings, tariff, factor, new BigDecimal("0.10"))).isNotEqualTo(fp);
+        BoundaryReadings corrected = new BoundaryReadings(readings.inicio(),
+                new ReadingPoint(2L, "ES0021000000001AA", LocalDate.of(2026, 2, 28), new BigDecimal("1326.00")));
+        assertThat(InvoiceFingerprint.of(corrected, tariff, factor, new BigDecimal("0.21"))).isNotEqualTo(fp);
+    }
 }
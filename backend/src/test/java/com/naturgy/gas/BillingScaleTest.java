@@ -0,0 +1,122 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.dto.BillingResultDto;
+import com.naturgy.gas.service.BillingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bills a synthetic portfolio of several million CUPS under a small heap, to check that a run streams
+ * its supply points instead of loading them all: the data left live after garbage collections must stay
+ * below half the heap.
+ * <p>
+ * Disabled by default; run it with the {@code billing-scale} profile, which sets
+ * {@code -Dbilling.scale.cups=2000000} and forks the test JVM with {@code -Xmx256m}:
+ * <pre>mvn test -Pbilling-scale</pre>
+ * The database is an H2 file under {@code target/}, so the data set itself does not live on the heap.
+ */
+@EnabledIfSystemProperty(named = "billing.scale.cups", matches = "\\d+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/billing-scale/gasdb;DB_CLOSE_ON_EXIT=FALSE",
+        "gas.billing.workers=4",
+        "gas.billing.chunk-size=1000"
+})
+class BillingScaleTest {
+
+    private static final long CUPS = Long.getLong("billing.scale.cups", 0);
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Share of the heap the live data of a run may take, whatever the number of CUPS. */
+    private static final double MAX_LIVE_HEAP_SHARE = 0.5;
+    private static final long SAMPLE_INTERVAL_MS = 100;
+
+    @Test
+    void multiMillionCupsRun_billsEveryCupsWithinASmallHeap() throws Exception {
+        seed();
+        long maxHeap = Runtime.getRuntime().maxMemory();
+
+        BillingResultDto result;
+        long peakLiveHeap;
+        try (LiveHeapSampler sampler = new LiveHeapSampler()) {
+            result = billingService.runBilling("2026-02");
+            peakLiveHeap = sampler.peak();
+        }
+
+        // 3 sample supply points plus the synthetic ones
+        assertThat((long) result.invoicesCreated()).isEqualTo(CUPS + 3);
+        assertThat(result.errorCount()).isZero();
+        assertThat(peakLiveHeap)
+                .as("peak live heap %d MB of %d MB", peakLiveHeap >> 20, maxHeap >> 20)
+                .isLessThan((long) (maxHeap * MAX_LIVE_HEAP_SHARE));
+    }
+
+    /**
+     * Samples the heap left in use after the latest garbage collection of each pool: the live data of
+     * the run, unlike peak usage, which also counts garbage not yet collected and so tracks the heap size.
+     */
+    private static final class LiveHeapSampler implements AutoCloseable {
+
+        private final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+                .toList();
+        private final AtomicLong peak = new AtomicLong();
+        private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+        LiveHeapSampler() {
+            executor.scheduleAtFixedRate(this::sample, 0, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+
+        private void sample() {
+            long live = pools.stream().mapToLong(pool -> pool.getCollectionUsage().getUsed()).sum();
+            peak.accumulateAndGet(live, Math::max);
+        }
+
+        long peak() {
+            sample();
+            return peak.get();
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    private void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO supply_points (cups, zona, tarifa, estado)
+                SELECT 'ES0098' || LPAD(X, 11, '0') || 'SC',
+                       CASE WHEN MOD(X, 2) = 0 THEN 'ZONA1' ELSE 'ZONA2' END,
+                       CASE WHEN MOD(X, 3) = 0 THEN 'RL2' ELSE 'RL1' END,
+                       'ACTIVO'
+                FROM SYSTEM_RANGE(1, ?)""", CUPS);
+        jdbcTemplate.update("""
+                INSERT INTO gas_readings (cups, fecha, lectura_m3, tipo)
+                SELECT 'ES0098' || LPAD(X, 11, '0') || 'SC', DATE '2026-01-31', 1000.000, 'REAL'
+                FROM SYSTEM_RANGE(1, ?)""", CUPS);
+        jdbcTemplate.update("""
+                INSERT INTO gas_readings (cups, fecha, lectura_m3, tipo)
+                SELECT 'ES0098' || LPAD(X, 11, '0') || 'SC', DATE '2026-02-28', 1000.000 + MOD(X, 500) / 10.0, 'REAL'
+                FROM SYSTEM_RANGE(1, ?)""", CUPS);
+    }
+}
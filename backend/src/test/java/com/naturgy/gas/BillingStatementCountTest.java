@@ -0,0 +1,139 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.dto.BillingResultDto;
+import com.naturgy.gas.entity.Invoice;
+import com.naturgy.gas.service.BillingService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement-count benchmark of a billing run, based on Hibernate statistics.
+ * <p>
+ * Before batched persistence each CUPS cost at least six round trips: an idempotency SELECT, a merge
+ * SELECT for the assigned invoice id, one invoice INSERT and three IDENTITY line INSERTs. With sequence
+ * ids and JDBC batching, invoice and line INSERTs are grouped {@code hibernate.jdbc.batch_size} rows
+ * per statement, and the existing invoices of a chunk are looked up with one query, so a re-run costs
+ * about as much as the first run. The same run with batching switched off for its session is the
+ * baseline the batched run is compared with.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BillingStatementCountTest extends CommittingIntegrationTest {
+
+    private static final int EXTRA_CUPS = 200;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void removeSeededSupplyPoints() {
+        jdbcTemplate.update("DELETE FROM gas_readings WHERE cups LIKE 'ES0099%'");
+        jdbcTemplate.update("DELETE FROM supply_points WHERE cups LIKE 'ES0099%'");
+    }
+
+    @Test
+    void billingRun_andReRun_batchInvoiceWrites() {
+        seedSupplyPoints();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BillingResultDto result = billingService.runBilling("2026-02");
+
+        int billed = result.invoicesCreated();
+        assertThat(billed).isEqualTo(EXTRA_CUPS + 3);
+        double statementsPerCups = (double) statistics.getPrepareStatementCount() / billed;
+        assertThat(statistics.getEntityInsertCount()).isGreaterThanOrEqualTo(4L * billed);
+        assertThat(statementsPerCups)
+                .as("statements per CUPS of the first run (%d statements, %d CUPS)",
+                        statistics.getPrepareStatementCount(), billed)
+                .isLessThan(1.0);
+
+        statistics.clear();
+        BillingResultDto rerun = billingService.runBilling("2026-02");
+
+        assertThat(rerun.invoicesUpdated()).isEqualTo(billed);
+        double rerunStatementsPerCups = (double) statistics.getPrepareStatementCount() / billed;
+        assertThat(rerunStatementsPerCups)
+                .as("statements per CUPS of the re-run (%d statements, %d CUPS)",
+                        statistics.getPrepareStatementCount(), billed)
+                .isLessThan(1.0);
+        assertThat(statistics.getEntityStatistics(Invoice.class.getName()).getLoadCount())
+                .as("re-billing must not load invoices").isZero();
+    }
+
+    @Test
+    void batchedRun_needsFarFewerStatementsThanTheUnbatchedBaseline() {
+        seedSupplyPoints();
+
+        long unbatched = statementsOfFirstRun(1);
+        truncateBillingTables();
+        long batched = statementsOfFirstRun(null);
+
+        int cups = EXTRA_CUPS + 3;
+        assertThat(unbatched)
+                .as("unbatched baseline: at least one INSERT per invoice and line (%d statements, %d CUPS)",
+                        unbatched, cups)
+                .isGreaterThanOrEqualTo(4L * cups);
+        assertThat(batched)
+                .as("batched run (%d statements) vs unbatched baseline (%d statements), %d CUPS",
+                        batched, unbatched, cups)
+                .isLessThan(unbatched / 10);
+    }
+
+    /**
+     * Bills 2026-02 from scratch in one transaction whose session uses the given JDBC batch size
+     * ({@code null}: {@code hibernate.jdbc.batch_size}); with a single worker the chunks join it.
+     *
+     * @return statements prepared by the run
+     */
+    private long statementsOfFirstRun(Integer jdbcBatchSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        BillingResultDto result = transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            return billingService.runBilling("2026-02");
+        });
+        assertThat(result.invoicesCreated()).isEqualTo(EXTRA_CUPS + 3);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seedSupplyPoints() {
+        List<Object[]> supplyPoints = new ArrayList<>();
+        List<Object[]> readings = new ArrayList<>();
+        for (int i = 0; i < EXTRA_CUPS; i++) {
+            String cups = String.format("ES0099%011dXX", i);
+            supplyPoints.add(new Object[]{cups, "ZONA1", "RL1", "ACTIVO"});
+            readings.add(new Object[]{cups, Date.valueOf(LocalDate.of(2026, 1, 31)), new BigDecimal("1000.000"), "REAL"});
+            readings.add(new Object[]{cups, Date.valueOf(LocalDate.of(2026, 2, 28)), new BigDecimal("1075.300"), "REAL"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO supply_points (cups, zona, tarifa, estado) VALUES (?, ?, ?, ?)",
+                supplyPoints);
+        jdbcTemplate.batchUpdate("INSERT INTO gas_readings (cups, fecha, lectura_m3, tipo) VALUES (?, ?, ?, ?)",
+                readings);
+    }
+}
@@ -0,0 +1,105 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.controller.BillingController;
+import com.naturgy.gas.dto.BillingSummaryDto;
+import com.naturgy.gas.service.BillingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Billing summary maintained by billing runs: first run, re-run and re-bill with changed amounts must
+ * leave the same summary as recomputing it from the invoices.
+ */
+class BillingSummaryIntegrationTest extends CommittingIntegrationTest {
+
+    private static final String AA = "ES0021000000001AA";
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private BillingController billingController;
+
+    @Test
+    void billingRun_maintainsTheSummaryPerZonaAndTarifa() {
+        billingService.runBilling("2026-02");
+
+        List<BillingSummaryDto> summary = billingController.summary("2026-02");
+        assertThat(summary).extracting(s -> s.zona() + "/" + s.tarifa())
+                .containsExactly("ZONA1/RL1", "ZONA1/RL2", "ZONA2/RL1");
+        assertThat(summary).allMatch(s -> s.invoices() == 1);
+        BillingSummaryDto zona1Rl1 = summary.get(0);
+        assertThat(zona1Rl1.total()).isEqualByComparingTo("9.55");
+        assertThat(zona1Rl1.m3()).isPositive();
+        assertThat(zona1Rl1.kwh()).isGreaterThan(zona1Rl1.m3());
+        assertThat(billingController.summary("2026-01")).isEmpty();
+
+        billingService.runBilling("2026-02");
+
+        assertThat(totals(billingController.summary("2026-02"))).isEqualTo(totals(summary));
+        assertThat(totals(billingController.rebuildSummary("2026-02"))).isEqualTo(totals(summary));
+    }
+
+    @Test
+    void reBilling_replacesTheAmountsOfTheReplacedInvoices() {
+        billingService.runBilling("2026-02");
+        BigDecimal before = billingController.summary("2026-02").get(0).total();
+
+        jdbcTemplate.update("UPDATE gas_readings SET lectura_m3 = lectura_m3 + 10 "
+                + "WHERE cups = ? AND fecha BETWEEN DATE '2026-02-01' AND DATE '2026-02-28'", AA);
+        try {
+            billingService.runBilling("2026-02");
+        } finally {
+            jdbcTemplate.update("UPDATE gas_readings SET lectura_m3 = lectura_m3 - 10 "
+                    + "WHERE cups = ? AND fecha BETWEEN DATE '2026-02-01' AND DATE '2026-02-28'", AA);
+        }
+
+        List<BillingSummaryDto> summary = billingController.summary("2026-02");
+        assertThat(summary.get(0).invoices()).isEqualTo(1);
+        assertThat(summary.get(0).total()).isGreaterThan(before);
+        assertThat(totals(billingController.rebuildSummary("2026-02"))).isEqualTo(totals(summary));
+    }
+
+    @Test
+    void reBilling_afterAZonaChange_movesTheInvoiceToItsNewGroup() {
+        billingService.runBilling("2026-02");
+
+        jdbcTemplate.update("UPDATE supply_points SET zona = 'ZONA2' WHERE cups = ?", AA);
+        try {
+            billingService.runBilling("2026-02");
+        } finally {
+            jdbcTemplate.update("UPDATE supply_points SET zona = 'ZONA1' WHERE cups = ?", AA);
+        }
+
+        List<BillingSummaryDto> summary = billingController.summary("2026-02");
+        assertThat(summary).extracting(s -> s.zona() + "/" + s.tarifa() + "=" + s.invoices())
+                .containsExactly("ZONA1/RL2=1", "ZONA2/RL1=2");
+        assertThat(totals(billingController.rebuildSummary("2026-02"))).isEqualTo(totals(summary));
+    }
+
+    @Test
+    void summary_rejectsMalformedPeriods() {
+        assertThrows(IllegalArgumentException.class, () -> billingController.summary("02-2026"));
+    }
+
+    /**
+     * Group amounts as scale-independent strings, for comparing summaries.
+     */
+    private static Map<String, String> totals(List<BillingSummaryDto> summary) {
+        return summary.stream().collect(Collectors.toMap(s -> s.zona() + "/" + s.tarifa(),
+                s -> s.invoices() + "|" + plain(s.m3()) + "|" + plain(s.kwh()) + "|" + plain(s.base()) + "|"
+                        + plain(s.impuestos()) + "|" + plain(s.total())));
+    }
+
+    private static String plain(BigDecimal value) {
+        return value.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,138 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.config.BillingClusterProperties;
+import com.naturgy.gas.dto.BillingResultDto;
+import com.naturgy.gas.entity.BillingJob;
+import com.naturgy.gas.entity.BillingPartition;
+import com.naturgy.gas.repository.BillingJobRepository;
+import com.naturgy.gas.repository.BillingPartitionRepository;
+import com.naturgy.gas.repository.SupplyPointRepository;
+import com.naturgy.gas.service.BillingPartitionLeases;
+import com.naturgy.gas.service.BillingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Integration test for multi-node billing: this context is node "node-a", with one CUPS per partition.
+ * Other nodes are simulated with their own {@link BillingPartitionLeases} on the same database (no
+ * heartbeat, as if they had died).
+ */
+@TestPropertySource(properties = {
+        "gas.billing.cluster.enabled=true",
+        "gas.billing.cluster.node-id=node-a",
+        "gas.billing.cluster.partition-size=1"
+})
+class ClusterBillingIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private BillingPartitionRepository partitionRepository;
+
+    @Autowired
+    private SupplyPointRepository supplyPointRepository;
+
+    @Autowired
+    private BillingJobRepository billingJobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void partitionOfDeadNode_isTakenOverAfterLeaseExpiry() {
+        BillingPartitionLeases deadNode = otherNode("node-dead", 1);
+        Long jobId = billingJobRepository.save(new BillingJob("2026-02", 1)).getId();
+        deadNode.createPartitions(jobId);
+        BillingPartition stolen = deadNode.claimNext(jobId).orElseThrow();
+        jdbcTemplate.update("UPDATE billing_partitions SET lease_until = ? WHERE id = ?",
+                LocalDateTime.now().minusMinutes(1), stolen.getId());
+
+        // Resumes the RUNNING job: bills the pending partitions and takes over the expired one
+        BillingResultDto result = billingService.runBilling("2026-02");
+
+        assertThat(result.invoicesCreated()).isEqualTo(3);
+        assertThat(result.errorCount()).isZero();
+        assertThat(billingJobRepository.findById(jobId).orElseThrow().getStatus())
+                .isEqualTo(BillingJob.Status.COMPLETED);
+
+        List<BillingPartition> partitions = partitionRepository.findByJobIdOrderByPartitionNo(jobId);
+        // One partition per CUPS, plus the open-ended one after the last CUPS
+        assertThat(partitions).hasSize(4);
+        assertThat(partitions).allSatisfy(p -> assertThat(p.getStatus()).isEqualTo(BillingPartition.Status.DONE));
+        BillingPartition first = partitions.get(0);
+        assertThat(first.getOwner()).isEqualTo("node-a");
+        assertThat(first.getAttempts()).isEqualTo(2);
+        assertThat(first.getInvoicesCreated()).isEqualTo(1);
+
+        // The dead node comes back: its late chunk is fenced off by the lease
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status ->
+                deadNode.recordChunk(stolen.getId(), 1, 1, 0, 0, 0)));
+        assertThat(partitionRepository.findById(stolen.getId()).orElseThrow().getInvoicesCreated()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentClaims_haveExactlyOneWinner() throws Exception {
+        BillingJob job = billingJobRepository.save(new BillingJob("2099-01", 1));
+        otherNode("node-0", 10).createPartitions(job.getId());
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Callable<Optional<BillingPartition>>> claims = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                BillingPartitionLeases node = otherNode("node-" + i, 10);
+                claims.add(() -> {
+                    start.await();
+                    return node.claimNext(job.getId());
+                });
+            }
+            List<Future<Optional<BillingPartition>>> futures = new ArrayList<>();
+            for (Callable<Optional<BillingPartition>> claim : claims) {
+                futures.add(pool.submit(claim));
+            }
+            start.countDown();
+            int winners = 0;
+            for (Future<Optional<BillingPartition>> f : futures) {
+                if (f.get().isPresent()) winners++;
+            }
+
+            assertThat(winners).isEqualTo(1);
+            List<BillingPartition> partitions = partitionRepository.findByJobIdOrderByPartitionNo(job.getId());
+            assertThat(partitions).hasSize(1);
+            assertThat(partitions.get(0).getAttempts()).isEqualTo(1);
+        } finally {
+            pool.shutdown();
+            job.setStatus(BillingJob.Status.COMPLETED);
+            billingJobRepository.save(job);
+        }
+    }
+
+    /**
+     * Another node on the same database. Not enabled, so it runs no heartbeat: its leases only last
+     * {@code lease-duration} unless it records chunks.
+     */
+    private BillingPartitionLeases otherNode(String nodeId, int partitionSize) {
+        return new BillingPartitionLeases(partitionRepository, supplyPointRepository,
+                new BillingClusterProperties(false, nodeId, partitionSize, Duration.ofSeconds(3), Duration.ofMillis(100)),
+                transactionManager);
+    }
+}
@@ -0,0 +1,46 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.service.InvoiceNumberAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Base class of the integration tests whose writes commit (billing chunks, jobs, partitions), which a
+ * test-managed transaction cannot roll back.
+ * <p>
+ * Each Spring context of these tests gets its own in-memory database (named after {@code random.uuid}),
+ * so committed rows never reach the shared {@code gasdb} of the {@code @Transactional} tests; subclasses
+ * with the same configuration share the context. After each test the tables billing writes to are
+ * truncated, leaving the seeded sample data, and the invoice number blocks this node reserved from the
+ * truncated {@code invoice_sequences} are dropped; subclasses clean up any input they change themselves.
+ * Extra configuration goes in {@code @TestPropertySource}, which adds to the properties below.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:gasdb-${random.uuid};DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+abstract class CommittingIntegrationTest {
+
+    private static final List<String> BILLING_TABLES = List.of(
+            "invoice_lines", "invoices", "billing_errors", "billing_checkpoints", "billing_partitions",
+            "billing_jobs", "invoice_sequences", "billing_summary");
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+
+    @AfterEach
+    void truncateBillingTables() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            BILLING_TABLES.forEach(table -> jdbcTemplate.execute("TRUNCATE TABLE " + table));
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+        invoiceNumberAllocator.discardStaleBlocks();
+    }
+}
@@ -0,0 +1,79 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.seed.DatasetGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the synthetic data set generator (no Spring context).
+ */
+class DatasetGeneratorTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private static DatasetGenerator.Options options(Path out, long seed) {
+        return new DatasetGenerator.Options(out, 10_000, seed, YearMonth.of(2026, 1), YearMonth.of(2026, 3),
+                4, 3, 0.05, 0.02, 0.10, 0.01);
+    }
+
+    @Test
+    void sameSeed_writesIdenticalFiles_otherSeedDoesNot() throws IOException {
+        Path a = tempDir.resolve("dataset-a");
+        Path b = tempDir.resolve("dataset-b");
+        Path c = tempDir.resolve("dataset-c");
+        new DatasetGenerator(options(a, 7)).generate();
+        new DatasetGenerator(options(b, 7)).generate();
+        new DatasetGenerator(options(c, 8)).generate();
+
+        for (String file : List.of("supply-points.csv", "gas-readings.csv", "gas-tariffs.csv",
+                "gas-conversion-factors.csv", "taxes.csv")) {
+            assertThat(Files.mismatch(a.resolve(file), b.resolve(file))).as(file).isEqualTo(-1L);
+        }
+        assertThat(Files.mismatch(a.resolve("gas-readings.csv"), c.resolve("gas-readings.csv"))).isNotEqualTo(-1L);
+    }
+
+    @Test
+    void generatedFiles_followTheCsvSpec_andContainTheAnomalies() throws IOException {
+        Path out = tempDir.resolve("dataset");
+        DatasetGenerator.Summary summary = new DatasetGenerator(options(out, 42)).generate();
+
+        List<String> supplyPoints = Files.readAllLines(out.resolve("supply-points.csv"));
+        assertThat(supplyPoints.get(0)).isEqualTo("cups,zona,tarifa,estado");
+        assertThat(supplyPoints).hasSize(10_001);
+        assertThat(supplyPoints.subList(1, supplyPoints.size()))
+                .allSatisfy(row -> assertThat(row).matches("ES0021\\d{9}SY,ZONA[1-4],RL[1-3],(ACTIVO|INACTIVO)"));
+
+        List<String> readings = Files.readAllLines(out.resolve("gas-readings.csv"));
+        assertThat(readings.get(0)).isEqualTo("cups,fecha,lectura_m3,tipo");
+        assertThat((long) readings.size() - 1).isEqualTo(summary.readings());
+        // 4 month-end readings per CUPS (2025-12 .. 2026-03), minus the gaps
+        assertThat(summary.readings() + summary.gaps()).isEqualTo(40_000L);
+        assertThat(readings.subList(1, readings.size()))
+                .allSatisfy(row -> assertThat(row).matches(
+                        "ES0021\\d{9}SY,(2025-12-31|2026-01-31|2026-02-28|2026-03-31),\\d+\\.\\d{2},(REAL|ESTIMADA)"));
+        assertThat(summary.gaps()).isBetween(400L, 1_200L);
+        assertThat(summary.estimated()).isBetween(3_000L, 5_000L);
+        assertThat(summary.negative()).isBetween(200L, 600L);
+
+        // Readings are sorted by CUPS then date, as the seeder and the billing keyset pages expect
+        try (Stream<String> lines = Files.lines(out.resolve("gas-readings.csv")).skip(1)) {
+            List<String> keys = lines.map(row -> row.substring(0, row.indexOf(',', 18))).toList();
+            assertThat(keys).isSorted();
+        }
+
+        assertThat(Files.readAllLines(out.resolve("gas-tariffs.csv")))
+                .contains("RL1,3.85,0.004500,2000-01-01", "RL2,6.50,0.003800,2000-01-01");
+        // One conversion factor per zone and billed month
+        assertThat(summary.conversionFactors()).isEqualTo(12L);
+    }
+}
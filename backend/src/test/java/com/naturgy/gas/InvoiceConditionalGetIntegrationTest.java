@@ -0,0 +1,102 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.controller.InvoiceController;
+import com.naturgy.gas.dto.InvoiceDto;
+import com.naturgy.gas.repository.InvoiceRepository;
+import com.naturgy.gas.service.BillingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conditional GETs of invoices, their PDFs and the invoice list: validators change only when billing
+ * re-bills, and a matching If-None-Match / If-Modified-Since is answered with 304 and no body.
+ */
+class InvoiceConditionalGetIntegrationTest extends CommittingIntegrationTest {
+
+    private static final String AA = "ES0021000000001AA";
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private InvoiceController invoiceController;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    private String numero;
+
+    @BeforeEach
+    void billFebruary() {
+        billingService.runBilling("2026-02");
+        numero = invoiceRepository.findByCupsAndPeriodoInicio(AA, LocalDate.of(2026, 2, 1)).orElseThrow()
+                .getNumeroFactura();
+    }
+
+    @Test
+    void invoice_isNotModifiedUntilReBilled() {
+        ResponseEntity<InvoiceDto> first = invoiceController.get(numero, request(null, null));
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isEqualTo("\"v1\"");
+        assertThat(first.getHeaders().getCacheControl()).isEqualTo("no-cache");
+        assertThat(first.getBody().lines()).hasSize(3);
+
+        ServletWebRequest revalidation = request(HttpHeaders.IF_NONE_MATCH, etag);
+        assertThat(invoiceController.get(numero, revalidation)).isNull();
+        assertThat(revalidation.getResponse().getStatus()).isEqualTo(304);
+
+        String lastModified = first.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+        assertThat(lastModified).isNotNull();
+        assertThat(invoiceController.get(numero, request(HttpHeaders.IF_MODIFIED_SINCE, lastModified))).isNull();
+
+        billingService.runBilling("2026-02");
+
+        ResponseEntity<InvoiceDto> reBilled = invoiceController.get(numero, request(HttpHeaders.IF_NONE_MATCH, etag));
+        assertThat(reBilled.getHeaders().getETag()).isEqualTo("\"v2\"");
+        assertThat(reBilled.getBody().numeroFactura()).isEqualTo(numero);
+    }
+
+    @Test
+    void pdf_isNotRenderedForAMatchingETag() throws Exception {
+        ResponseEntity<byte[]> first = invoiceController.pdf(numero, request(null, null));
+        assertThat(first.getBody()).isNotEmpty();
+
+        ServletWebRequest revalidation = request(HttpHeaders.IF_NONE_MATCH, first.getHeaders().getETag());
+        assertThat(invoiceController.pdf(numero, revalidation)).isNull();
+        assertThat(revalidation.getResponse().getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void list_changesETagWhenAnInvoiceIsReBilled() {
+        ResponseEntity<List<InvoiceDto>> first = invoiceController.list(null, "2026-02", null, request(null, null));
+        String etag = first.getHeaders().getETag();
+        assertThat(first.getBody()).hasSize(3);
+        assertThat(invoiceController.list(null, "2026-02", null, request(HttpHeaders.IF_NONE_MATCH, etag))).isNull();
+
+        billingService.runBilling("2026-02");
+
+        ResponseEntity<List<InvoiceDto>> reBilled = invoiceController.list(null, "2026-02", null,
+                request(HttpHeaders.IF_NONE_MATCH, etag));
+        assertThat(reBilled.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(reBilled.getBody()).hasSize(3);
+    }
+
+    private static ServletWebRequest request(String header, String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/gas/invoices");
+        if (header != null) {
+            request.addHeader(header, value);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,138 @@
+package com.naturgy.gas;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.naturgy.gas.controller.InvoiceController;
+import com.naturgy.gas.dto.InvoiceDto;
+import com.naturgy.gas.entity.Invoice;
+import com.naturgy.gas.repository.InvoiceRepository;
+import com.naturgy.gas.service.BillingService;
+import com.naturgy.gas.service.InvoiceExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Invoice export of a billed month in both formats, plain and gzip-compressed.
+ */
+@SpringBootTest
+@Transactional
+class InvoiceExportIntegrationTest {
+
+    private static final String AA = "ES0021000000001AA";
+    private static final YearMonth FEBRUARY = YearMonth.of(2026, 2);
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private InvoiceExportService invoiceExportService;
+
+    @Autowired
+    private InvoiceController invoiceController;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Invoice aa;
+
+    @BeforeEach
+    void billFebruary() {
+        billingService.runBilling("2026-02");
+        String numero = invoiceRepository.findByCupsAndPeriodoInicio(AA, FEBRUARY.atDay(1)).orElseThrow()
+                .getNumeroFactura();
+        aa = invoiceRepository.findByIdWithLines(numero).orElseThrow();
+    }
+
+    @Test
+    void csvExport_writesOneRowPerLine() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long invoices = invoiceExportService.export(FEBRUARY, InvoiceExportService.Format.CSV, out);
+
+        String[] rows = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(invoices).isEqualTo(3);
+        assertThat(rows[0]).startsWith("numero_factura,cups,periodo_inicio");
+        String[] aaRows = Arrays.stream(rows).filter(r -> r.startsWith(aa.getNumeroFactura() + ",")).toArray(String[]::new);
+        assertThat(aaRows).hasSize(aa.getLines().size());
+        assertThat(aaRows[0]).contains(",2026-02-01,2026-02-28,").contains(",9.55,");
+    }
+
+    @Test
+    void ndjsonExport_writesOneInvoiceWithLinesPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        invoiceExportService.export(FEBRUARY, InvoiceExportService.Format.NDJSON, out);
+
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        String[] lines = ndjson.split("\n");
+        assertThat(ndjson).endsWith("}\n");
+        assertThat(lines).hasSize(3).allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+        InvoiceDto exported = Arrays.stream(lines)
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, InvoiceDto.class);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .filter(dto -> dto.cups().equals(AA))
+                .findFirst().orElseThrow();
+        assertThat(exported.numeroFactura()).isEqualTo(aa.getNumeroFactura());
+        assertThat(exported.total()).isEqualByComparingTo("9.55");
+        assertThat(exported.lines()).hasSize(aa.getLines().size());
+    }
+
+    @Test
+    void export_isGzippedWhenAccepted() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = invoiceController.export("2026-02", "csv", "gzip, deflate");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertThat(csv).contains(aa.getNumeroFactura());
+    }
+
+    @Test
+    void export_isPlainWhenGzipIsRefused() throws Exception {
+        for (String acceptEncoding : new String[] {"gzip;q=0", "deflate", "*;q=0.5, gzip;q=0", null}) {
+            ResponseEntity<StreamingResponseBody> response = invoiceController.export("2026-02", "csv", acceptEncoding);
+            assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isNull();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            response.getBody().writeTo(out);
+            assertThat(out.toString(StandardCharsets.UTF_8)).startsWith("numero_factura,");
+        }
+        assertThat(invoiceController.export("2026-02", "csv", "deflate, *;q=0.1").getHeaders()
+                .getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    }
+
+    @Test
+    void export_rejectsUnknownFormatsAndPeriods() {
+        assertThrows(IllegalArgumentException.class, () -> invoiceController.export("2026-02", "xlsx", null));
+        assertThrows(IllegalArgumentException.class, () -> invoiceController.export("02-2026", "csv", null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(invoiceExportService.export(YearMonth.of(2020, 1), InvoiceExportService.Format.NDJSON, out))
+                .isZero();
+        assertThat(out.size()).isZero();
+    }
+}
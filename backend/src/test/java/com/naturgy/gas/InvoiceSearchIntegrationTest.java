@@ -0,0 +1,104 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.controller.InvoiceController;
+import com.naturgy.gas.dto.CursorPageDto;
+import com.naturgy.gas.dto.InvoiceDto;
+import com.naturgy.gas.service.BillingService;
+import com.naturgy.gas.service.ListingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Invoice search: filters, keyset pages and the query plans of the generated statements
+ * (each filter must be answered through its index, not a table scan).
+ */
+@SpringBootTest
+@Transactional
+class InvoiceSearchIntegrationTest {
+
+    private static final String AA = "ES0021000000001AA";
+    private static final LocalDate FEBRUARY = LocalDate.of(2026, 2, 1);
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private InvoiceController invoiceController;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void billFebruary() {
+        billingService.runBilling("2026-02");
+    }
+
+    @Test
+    void list_appliesOnlyTheGivenFilters() {
+        assertThat(list(null, null, null)).hasSize(3);
+        assertThat(list(null, "2026-02", null)).hasSize(3);
+        assertThat(list(null, "2026-01", null)).isEmpty();
+
+        List<InvoiceDto> aa = list(AA, "2026-02", null);
+        assertThat(aa).hasSize(1);
+        assertThat(aa.get(0).total()).isEqualByComparingTo("9.55");
+        assertThat(aa.get(0).lines()).isEmpty();
+
+        LocalDate fechaEmision = aa.get(0).fechaEmision();
+        assertThat(list(null, null, fechaEmision.toString())).hasSize(3);
+    }
+
+    @Test
+    void page_walksTheResultsInSortOrder() {
+        CursorPageDto<InvoiceDto> first = invoiceController.page(null, "2026-02", null, "total", "desc", null, 2);
+        assertThat(first.items()).hasSize(2);
+        assertThat(first.items().get(0).total()).isGreaterThanOrEqualTo(first.items().get(1).total());
+
+        CursorPageDto<InvoiceDto> second = invoiceController.page(null, "2026-02", null, "total", "desc",
+                first.nextCursor(), 2);
+        assertThat(second.items()).hasSize(1);
+        assertThat(second.items().get(0).total()).isLessThanOrEqualTo(first.items().get(1).total());
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void queryPlans_useAnIndexPerFilter() {
+        String byPeriod = explain(new ListingService.InvoiceFilter(null, FEBRUARY, null), "periodo");
+        assertThat(byPeriod).contains("IDX_INVOICES_PERIODO_INICIO");
+
+        String byEmision = explain(new ListingService.InvoiceFilter(null, null, LocalDate.of(2026, 3, 1)), "emision");
+        assertThat(byEmision).contains("IDX_INVOICES_FECHA_EMISION");
+
+        String byCups = explain(new ListingService.InvoiceFilter(AA, null, null), "periodo");
+        assertThat(byCups).doesNotContain("TABLESCAN");
+
+        ListingService.Query query = ListingService.invoiceQuery(
+                new ListingService.InvoiceFilter(AA, null, null), ListingService.invoiceSort("periodo", "desc"),
+                null, 10);
+        assertThat(query.sql()).doesNotContain("IS NULL").doesNotContain("periodo_inicio =");
+    }
+
+    private List<InvoiceDto> list(String cups, String period, String fechaEmision) {
+        return invoiceController.list(cups, period, fechaEmision,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/api/gas/invoices"))).getBody();
+    }
+
+    private String explain(ListingService.InvoiceFilter filter, String sort) {
+        ListingService.Query query = ListingService.invoiceQuery(filter, ListingService.invoiceSort(sort, "desc"),
+                null, 100);
+        return jdbcTemplate.queryForObject("EXPLAIN " + query.sql(), String.class, query.args().toArray())
+                .toUpperCase(Locale.ROOT);
+    }
+}
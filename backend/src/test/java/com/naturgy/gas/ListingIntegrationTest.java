@@ -0,0 +1,111 @@
+package com.naturgy.gas;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.naturgy.gas.dto.CursorPageDto;
+import com.naturgy.gas.dto.GasReadingDto;
+import com.naturgy.gas.dto.SupplyPointDto;
+import com.naturgy.gas.repository.GasReadingRepository;
+import com.naturgy.gas.service.Keyset;
+import com.naturgy.gas.service.ListingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Keyset pages and NDJSON streams of readings and supply points over the seeded sample data.
+ */
+@SpringBootTest
+@Transactional
+class ListingIntegrationTest {
+
+    @Autowired
+    private ListingService listingService;
+
+    @Autowired
+    private GasReadingRepository gasReadingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void readingPages_walkTheWholeTableInSortOrder() {
+        List<GasReadingDto> expected = gasReadingRepository.findAll().stream()
+                .map(GasReadingDto::from)
+                .sorted(Comparator.comparing(GasReadingDto::fecha).thenComparing(GasReadingDto::id).reversed())
+                .toList();
+
+        Keyset<GasReadingDto> keyset = ListingService.readingSort("fecha", "desc");
+        List<GasReadingDto> read = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDto<GasReadingDto> page = listingService.readings(keyset, cursor, 4);
+            assertThat(page.items().size()).isLessThanOrEqualTo(4);
+            read.addAll(page.items());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(read).extracting(GasReadingDto::id).containsExactlyElementsOf(
+                expected.stream().map(GasReadingDto::id).toList());
+        assertThat(pages).isEqualTo(expected.size() / 4 + 1);
+    }
+
+    @Test
+    void supplyPointPages_resumeAfterTheCursor() {
+        Keyset<SupplyPointDto> keyset = ListingService.supplyPointSort("zona", "asc");
+
+        CursorPageDto<SupplyPointDto> first = listingService.supplyPoints(keyset, null, 2);
+        assertThat(first.items()).extracting(SupplyPointDto::cups)
+                .containsExactly("ES0021000000001AA", "ES0021000000002BB");
+        assertThat(first.nextCursor()).isNotNull();
+
+        CursorPageDto<SupplyPointDto> second = listingService.supplyPoints(keyset, first.nextCursor(), 2);
+        assertThat(second.items()).extracting(SupplyPointDto::cups).containsExactly("ES0021000000003CC");
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void cursors_areBoundToTheirSort() {
+        String cursor = listingService.supplyPoints(ListingService.supplyPointSort("cups", "asc"), null, 1)
+                .nextCursor();
+
+        assertThrows(IllegalArgumentException.class, () ->
+                listingService.supplyPoints(ListingService.supplyPointSort("cups", "desc"), cursor, 1));
+        assertThrows(IllegalArgumentException.class, () ->
+                listingService.supplyPoints(ListingService.supplyPointSort("cups", "asc"), "not a cursor", 1));
+        assertThrows(IllegalArgumentException.class, () -> ListingService.readingSort("lectura", "asc"));
+        assertThrows(IllegalArgumentException.class, () ->
+                listingService.readings(ListingService.readingSort("id", "asc"), null, ListingService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void readingStream_writesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = listingService.streamReadings(ListingService.readingSort("cups", "asc"), out);
+
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        String[] lines = ndjson.split("\n");
+        assertThat(rows).isEqualTo(gasReadingRepository.count());
+        assertThat(ndjson).endsWith("}\n");
+        assertThat(lines).hasSize((int) rows);
+        for (String line : lines) {
+            assertThat(line).startsWith("{").endsWith("}");
+            assertThat(objectMapper.readValue(line, GasReadingDto.class).cups()).isNotNull();
+        }
+        GasReadingDto first = objectMapper.readValue(lines[0], GasReadingDto.class);
+        assertThat(first.cups()).isEqualTo("ES0021000000001AA");
+        assertThat(first.fecha()).hasToString("2025-12-31");
+    }
+}
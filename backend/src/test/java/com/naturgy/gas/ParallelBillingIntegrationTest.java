@@ -0,0 +1,147 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.dto.BillingResultDto;
+import com.naturgy.gas.entity.BillingJob;
+import com.naturgy.gas.entity.Invoice;
+import com.naturgy.gas.repository.BillingErrorRepository;
+import com.naturgy.gas.repository.BillingJobRepository;
+import com.naturgy.gas.repository.InvoiceRepository;
+import com.naturgy.gas.repository.InvoiceSequenceRepository;
+import com.naturgy.gas.service.BillingService;
+import com.naturgy.gas.service.InvoiceNumberAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for the parallel billing mode: one CUPS per chunk, three workers.
+ */
+@TestPropertySource(properties = {
+        "gas.billing.workers=3",
+        "gas.billing.chunk-size=1",
+        "gas.billing.invoice-number-block=4"
+})
+class ParallelBillingIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private BillingErrorRepository billingErrorRepository;
+
+    @Autowired
+    private BillingJobRepository billingJobRepository;
+
+    @Autowired
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+
+    @Autowired
+    private InvoiceSequenceRepository invoiceSequenceRepository;
+
+    @Test
+    void parallelRun_matchesSequentialResults() {
+        BillingResultDto result = billingService.runBilling("2026-02");
+
+        assertThat(result.invoicesCreated()).isEqualTo(3);
+        assertThat(result.invoicesUpdated()).isEqualTo(0);
+        assertThat(result.errorCount()).isZero();
+
+        // Same amounts as the sequential path (see BillingIntegrationTest)
+        Invoice aa = invoiceRepository.findByCupsAndPeriodoInicio("ES0021000000001AA", LocalDate.of(2026, 2, 1))
+                .orElseThrow();
+        assertThat(aa.getBase()).isEqualByComparingTo("7.89");
+        assertThat(aa.getImpuestos()).isEqualByComparingTo("1.66");
+        assertThat(aa.getTotal()).isEqualByComparingTo("9.55");
+
+        // Blocks reserved by other nodes or runs leave gaps: numbers are unique, not consecutive
+        List<Invoice> invoices = invoiceRepository.findAll();
+        assertThat(invoices).allSatisfy(i ->
+                assertThat(i.getNumeroFactura()).matches("GAS-202602-" + i.getCups() + "-\\d{3,}"));
+        assertThat(invoices.stream().map(i -> i.getNumeroFactura().substring(i.getNumeroFactura().lastIndexOf('-') + 1)))
+                .as("Each invoice gets its own sequence number").doesNotHaveDuplicates();
+    }
+
+    @Test
+    void parallelRun_isIdempotent() {
+        billingService.runBilling("2026-02");
+        BillingResultDto second = billingService.runBilling("2026-02");
+
+        assertThat(second.invoicesCreated()).isEqualTo(0);
+        assertThat(second.invoicesUpdated()).isEqualTo(3);
+        assertThat(invoiceRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void parallelRun_collectsErrorsFromAllChunks() {
+        BillingResultDto result = billingService.runBilling("2020-01");
+
+        assertThat(result.errorCount()).isEqualTo(3);
+        assertThat(billingErrorRepository.findByPeriod("2020-01")).hasSize(3);
+    }
+
+    @Test
+    void submittedJob_runsInBackground_andReportsCounters() throws InterruptedException {
+        Long jobId = billingService.submitBilling("2026-02");
+
+        BillingJob job = billingJobRepository.findById(jobId).orElseThrow();
+        for (int i = 0; i < 100 && job.getStatus() == BillingJob.Status.RUNNING; i++) {
+            Thread.sleep(100);
+            job = billingJobRepository.findById(jobId).orElseThrow();
+        }
+
+        assertThat(job.getStatus()).isEqualTo(BillingJob.Status.COMPLETED);
+        assertThat(job.getTotalCups()).isEqualTo(3);
+        assertThat(job.getProcessedCups()).isEqualTo(3);
+        assertThat(job.getInvoicesCreated()).isEqualTo(3);
+    }
+
+    @Test
+    void invoiceNumberAllocator_handsOutUniqueNumbersAcrossThreads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Long>> tasks = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                tasks.add(() -> invoiceNumberAllocator.next("209901"));
+            }
+            Set<Long> numbers = new HashSet<>();
+            for (Future<Long> f : pool.invokeAll(tasks)) {
+                numbers.add(f.get());
+            }
+
+            assertThat(numbers).hasSize(200);
+            assertThat(numbers).allSatisfy(n -> assertThat(n).isBetween(1L, 200L));
+            // 50 blocks of 4 reserved, none left partially used
+            assertThat(invoiceSequenceRepository.findById("209901").orElseThrow().getLastValue()).isEqualTo(200L);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void invoiceNumberAllocator_discardsBlocksOfADeletedSequence() {
+        assertThat(invoiceNumberAllocator.next("209902")).isEqualTo(1L);
+        assertThat(invoiceNumberAllocator.next("209902")).isEqualTo(2L);
+
+        // Recreated from the invoice count (none): a kept block would hand out 3 and 4 twice
+        invoiceSequenceRepository.deleteById("209902");
+        invoiceNumberAllocator.discardStaleBlocks();
+
+        assertThat(invoiceNumberAllocator.next("209902")).isEqualTo(1L);
+        assertThat(invoiceSequenceRepository.findById("209902").orElseThrow().getLastValue()).isEqualTo(4L);
+    }
+}
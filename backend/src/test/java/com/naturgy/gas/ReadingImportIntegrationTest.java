@@ -0,0 +1,118 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.controller.GasReadingController;
+import com.naturgy.gas.dto.ReadingImportResultDto;
+import com.naturgy.gas.dto.ReadingRejectDto;
+import com.naturgy.gas.entity.GasReading;
+import com.naturgy.gas.repository.GasReadingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Bulk import of readings through {@code POST /api/gas/readings/bulk}, on top of the seeded sample data.
+ */
+@SpringBootTest
+@Transactional
+class ReadingImportIntegrationTest {
+
+    private static final String AA = "ES0021000000001AA";
+    private static final String BB = "ES0021000000002BB";
+
+    @Autowired
+    private GasReadingController gasReadingController;
+
+    @Autowired
+    private GasReadingRepository gasReadingRepository;
+
+    @Test
+    void csvImport_insertsNewReadingsAndRejectsTheRest() {
+        long before = gasReadingRepository.count();
+
+        ReadingImportResultDto result = gasReadingController.bulkImport("text/csv", body("""
+                cups,fecha,lectura_m3,tipo
+                ES0021000000001AA,2026-03-31,1400.125,REAL
+                ES0021000000002BB,2026-02-28,990.00,REAL
+                ES0021000000009ZZ,2026-03-31,10.00,REAL
+                ES0021000000002BB,2026-03-31,-5,REAL
+                ES0021000000002BB,2026-03-31,1010.00,ESTIMADA
+                ES0021000000001AA,2026-03-31,1400.125,REAL
+                """));
+
+        assertThat(result.received()).isEqualTo(6);
+        assertThat(result.inserted()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(4);
+        assertThat(result.rejectsTruncated()).isFalse();
+        assertThat(result.rejects()).extracting(ReadingRejectDto::line)
+                .containsExactlyInAnyOrder(3L, 4L, 5L, 7L);
+        assertThat(reasonOf(result, 3)).isEqualTo(ReadingRejectDto.Reason.DUPLICATE);
+        assertThat(reasonOf(result, 4)).isEqualTo(ReadingRejectDto.Reason.UNKNOWN_CUPS);
+        assertThat(reasonOf(result, 5)).isEqualTo(ReadingRejectDto.Reason.INVALID);
+        assertThat(reasonOf(result, 7)).as("Duplicate within the same request").isEqualTo(ReadingRejectDto.Reason.DUPLICATE);
+
+        assertThat(gasReadingRepository.count()).isEqualTo(before + 2);
+        GasReading imported = gasReadingRepository.findByCupsOrderByFechaDesc(AA).get(0);
+        assertThat(imported.getFecha()).isEqualTo(LocalDate.of(2026, 3, 31));
+        assertThat(imported.getLecturaM3()).isEqualByComparingTo(new BigDecimal("1400.125"));
+        assertThat(gasReadingRepository.findByCupsOrderByFechaDesc(BB).get(0).getTipo())
+                .isEqualTo(GasReading.TipoLectura.ESTIMADA);
+    }
+
+    @Test
+    void ndjsonImport_validatesEachLine() {
+        ReadingImportResultDto result = gasReadingController.bulkImport("application/x-ndjson", body("""
+                {"cups":"ES0021000000001AA","fecha":"2026-03-31","lecturaM3":1400.5,"tipo":"REAL"}
+
+                {"cups":"ES0021000000002BB","fecha":"2026-31-03","lecturaM3":1000,"tipo":"REAL"}
+                {"cups":"ES0021000000002BB","fecha":"2026-03-31","lecturaM3":1000.1234,"tipo":"REAL"}
+                not json
+                """));
+
+        assertThat(result.received()).isEqualTo(4);
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(result.rejects()).extracting(ReadingRejectDto::line).containsExactly(3L, 4L, 5L);
+        assertThat(result.rejects()).extracting(ReadingRejectDto::reason)
+                .containsOnly(ReadingRejectDto.Reason.INVALID);
+    }
+
+    @Test
+    void csvImport_largeBodySpansSeveralChunks() {
+        StringBuilder csv = new StringBuilder("cups,fecha,lectura_m3,tipo\n");
+        LocalDate start = LocalDate.of(2027, 1, 1);
+        for (int day = 0; day < 2500; day++) {
+            csv.append(AA).append(',').append(start.plusDays(day)).append(',').append(2000 + day).append(",REAL\n");
+        }
+        // Repeats a reading of the first chunk from the last one
+        csv.append(AA).append(',').append(start).append(",2000,REAL\n");
+
+        ReadingImportResultDto result = gasReadingController.bulkImport("text/csv; charset=UTF-8", body(csv.toString()));
+
+        assertThat(result.inserted()).isEqualTo(2500);
+        assertThat(result.rejects()).hasSize(1);
+        assertThat(result.rejects().get(0).reason()).isEqualTo(ReadingRejectDto.Reason.DUPLICATE);
+        assertThat(result.rejects().get(0).line()).isEqualTo(2502L);
+    }
+
+    @Test
+    void csvImport_rejectsUnexpectedHeader() {
+        assertThrows(IllegalArgumentException.class, () -> gasReadingController.bulkImport("text/csv",
+                body("cups;fecha;lectura_m3;tipo\n" + AA + ";2026-03-31;1400;REAL\n")));
+    }
+
+    private static ReadingRejectDto.Reason reasonOf(ReadingImportResultDto result, long line) {
+        return result.rejects().stream().filter(r -> r.line() == line).findFirst().orElseThrow().reason();
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
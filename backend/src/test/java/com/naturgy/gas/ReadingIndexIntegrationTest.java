@@ -0,0 +1,129 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.controller.GasReadingController;
+import com.naturgy.gas.dto.GasReadingDto;
+import com.naturgy.gas.dto.ReadingImportResultDto;
+import com.naturgy.gas.entity.Invoice;
+import com.naturgy.gas.repository.GasReadingRepository;
+import com.naturgy.gas.repository.InvoiceRepository;
+import com.naturgy.gas.repository.ReadingPoint;
+import com.naturgy.gas.service.BillingService;
+import com.naturgy.gas.service.BoundaryReadingResolver;
+import com.naturgy.gas.service.BoundaryReadings;
+import com.naturgy.gas.service.ReadingIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for {@link ReadingIndex}: lookups against the seeded sample readings and consistency with
+ * writes through the readings endpoints.
+ */
+@TestPropertySource(properties = "gas.readings.index.enabled=true")
+class ReadingIndexIntegrationTest extends CommittingIntegrationTest {
+
+    private static final String AA = "ES0021000000001AA";
+    private static final String BB = "ES0021000000002BB";
+    private static final LocalDate MARCH_END = LocalDate.of(2026, 3, 31);
+
+    @Autowired
+    private ReadingIndex readingIndex;
+
+    @Autowired
+    private BoundaryReadingResolver boundaryReadingResolver;
+
+    @Autowired
+    private GasReadingController gasReadingController;
+
+    @Autowired
+    private GasReadingRepository gasReadingRepository;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @AfterEach
+    void removeAddedReadings() {
+        jdbcTemplate.update("DELETE FROM gas_readings WHERE fecha > DATE '2026-02-28'");
+        readingIndex.refreshAfterCommit(List.of(AA, BB));
+    }
+
+    @Test
+    void lookups_binarySearchTheSeededReadings() {
+        assertThat(readingIndex.isReady()).isTrue();
+
+        ReadingPoint inicio = readingIndex.lastBefore(AA, LocalDate.of(2026, 2, 1));
+        assertThat(inicio.fecha()).isEqualTo(LocalDate.of(2026, 1, 31));
+        assertThat(inicio.lecturaM3()).isEqualTo(new BigDecimal("1250.500"));
+        assertThat(readingIndex.lastOnOrBefore(AA, LocalDate.of(2026, 1, 31)).fecha())
+                .isEqualTo(LocalDate.of(2026, 1, 31));
+        assertThat(readingIndex.lastBefore(AA, LocalDate.of(2026, 1, 31)).fecha())
+                .isEqualTo(LocalDate.of(2025, 12, 31));
+        assertThat(readingIndex.lastOnOrBefore(AA, LocalDate.of(2099, 1, 1)).fecha())
+                .isEqualTo(LocalDate.of(2026, 2, 28));
+        assertThat(readingIndex.lastBefore(AA, LocalDate.of(2025, 12, 31))).isNull();
+        assertThat(readingIndex.lastOnOrBefore("ES0021000000009ZZ", LocalDate.of(2026, 2, 28))).isNull();
+
+        // Same ids as the table: invoice fingerprints include them
+        Long sqlId = gasReadingRepository.findByCupsOrderByFechaDesc(AA).get(1).getId();
+        assertThat(inicio.id()).isEqualTo(sqlId);
+        assertThat(readingIndex.history(AA)).extracting(GasReadingDto::fecha)
+                .containsExactly(LocalDate.of(2026, 2, 28), LocalDate.of(2026, 1, 31), LocalDate.of(2025, 12, 31));
+    }
+
+    @Test
+    void resolver_usesTheIndexForBoundaries() {
+        Map<String, BoundaryReadings> boundaries = boundaryReadingResolver.resolve(
+                List.of(AA, BB, "ES0021000000009ZZ"), LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 28));
+
+        assertThat(boundaries.keySet()).containsExactlyInAnyOrder(AA, BB);
+        assertThat(boundaries.get(BB).inicio().lecturaM3()).isEqualByComparingTo("900.00");
+        assertThat(boundaries.get(BB).fin().lecturaM3()).isEqualByComparingTo("980.20");
+
+        billingService.runBilling("2026-02");
+        Invoice invoice = invoiceRepository.findByCupsAndPeriodoInicio(AA, LocalDate.of(2026, 2, 1)).orElseThrow();
+        assertThat(invoice.getTotal()).isEqualByComparingTo("9.55");
+    }
+
+    @Test
+    void controllerWrites_areVisibleInTheIndex() {
+        GasReadingDto created = gasReadingController.create(
+                new GasReadingDto(null, AA, MARCH_END, new BigDecimal("1400.125"), "REAL"));
+        assertThat(readingIndex.lastOnOrBefore(AA, MARCH_END).id()).isEqualTo(created.id());
+        assertThat(gasReadingController.list(AA).get(0)).isEqualTo(created);
+
+        gasReadingController.update(created.id(),
+                new GasReadingDto(created.id(), AA, MARCH_END, new BigDecimal("1410.000"), "ESTIMADA"));
+        assertThat(readingIndex.lastOnOrBefore(AA, MARCH_END).lecturaM3()).isEqualTo(new BigDecimal("1410.000"));
+        assertThat(readingIndex.history(AA).get(0).tipo()).isEqualTo("ESTIMADA");
+
+        gasReadingController.delete(created.id());
+        assertThat(readingIndex.lastOnOrBefore(AA, MARCH_END).fecha()).isEqualTo(LocalDate.of(2026, 2, 28));
+    }
+
+    @Test
+    void bulkImport_isVisibleInTheIndex() {
+        ReadingImportResultDto result = gasReadingController.bulkImport("text/csv", new ByteArrayInputStream("""
+                cups,fecha,lectura_m3,tipo
+                ES0021000000001AA,2026-03-31,1400.125,REAL
+                ES0021000000002BB,2026-03-31,1010.00,ESTIMADA
+                """.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.inserted()).isEqualTo(2);
+        assertThat(readingIndex.lastOnOrBefore(AA, MARCH_END).lecturaM3()).isEqualTo(new BigDecimal("1400.125"));
+        assertThat(readingIndex.lastBefore(BB, LocalDate.of(2026, 4, 1)).fecha()).isEqualTo(MARCH_END);
+        assertThat(readingIndex.history(BB)).hasSize(4);
+    }
+}
@@ -86,7 +86,8 @@ class SmokeTest {
         // Re-trigger seed via a new seeder instance
         com.naturgy.gas.seed.DataSeeder seeder = new com.naturgy.gas.seed.DataSeeder(
                 supplyPointRepository, gasTariffRepository,
-                gasConversionFactorRepository, taxConfigRepository, gasReadingRepository);
+                gasConversionFactorRepository, taxConfigRepository, gasReadingRepository,
+                new com.naturgy.gas.config.SeedProperties(""));
         seeder.run(null);
 
         assertThat(supplyPointRepository.count()).isEqualTo(supplyBefore);
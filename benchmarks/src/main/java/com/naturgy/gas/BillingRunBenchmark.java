@@ -0,0 +1,97 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.dto.BillingResultDto;
+import com.naturgy.gas.service.BillingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full {@code runBilling("2026-02")} against an in-memory H2 database seeded with {@code cups} synthetic
+ * supply points (plus the sample data set loaded by {@link com.naturgy.gas.seed.DataSeeder}), with
+ * {@code workers} billing threads. Each measured run creates every invoice: the invoices of the
+ * previous run are deleted before it. CUPS/s is {@code cups / score}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class BillingRunBenchmark {
+
+    @Param({"10000"})
+    public int cups;
+
+    @Param({"1", "4"})
+    public int workers;
+
+    private ConfigurableApplicationContext context;
+    private BillingService billingService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(GasApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:gasdb-bench;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "gas.billing.workers=" + workers,
+                        "gas.billing.resume-on-startup=false",
+                        "logging.level.com.naturgy.gas=WARN")
+                .run();
+        billingService = context.getBean(BillingService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                INSERT INTO supply_points (cups, zona, tarifa, estado)
+                SELECT 'ES0098' || LPAD(X, 11, '0') || 'BM',
+                       CASE WHEN MOD(X, 2) = 0 THEN 'ZONA1' ELSE 'ZONA2' END,
+                       CASE WHEN MOD(X, 3) = 0 THEN 'RL2' ELSE 'RL1' END,
+                       'ACTIVO'
+                FROM SYSTEM_RANGE(1, ?)""", cups);
+        jdbcTemplate.update("""
+                INSERT INTO gas_readings (cups, fecha, lectura_m3, tipo)
+                SELECT 'ES0098' || LPAD(X, 11, '0') || 'BM', DATE '2026-01-31', 1000.000, 'REAL'
+                FROM SYSTEM_RANGE(1, ?)""", cups);
+        jdbcTemplate.update("""
+                INSERT INTO gas_readings (cups, fecha, lectura_m3, tipo)
+                SELECT 'ES0098' || LPAD(X, 11, '0') || 'BM', DATE '2026-02-28', 1000.000 + MOD(X, 500) / 10.0, 'REAL'
+                FROM SYSTEM_RANGE(1, ?)""", cups);
+    }
+
+    @Setup(Level.Iteration)
+    public void deleteInvoices() {
+        jdbcTemplate.update("DELETE FROM invoice_lines");
+        jdbcTemplate.update("DELETE FROM invoices");
+    }
+
+    @Benchmark
+    public BillingResultDto runBilling() {
+        BillingResultDto result = billingService.runBilling("2026-02");
+        if (result.invoicesCreated() != cups + 3) {
+            throw new IllegalStateException("Expected " + (cups + 3) + " invoices, got " + result);
+        }
+        return result;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+}
@@ -0,0 +1,119 @@
+package com.naturgy.gas;
+
+import com.naturgy.gas.dto.ReadingImportResultDto;
+import com.naturgy.gas.service.ReadingImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bulk {@code importReadings} of {@code cups * months} new readings (month-end dates of 2027 onwards, so
+ * none collide with the sample data set) against an in-memory H2 database seeded with {@code cups}
+ * synthetic supply points. Each measured run inserts every reading: the readings of the previous run are
+ * deleted before it. Readings/s is {@code cups * months / score}; the target is 50,000 readings/s.
+ * <p>
+ * Measured at 10000 x 12 on one CPU: CSV 9.9 s (~12,100 readings/s), NDJSON 11.5 s (~10,400 readings/s), so
+ * the target is missed; see the RUNBOOK for where the time goes.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class ReadingImportBenchmark {
+
+    private static final LocalDate FIRST_MONTH_END = LocalDate.of(2027, 1, 31);
+
+    @Param({"10000"})
+    public int cups;
+
+    @Param({"12"})
+    public int months;
+
+    @Param({"CSV", "NDJSON"})
+    public ReadingImportService.Format format;
+
+    private ConfigurableApplicationContext context;
+    private ReadingImportService readingImportService;
+    private JdbcTemplate jdbcTemplate;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(GasApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:gasdb-bench;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "gas.billing.resume-on-startup=false",
+                        "logging.level.com.naturgy.gas=WARN")
+                .run();
+        readingImportService = context.getBean(ReadingImportService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                INSERT INTO supply_points (cups, zona, tarifa, estado)
+                SELECT 'ES0098' || LPAD(X, 11, '0') || 'BM', 'ZONA1', 'RL1', 'ACTIVO'
+                FROM SYSTEM_RANGE(1, ?)""", cups);
+        body = body().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String body() {
+        StringBuilder sb = new StringBuilder(cups * months * 64);
+        if (format == ReadingImportService.Format.CSV) {
+            sb.append("cups,fecha,lectura_m3,tipo\n");
+        }
+        for (int m = 0; m < months; m++) {
+            LocalDate month = FIRST_MONTH_END.plusMonths(m);
+            LocalDate fecha = month.withDayOfMonth(month.lengthOfMonth());
+            for (int i = 1; i <= cups; i++) {
+                String cupsCode = String.format("ES0098%011dBM", i);
+                String lectura = (1000 + m * 50 + i % 50) + ".000";
+                if (format == ReadingImportService.Format.CSV) {
+                    sb.append(cupsCode).append(',').append(fecha).append(',').append(lectura).append(",REAL\n");
+                } else {
+                    sb.append("{\"cups\":\"").append(cupsCode).append("\",\"fecha\":\"").append(fecha)
+                            .append("\",\"lecturaM3\":").append(lectura).append(",\"tipo\":\"REAL\"}\n");
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    @Setup(Level.Iteration)
+    public void deleteReadings() {
+        jdbcTemplate.update("DELETE FROM gas_readings WHERE fecha >= ?", FIRST_MONTH_END);
+    }
+
+    @Benchmark
+    public ReadingImportResultDto importReadings() {
+        ReadingImportResultDto result = readingImportService.importReadings(new ByteArrayInputStream(body), format);
+        if (result.inserted() != (long) cups * months) {
+            throw new IllegalStateException("Expected " + (long) cups * months + " readings, got " + result);
+        }
+        return result;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+}
@@ -0,0 +1,75 @@
+package com.naturgy.gas.seed;
+
+import com.naturgy.gas.entity.GasReading;
+import com.naturgy.gas.entity.SupplyPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV parsing of {@link DataSeeder}: OpenCSV reading plus the mapping of each row to its entity, for
+ * generated {@code gas-readings.csv} and {@code supply-points.csv} files of {@code rows} rows held in
+ * memory (no disk, no database).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvParsingBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private String readingsCsv;
+    private String supplyPointsCsv;
+
+    @Setup
+    public void setUp() {
+        StringBuilder readings = new StringBuilder("cups,fecha,lectura_m3,tipo\n");
+        StringBuilder supplyPoints = new StringBuilder("cups,zona,tarifa,estado\n");
+        LocalDate fecha = LocalDate.of(2026, 2, 28);
+        for (int i = 0; i < rows; i++) {
+            String cups = String.format("ES0021%011dBM", i);
+            readings.append(cups).append(',').append(fecha).append(',')
+                    .append(1000 + i % 500).append(".25,REAL\n");
+            supplyPoints.append(cups).append(i % 2 == 0 ? ",ZONA1" : ",ZONA2")
+                    .append(i % 3 == 0 ? ",RL2" : ",RL1").append(",ACTIVO\n");
+        }
+        readingsCsv = readings.toString();
+        supplyPointsCsv = supplyPoints.toString();
+    }
+
+    @Benchmark
+    public void gasReadings(Blackhole blackhole) {
+        List<String[]> csv = DataSeeder.readCsv(new StringReader(readingsCsv), "gas-readings.csv");
+        for (String[] row : csv) {
+            GasReading reading = DataSeeder.toGasReading(row, "gas-readings.csv");
+            blackhole.consume(reading);
+        }
+    }
+
+    @Benchmark
+    public void supplyPoints(Blackhole blackhole) {
+        List<String[]> csv = DataSeeder.readCsv(new StringReader(supplyPointsCsv), "supply-points.csv");
+        for (String[] row : csv) {
+            SupplyPoint supplyPoint = DataSeeder.toSupplyPoint(row, "supply-points.csv");
+            blackhole.consume(supplyPoint);
+        }
+    }
+}
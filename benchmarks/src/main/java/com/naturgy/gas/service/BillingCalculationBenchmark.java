@@ -0,0 +1,90 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.repository.ReadingPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-CUPS calculation of a billing run, without database: consumption from the boundary readings,
+ * input fingerprint and invoice amounts. Inputs cycle through a table of random CUPS so the JIT cannot
+ * fold them; tariffs, factors and IVA are those of the sample data set for 2026-02.
+ * <p>
+ * {@code perCups} is the path taken by {@code BillingService} (fixed-point calculator);
+ * {@code perCupsReference} is the {@link BigDecimal} reference path, for comparison.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BillingCalculationBenchmark {
+
+    private static final int INPUTS = 1024;
+    private static final YearMonth PERIOD = YearMonth.of(2026, 2);
+
+    private final BoundaryReadings[] readings = new BoundaryReadings[INPUTS];
+    private final BillingReferenceSnapshot.Tariff[] tariffs = new BillingReferenceSnapshot.Tariff[INPUTS];
+    private final BillingReferenceSnapshot.Factor[] factors = new BillingReferenceSnapshot.Factor[INPUTS];
+    private final BigDecimal ivaRate = new BigDecimal("0.21");
+    private final LocalDate periodEnd = PERIOD.atEndOfMonth();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        BillingReferenceSnapshot.Tariff[] tariffTable = {
+                new BillingReferenceSnapshot.Tariff("RL1", new BigDecimal("3.85"), new BigDecimal("0.0045"),
+                        LocalDate.of(2026, 1, 1)),
+                new BillingReferenceSnapshot.Tariff("RL2", new BigDecimal("6.50"), new BigDecimal("0.0038"),
+                        LocalDate.of(2026, 1, 1)),
+                new BillingReferenceSnapshot.Tariff("RL3", new BigDecimal("12.00"), new BigDecimal("0.0031"),
+                        LocalDate.of(2026, 1, 1))
+        };
+        BillingReferenceSnapshot.Factor[] factorTable = {
+                BillingReferenceSnapshot.Factor.of("ZONA1", new BigDecimal("1.02"), new BigDecimal("11.68")),
+                BillingReferenceSnapshot.Factor.of("ZONA2", new BigDecimal("1.01"), new BigDecimal("11.55"))
+        };
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate previousEnd = PERIOD.minusMonths(1).atEndOfMonth();
+        for (int i = 0; i < INPUTS; i++) {
+            String cups = String.format("ES0021%011dBM", i);
+            BigDecimal inicio = BigDecimal.valueOf(random.nextLong(100_000, 10_000_000), 2);
+            BigDecimal fin = inicio.add(BigDecimal.valueOf(random.nextLong(0, 50_000), 2));
+            readings[i] = new BoundaryReadings(new ReadingPoint((long) i, cups, previousEnd, inicio),
+                    new ReadingPoint((long) i + INPUTS, cups, periodEnd, fin));
+            tariffs[i] = tariffTable[random.nextInt(tariffTable.length)];
+            factors[i] = factorTable[random.nextInt(factorTable.length)];
+        }
+    }
+
+    @Benchmark
+    public InvoiceAmounts perCups(Blackhole blackhole) {
+        int i = next++ & (INPUTS - 1);
+        BigDecimal m3 = InvoiceAmounts.consumption("CUPS", "2026-02", readings[i]);
+        blackhole.consume(InvoiceFingerprint.of(readings[i], tariffs[i], factors[i], ivaRate));
+        return InvoiceAmounts.compute(m3, tariffs[i], factors[i], ivaRate, periodEnd);
+    }
+
+    @Benchmark
+    public InvoiceAmounts perCupsReference(Blackhole blackhole) {
+        int i = next++ & (INPUTS - 1);
+        BigDecimal m3 = InvoiceAmounts.consumption("CUPS", "2026-02", readings[i]);
+        blackhole.consume(InvoiceFingerprint.of(readings[i], tariffs[i], factors[i], ivaRate));
+        return InvoiceAmounts.computeReference(m3, tariffs[i], factors[i], ivaRate, periodEnd);
+    }
+}
@@ -0,0 +1,71 @@
+package com.naturgy.gas.service;
+
+import com.naturgy.gas.entity.Invoice;
+import com.naturgy.gas.entity.InvoiceLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PdfService#generate} for a typical invoice: CUPS AA of the sample data set, 2026-02, with its
+ * fixed, variable and IVA lines.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PdfServiceBenchmark {
+
+    private final PdfService pdfService = new PdfService();
+    private Invoice invoice;
+
+    @Setup
+    public void setUp() {
+        invoice = new Invoice();
+        invoice.setNumeroFactura("GAS-202602-ES0021000000001AA-001");
+        invoice.setCups("ES0021000000001AA");
+        invoice.setPeriodoInicio(LocalDate.of(2026, 2, 1));
+        invoice.setPeriodoFin(LocalDate.of(2026, 2, 28));
+        invoice.setFechaEmision(LocalDate.of(2026, 3, 1));
+        invoice.setBase(new BigDecimal("7.89"));
+        invoice.setImpuestos(new BigDecimal("1.66"));
+        invoice.setTotal(new BigDecimal("9.55"));
+        invoice.getLines().add(line(InvoiceLine.TipoLinea.TERMINO_FIJO, "Término fijo",
+                "1.000", "3.850000", "3.85"));
+        invoice.getLines().add(line(InvoiceLine.TipoLinea.TERMINO_VARIABLE, "Término variable",
+                "897.094", "0.004500", "4.04"));
+        invoice.getLines().add(line(InvoiceLine.TipoLinea.IVA, "IVA",
+                "0.210", "7.890000", "1.66"));
+    }
+
+    private InvoiceLine line(InvoiceLine.TipoLinea tipo, String descripcion, String cantidad, String precio,
+                             String importe) {
+        InvoiceLine line = new InvoiceLine();
+        line.setInvoice(invoice);
+        line.setTipoLinea(tipo);
+        line.setDescripcion(descripcion);
+        line.setCantidad(new BigDecimal(cantidad));
+        line.setPrecioUnitario(new BigDecimal(precio));
+        line.setImporte(new BigDecimal(importe));
+        return line;
+    }
+
+    @Benchmark
+    public byte[] generate() throws IOException {
+        return pdfService.generate(invoice);
+    }
+}
@@ -17,13 +17,18 @@ import UpdateIcon from '@mui/icons-material/Update';
 import { DataGrid, type GridColDef } from '@mui/x-data-grid';
 import { PageHeader } from '../../shared/ui/PageHeader';
 import { billingApi } from './api';
-import type { BillingResult, BillingError } from './types';
+import type { BillingResult, BillingError, BillingErrorCode, BillingJob } from './types';
 
 const PERIOD_RE = /^\d{4}-(0[1-9]|1[0-2])$/;
 
-interface ErrorRow extends BillingError {
-  _idx: number;
-}
+const ERROR_CODE_LABELS: Record<BillingErrorCode, string> = {
+  MISSING_INICIO: 'Sin lectura inicial',
+  MISSING_FIN: 'Sin lectura final',
+  NEGATIVE_CONSUMPTION: 'Consumo negativo',
+  NO_TARIFF: 'Sin tarifa',
+  NO_FACTOR: 'Sin factor de conversión',
+  NO_IVA: 'Sin IVA',
+};
 
 export function BillingPage() {
   const [period, setPeriod] = useState('');
@@ -31,6 +36,15 @@ export function BillingPage() {
   const [running, setRunning] = useState(false);
   const [result, setResult] = useState<BillingResult | null>(null);
   const [runError, setRunError] = useState<string | null>(null);
+  const [progress, setProgress] = useState<BillingJob | null>(null);
+  const [errors, setErrors] = useState<BillingError[]>([]);
+  const [nextAfterId, setNextAfterId] = useState<number | null>(null);
+
+  async function loadErrors(afterId?: number) {
+    const page = await billingApi.getErrors(period, undefined, afterId);
+    setErrors((prev) => (afterId == null ? page.items : [...prev, ...page.items]));
+    setNextAfterId(page.nextAfterId);
+  }
 
   async function handleRun() {
     if (!period.trim()) { setPeriodError('El periodo es requerido'); return; }
@@ -38,23 +52,29 @@ export function BillingPage() {
     setPeriodError('');
     setRunError(null);
     setResult(null);
+    setProgress(null);
+    setErrors([]);
+    setNextAfterId(null);
     setRunning(true);
     try {
-      const res = await billingApi.run(period);
+      const res = await billingApi.run(period, setProgress);
       setResult(res);
+      if (res.errorCount > 0) await loadErrors();
     } catch (e) {
       setRunError(e instanceof Error ? e.message : 'Error al ejecutar facturación');
     } finally {
       setRunning(false);
+      setProgress(null);
     }
   }
 
-  const errorColumns: GridColDef<ErrorRow>[] = [
+  const errorColumns: GridColDef<BillingError>[] = [
     { field: 'cups', headerName: 'CUPS', flex: 2, minWidth: 180 },
+    { field: 'code', headerName: 'Código', flex: 1, minWidth: 160, valueFormatter: (v: BillingErrorCode) => ERROR_CODE_LABELS[v] ?? v },
     { field: 'error', headerName: 'Error', flex: 3, minWidth: 240 },
   ];
 
-  const errorRows: ErrorRow[] = (result?.errors ?? []).map((e, i) => ({ ...e, _idx: i }));
+  const hasErrors = (result?.errorCount ?? 0) > 0;
 
   return (
     <Box>
@@ -85,6 +105,14 @@ export function BillingPage() {
         </Stack>
       </Box>
 
+      {running && progress && (
+        <Alert severity="info" sx={{ mb: 3 }}>
+          Procesados {progress.processedCups} de {progress.totalCups} CUPS
+          {progress.cupsPerSecond != null && ` · ${progress.cupsPerSecond.toFixed(1)} CUPS/s`}
+          {progress.etaSeconds != null && ` · ETA ${progress.etaSeconds}s`}
+        </Alert>
+      )}
+
       {runError && (
         <Alert severity="error" sx={{ mb: 3 }} onClose={() => setRunError(null)}>
           {runError}
@@ -125,13 +153,13 @@ export function BillingPage() {
               </Card>
             </Grid>
             <Grid size={{ xs: 12, sm: 4 }}>
-              <Card sx={{ borderLeft: 4, borderColor: result.errors.length > 0 ? 'error.main' : 'success.main' }}>
+              <Card sx={{ borderLeft: 4, borderColor: hasErrors ? 'error.main' : 'success.main' }}>
                 <CardContent>
                   <Stack direction="row" alignItems="center" spacing={1}>
-                    <ErrorIcon color={result.errors.length > 0 ? 'error' : 'success'} />
+                    <ErrorIcon color={hasErrors ? 'error' : 'success'} />
                     <Box>
-                      <Typography variant="h4" color={result.errors.length > 0 ? 'error.main' : 'success.main'}>
-                        {result.errors.length}
+                      <Typography variant="h4" color={hasErrors ? 'error.main' : 'success.main'}>
+                        {result.errorCount}
                       </Typography>
                       <Typography variant="body2" color="text.secondary">Errores</Typography>
                     </Box>
@@ -141,31 +169,41 @@ export function BillingPage() {
             </Grid>
           </Grid>
 
-          {result.errors.length > 0 && (
+          {hasErrors && (
             <Box>
               <Divider sx={{ mb: 2 }} />
               <Typography variant="h6" color="error" sx={{ mb: 1 }}>
                 CUPS con errores de facturación
               </Typography>
+              <Typography variant="body2" color="text.secondary" sx={{ mb: 1 }}>
+                {Object.entries(result.errorsByCode)
+                  .map(([code, count]) => `${ERROR_CODE_LABELS[code as BillingErrorCode] ?? code}: ${count}`)
+                  .join(' · ')}
+              </Typography>
               <DataGrid
-                rows={errorRows}
+                rows={errors}
                 columns={errorColumns}
-                getRowId={(r) => r._idx}
+                getRowId={(r) => r.id}
                 autoHeight
                 pageSizeOptions={[10, 25]}
                 initialState={{ pagination: { paginationModel: { pageSize: 10 } } }}
                 disableRowSelectionOnClick
               />
+              {nextAfterId != null && (
+                <Button sx={{ mt: 1 }} onClick={() => { void loadErrors(nextAfterId); }}>
+                  Cargar más ({errors.length} de {result.errorCount})
+                </Button>
+              )}
             </Box>
           )}
 
-          {result.errors.length === 0 && result.invoicesCreated + result.invoicesUpdated > 0 && (
+          {!hasErrors && result.invoicesCreated + result.invoicesUpdated > 0 && (
             <Alert severity="success">
               ✅ Facturación completada sin errores. Ve a <strong>Facturas</strong> para ver el resultado.
             </Alert>
           )}
 
-          {result.errors.length === 0 && result.invoicesCreated + result.invoicesUpdated === 0 && (
+          {!hasErrors && result.invoicesCreated + result.invoicesUpdated === 0 && (
             <Alert severity="info">
               No hay puntos de suministro activos con datos suficientes para el periodo {result.period}.
             </Alert>
@@ -1,7 +1,55 @@
 import * as http from '../../shared/api/httpClient';
-import type { BillingResult } from './types';
+import type {
+  BillingErrorCode,
+  BillingErrorPage,
+  BillingJob,
+  BillingResult,
+  BillingSimulationRequest,
+  BillingSimulationResult,
+} from './types';
+
+const POLL_INTERVAL_MS = 1000;
+
+const sleep = (ms: number) => new Promise<void>((resolve) => setTimeout(resolve, ms));
 
 export const billingApi = {
-  run: (period: string): Promise<BillingResult> =>
-    http.post<BillingResult>(`/billing/run?period=${encodeURIComponent(period)}`, {}),
+  start: (period: string): Promise<BillingJob> =>
+    http.post<BillingJob>(`/billing/run?period=${encodeURIComponent(period)}`, {}),
+  /** Starts a job over a month range, optionally for a single CUPS (history rebuild). */
+  startRange: (from: string, to: string, cups?: string): Promise<BillingJob> => {
+    const params = new URLSearchParams({ from, to });
+    if (cups) params.set('cups', cups);
+    return http.post<BillingJob>(`/billing/run?${params}`, {});
+  },
+  simulate: (request: BillingSimulationRequest): Promise<BillingSimulationResult> =>
+    http.post<BillingSimulationResult>('/billing/simulations', request),
+  getJob: (id: number): Promise<BillingJob> =>
+    http.get<BillingJob>(`/billing/jobs/${id}`),
+  /** One keyset page of the billing errors of a period; pass the previous nextAfterId to continue. */
+  getErrors: (period: string, code?: BillingErrorCode, afterId?: number, limit = 100): Promise<BillingErrorPage> => {
+    const params = new URLSearchParams({ period, limit: String(limit) });
+    if (code) params.set('code', code);
+    if (afterId != null) params.set('afterId', String(afterId));
+    return http.get<BillingErrorPage>(`/billing/errors?${params}`);
+  },
+  /** Starts a billing job and polls it until it finishes. */
+  run: async (period: string, onProgress?: (job: BillingJob) => void): Promise<BillingResult> => {
+    let job = await billingApi.start(period);
+    while (job.status === 'RUNNING') {
+      onProgress?.(job);
+      await sleep(POLL_INTERVAL_MS);
+      job = await billingApi.getJob(job.id);
+    }
+    if (job.status === 'FAILED') {
+      throw new Error(job.failureMessage ?? 'Error al ejecutar facturación');
+    }
+    return job.result ?? {
+      period: job.period,
+      invoicesCreated: job.invoicesCreated,
+      invoicesUpdated: job.invoicesUpdated,
+      invoicesSkipped: job.invoicesSkipped,
+      errorCount: job.errorCount,
+      errorsByCode: {},
+    };
+  },
 };
@@ -2,10 +2,86 @@ export interface BillingResult {
   period: string;
   invoicesCreated: number;
   invoicesUpdated: number;
-  errors: BillingError[];
+  invoicesSkipped: number;
+  errorCount: number;
+  errorsByCode: Partial<Record<BillingErrorCode, number>>;
 }
 
+export type BillingErrorCode =
+  | 'MISSING_INICIO'
+  | 'MISSING_FIN'
+  | 'NEGATIVE_CONSUMPTION'
+  | 'NO_TARIFF'
+  | 'NO_FACTOR'
+  | 'NO_IVA';
+
 export interface BillingError {
+  id: number;
   cups: string;
+  period: string;
+  code: BillingErrorCode;
   error: string;
+  createdAt: string;
+}
+
+export interface BillingErrorPage {
+  items: BillingError[];
+  nextAfterId: number | null;
+}
+
+export type BillingJobStatus = 'RUNNING' | 'COMPLETED' | 'FAILED';
+
+export interface BillingJob {
+  id: number;
+  period: string;
+  periodTo: string;
+  cups: string | null;
+  delta: boolean;
+  status: BillingJobStatus;
+  totalCups: number;
+  processedCups: number;
+  invoicesCreated: number;
+  invoicesUpdated: number;
+  invoicesSkipped: number;
+  errorCount: number;
+  cupsPerSecond: number | null;
+  etaSeconds: number | null;
+  startedAt: string;
+  finishedAt: string | null;
+  failureMessage: string | null;
+  result: BillingResult | null;
+}
+
+export interface SimulationAmounts {
+  base: number;
+  impuestos: number;
+  total: number;
+}
+
+export interface BillingSimulationRequest {
+  period: string;
+  tariffs?: { tarifa: string; fijoMesEur: number; variableEurKwh: number; vigenciaDesde?: string }[];
+  factors?: { zona: string; coefConv: number; pcsKwhM3: number }[];
+  ivaRate?: number;
+}
+
+export interface BillingSimulationGroup {
+  tarifa: string;
+  zona: string;
+  cups: number;
+  current: SimulationAmounts;
+  simulated: SimulationAmounts;
+  delta: SimulationAmounts;
+}
+
+export interface BillingSimulationResult {
+  period: string;
+  cupsSimulated: number;
+  unbillableCurrent: number;
+  unbillableSimulated: number;
+  current: SimulationAmounts;
+  simulated: SimulationAmounts;
+  delta: SimulationAmounts;
+  groups: BillingSimulationGroup[];
+  elapsedMs: number;
 }